@@ -0,0 +1,55 @@
+#!/bin/bash
+#
+# Copyright DataStax, Inc.
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+# http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+#
+
+# Compares the startup time and the memory footprint of the JVM and the native operator images.
+# The operator runs in docker against the current kubectl context, with the CRDs already applied.
+# Usage: ./dev/benchmark-startup.sh [jvm image] [native image]
+set -e
+jvm_image=${1:-docker.io/datastax/kaap:latest-dev}
+native_image=${2:-docker.io/datastax/kaap:latest-dev-native}
+kubeconfig=${KUBECONFIG:-$HOME/.kube/config}
+
+benchmark() {
+  local name=$1
+  local image=$2
+  local container=kaap-benchmark-$name
+  docker rm -f $container > /dev/null 2>&1 || true
+  local start=$(date +%s%N)
+  docker run -d --name $container --network host \
+    -v $kubeconfig:/kube/config:ro -e KUBECONFIG=/kube/config \
+    -e KAAP_RESOURCES_CACHE_ENABLED=true \
+    $image > /dev/null
+  # the operator is ready once the controllers are started and the informers are synced
+  until docker logs $container 2>&1 | grep -q "started in"; do
+    if [ -z "$(docker ps -q -f name=$container)" ]; then
+      docker logs $container
+      echo "$name operator failed to start"
+      exit 1
+    fi
+    sleep 0.1
+  done
+  local ready=$(( ($(date +%s%N) - start) / 1000000 ))
+  local reported=$(docker logs $container 2>&1 | grep -o "started in [0-9.]*s" | head -1)
+  # let the first reconciliations run before measuring the memory
+  sleep 30
+  local rss=$(docker stats --no-stream --format "{{.MemUsage}}" $container | cut -d/ -f1)
+  echo "$name: ready after ${ready}ms ($reported), RSS $rss"
+  docker rm -f $container > /dev/null
+}
+
+benchmark jvm $jvm_image
+benchmark native $native_image
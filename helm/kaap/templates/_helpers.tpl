@@ -63,6 +63,13 @@ Create the name of the operator role binding to use
 {{- default "default" .Values.rbac.operatorRoleBinding.name }}
 {{- end }}
 
+{{/*
+Whether the operator watches namespaces other than the release namespace
+*/}}
+{{- define "kaap.clusterWide" -}}
+{{- if or .Values.operator.watchAllNamespaces .Values.operator.config.operator.watchNamespacesSelector }}true{{- end }}
+{{- end }}
+
 {{/*
 Create the name of the operator service account to use
 */}}
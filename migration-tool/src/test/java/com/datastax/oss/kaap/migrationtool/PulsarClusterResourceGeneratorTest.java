@@ -408,6 +408,8 @@ public class PulsarClusterResourceGeneratorTest {
                               scaleUpMaxLimit: 30
                               scaleDownBy: 1
                               stabilizationWindowMs: 300000
+                              forceGcBeforeScaleUp: false
+                              forceGcWaitMs: 120000
                             cleanUpPvcs: true
                             setsUpdateStrategy: RollingUpdate
                             autoRackConfig:
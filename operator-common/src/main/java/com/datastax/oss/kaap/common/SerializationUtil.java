@@ -16,6 +16,7 @@
 package com.datastax.oss.kaap.common;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
@@ -26,6 +27,9 @@ public class SerializationUtil {
 
     private static final ObjectMapper mapper = new ObjectMapper()
             .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+    private static final ObjectMapper sortedMapper = new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
     private static final ObjectMapper yamlMapper = new ObjectMapper(YAMLFactory.builder()
             .enable(YAMLGenerator.Feature.MINIMIZE_QUOTES)
             .disable(YAMLGenerator.Feature.SPLIT_LINES)
@@ -57,6 +61,15 @@ public class SerializationUtil {
         return mapper.readValue(string, objectClass);
     }
 
+    @SneakyThrows
+    public static JsonNode readJsonTree(String string) {
+        return mapper.readTree(string);
+    }
+
+    public static JsonNode toJsonTree(Object object) {
+        return mapper.valueToTree(object);
+    }
+
     @SneakyThrows
     public static <T> T convertValue(Object from, Class<T> objectClass) {
         return mapper.convertValue(from, objectClass);
@@ -67,6 +80,14 @@ public class SerializationUtil {
         return mapper.writeValueAsBytes(object);
     }
 
+    /**
+     * Serialize to json with map entries ordered by key, so that equal objects always produce the same bytes.
+     */
+    @SneakyThrows
+    public static byte[] writeAsSortedJsonBytes(Object object) {
+        return sortedMapper.writeValueAsBytes(object);
+    }
+
     @SneakyThrows
     public static String writeAsYaml(Object object) {
         return yamlMapper.writeValueAsString(object);
@@ -0,0 +1,159 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.common.json;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strict structural comparator working on Jackson trees.
+ * Objects are compared regardless of the keys order, arrays must have the same elements in the same order.
+ * {@link Result#areEquals()} stops at the first difference, the diffs are only computed if requested.
+ */
+public class JsonNodeComparator implements JSONComparator {
+
+    @Override
+    public Result compare(String expectedStr, String actualStr) {
+        return compare(SerializationUtil.readJsonTree(expectedStr), SerializationUtil.readJsonTree(actualStr));
+    }
+
+    public Result compare(JsonNode expected, JsonNode actual) {
+        if (!expected.isContainerNode() || expected.getNodeType() != actual.getNodeType()) {
+            throw new IllegalArgumentException();
+        }
+        return new TreeResult(expected, actual);
+    }
+
+    private static class TreeResult implements Result {
+        private final JsonNode expected;
+        private final JsonNode actual;
+        private Boolean equals;
+        private List<FieldComparisonDiff> diffs;
+
+        TreeResult(JsonNode expected, JsonNode actual) {
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        @Override
+        public boolean areEquals() {
+            if (equals == null) {
+                equals = nodeEquals(expected, actual);
+            }
+            return equals;
+        }
+
+        @Override
+        public List<FieldComparisonDiff> diffs() {
+            if (diffs == null) {
+                final List<FieldComparisonDiff> result = new ArrayList<>();
+                if (!areEquals()) {
+                    collectDiffs("", expected, actual, result);
+                }
+                diffs = result;
+            }
+            return diffs;
+        }
+    }
+
+    private static boolean nodeEquals(JsonNode expected, JsonNode actual) {
+        if (expected.isNumber() && actual.isNumber()) {
+            return numberEquals(expected, actual);
+        }
+        if (expected.getNodeType() != actual.getNodeType()) {
+            return false;
+        }
+        if (expected.isObject()) {
+            if (expected.size() != actual.size()) {
+                return false;
+            }
+            final Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                final JsonNode actualValue = actual.get(field.getKey());
+                if (actualValue == null || !nodeEquals(field.getValue(), actualValue)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (expected.isArray()) {
+            if (expected.size() != actual.size()) {
+                return false;
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                if (!nodeEquals(expected.get(i), actual.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return expected.equals(actual);
+    }
+
+    private static boolean numberEquals(JsonNode expected, JsonNode actual) {
+        // text representation avoids float to double widening errors
+        return new BigDecimal(expected.asText()).compareTo(new BigDecimal(actual.asText())) == 0;
+    }
+
+    private static void collectDiffs(String prefix, JsonNode expected, JsonNode actual,
+                                     List<FieldComparisonDiff> diffs) {
+        if (expected.isObject() && actual.isObject()) {
+            final Iterator<Map.Entry<String, JsonNode>> fields = expected.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                final JsonNode actualValue = actual.get(field.getKey());
+                if (actualValue == null) {
+                    diffs.add(new FieldComparisonDiff(quoteField(prefix, field.getKey()),
+                            toDiffValue(field.getValue()), null));
+                } else {
+                    collectDiffs(qualify(prefix, field.getKey()), field.getValue(), actualValue, diffs);
+                }
+            }
+            final Iterator<Map.Entry<String, JsonNode>> actualFields = actual.fields();
+            while (actualFields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = actualFields.next();
+                if (!expected.has(field.getKey())) {
+                    diffs.add(new FieldComparisonDiff(quoteField(prefix, field.getKey()),
+                            null, toDiffValue(field.getValue())));
+                }
+            }
+        } else if (expected.isArray() && actual.isArray() && expected.size() == actual.size()) {
+            for (int i = 0; i < expected.size(); i++) {
+                collectDiffs(prefix + "[" + i + "]", expected.get(i), actual.get(i), diffs);
+            }
+        } else if (!nodeEquals(expected, actual)) {
+            diffs.add(new FieldComparisonDiff(prefix, toDiffValue(expected), toDiffValue(actual)));
+        }
+    }
+
+    private static String qualify(String prefix, String key) {
+        return prefix.isEmpty() ? key : prefix + "." + key;
+    }
+
+    private static String quoteField(String prefix, String key) {
+        return qualify(prefix, "\"" + key + "\"");
+    }
+
+    private static String toDiffValue(JsonNode node) {
+        return node.isValueNode() ? node.asText() : node.toString();
+    }
+}
@@ -64,7 +64,9 @@ import io.fabric8.kubernetes.client.dsl.StorageAPIGroupDSL;
 import io.fabric8.kubernetes.client.dsl.V1BatchAPIGroupDSL;
 import io.fabric8.kubernetes.client.dsl.V1PolicyAPIGroupDSL;
 import io.fabric8.kubernetes.client.dsl.V1StorageAPIGroupDSL;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
@@ -93,8 +95,8 @@ public class MockKubernetesClient {
 
     final KubernetesClient client;
     final MockResourcesResolver resourcesResolver;
-    final List<ResourceInteraction> createdResources = new ArrayList<>();
-    final List<ResourceInteraction> deletedResources = new ArrayList<>();
+    final List<ResourceInteraction> createdResources = Collections.synchronizedList(new ArrayList<>());
+    final List<ResourceInteraction> deletedResources = Collections.synchronizedList(new ArrayList<>());
 
     public MockKubernetesClient(String namespace) {
         this(namespace, null);
@@ -203,6 +205,11 @@ public class MockKubernetesClient {
                 addCreatedResource(ic);
                 return null;
             });
+            // server side apply creates the resource if it doesn't exist
+            when(interaction.patch(any(PatchContext.class))).thenAnswer(ic1 -> {
+                addCreatedResource(ic);
+                return null;
+            });
             when(interaction.delete()).thenAnswer(ic1 -> {
                 addDeletedResource(ic);
                 return null;
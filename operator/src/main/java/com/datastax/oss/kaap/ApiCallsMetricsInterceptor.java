@@ -0,0 +1,94 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.fabric8.kubernetes.client.http.BasicBuilder;
+import io.fabric8.kubernetes.client.http.HttpHeaders;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.http.Interceptor;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Counts the requests sent to the API server, by verb and kind.
+ */
+public class ApiCallsMetricsInterceptor implements Interceptor {
+
+    public static final String NAME = "kaap-api-calls-metrics";
+
+    record ApiCall(String verb, String kind) {
+    }
+
+    @Override
+    public void before(BasicBuilder builder, HttpHeaders headers) {
+        if (headers instanceof HttpRequest) {
+            final HttpRequest request = (HttpRequest) headers;
+            final ApiCall apiCall = parse(request.method(), request.uri());
+            OperatorMetrics.recordApiCall(apiCall.verb(), apiCall.kind());
+        }
+    }
+
+    /**
+     * Map the request to the Kubernetes verb and the resource (plural name, with the subresource if any).
+     * Paths are in the form /api/{version}/... or /apis/{group}/{version}/..., optionally followed by
+     * namespaces/{namespace}, then {resource}/{name}/{subresource}.
+     */
+    static ApiCall parse(String method, URI uri) {
+        final List<String> segments = Arrays.stream(uri.getPath().split("/"))
+                .filter(s -> !s.isEmpty())
+                .toList();
+        int index;
+        if (!segments.isEmpty() && segments.get(0).equals("api")) {
+            index = 2;
+        } else if (!segments.isEmpty() && segments.get(0).equals("apis")) {
+            index = 3;
+        } else {
+            return new ApiCall(method.toLowerCase(), "other");
+        }
+        if (segments.size() > index + 2 && segments.get(index).equals("namespaces")) {
+            index += 2;
+        }
+        if (segments.size() <= index) {
+            return new ApiCall(method.toLowerCase(), "discovery");
+        }
+        final boolean named = segments.size() > index + 1;
+        final String kind = segments.size() > index + 2
+                ? segments.get(index) + "/" + segments.get(index + 2)
+                : segments.get(index);
+        return new ApiCall(toVerb(method, named, uri.getQuery()), kind);
+    }
+
+    private static String toVerb(String method, boolean named, String query) {
+        switch (method) {
+            case "GET":
+                if (query != null && (query.contains("watch=true") || query.contains("watch=1"))) {
+                    return "watch";
+                }
+                return named ? "get" : "list";
+            case "POST":
+                return "create";
+            case "PUT":
+                return "update";
+            case "PATCH":
+                return "patch";
+            case "DELETE":
+                return named ? "delete" : "deletecollection";
+            default:
+                return method.toLowerCase();
+        }
+    }
+}
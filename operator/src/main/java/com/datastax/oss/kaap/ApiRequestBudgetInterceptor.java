@@ -0,0 +1,142 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.controllers.ReconciliationReadCache;
+import io.fabric8.kubernetes.client.http.BasicBuilder;
+import io.fabric8.kubernetes.client.http.HttpHeaders;
+import io.fabric8.kubernetes.client.http.HttpRequest;
+import io.fabric8.kubernetes.client.http.Interceptor;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Client side budget of the requests sent to the API server, with a token bucket for the reads and one for the
+ * writes. The reconciliations and the daemons (autoscalers, rack monitor) share the same budget, so a burst of
+ * reconciliations (e.g. after a restart) is slowed down by the operator itself instead of being throttled by the API
+ * server priority and fairness.
+ * Watches are long-running requests and the leases must be renewed in time, so they are never delayed.
+ * Every write also invalidates the reads coalesced by the running reconciliation.
+ */
+public class ApiRequestBudgetInterceptor implements Interceptor {
+
+    public static final String NAME = "kaap-api-request-budget";
+
+    enum VerbClass {
+        READ,
+        WRITE,
+        UNLIMITED
+    }
+
+    private static final Set<String> WRITE_VERBS = Set.of("create", "update", "patch", "delete", "deletecollection");
+
+    private final TokenBucket reads;
+    private final TokenBucket writes;
+
+    public ApiRequestBudgetInterceptor(int readsPerSecond, int writesPerSecond) {
+        this(readsPerSecond, writesPerSecond, System::nanoTime);
+    }
+
+    ApiRequestBudgetInterceptor(int readsPerSecond, int writesPerSecond, LongSupplier clock) {
+        this.reads = readsPerSecond > 0 ? new TokenBucket(readsPerSecond, clock) : null;
+        this.writes = writesPerSecond > 0 ? new TokenBucket(writesPerSecond, clock) : null;
+    }
+
+    @Override
+    public void before(BasicBuilder builder, HttpHeaders headers) {
+        if (headers instanceof HttpRequest) {
+            final HttpRequest request = (HttpRequest) headers;
+            onRequest(request.method(), request.uri());
+        }
+    }
+
+    void onRequest(String method, URI uri) {
+        final VerbClass verbClass = classify(ApiCallsMetricsInterceptor.parse(method, uri));
+        if (verbClass == VerbClass.WRITE) {
+            ReconciliationReadCache.invalidate();
+        }
+        final long waitNanos = reserve(verbClass);
+        if (waitNanos > 0) {
+            OperatorMetrics.recordApiThrottling(verbClass.name().toLowerCase(), waitNanos);
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Take a permit for the request and return how long the request must be delayed, in nanoseconds.
+     */
+    long reserve(VerbClass verbClass) {
+        final TokenBucket bucket;
+        switch (verbClass) {
+            case READ:
+                bucket = reads;
+                break;
+            case WRITE:
+                bucket = writes;
+                break;
+            default:
+                bucket = null;
+                break;
+        }
+        return bucket == null ? 0 : bucket.reserve();
+    }
+
+    static VerbClass classify(ApiCallsMetricsInterceptor.ApiCall apiCall) {
+        if (apiCall.verb().equals("watch") || apiCall.kind().equals("leases")) {
+            return VerbClass.UNLIMITED;
+        }
+        return WRITE_VERBS.contains(apiCall.verb()) ? VerbClass.WRITE : VerbClass.READ;
+    }
+
+    /**
+     * Token bucket refilled at a fixed rate, holding up to two seconds of permits.
+     * A request that finds the bucket empty takes the permit anyway and waits until the permit would have been
+     * available, so the waiting requests are served in order.
+     */
+    static class TokenBucket {
+
+        private final double permitsPerNano;
+        private final double capacity;
+        private final LongSupplier clock;
+        private double permits;
+        private long lastRefill;
+
+        TokenBucket(int permitsPerSecond, LongSupplier clock) {
+            this.permitsPerNano = permitsPerSecond / (double) TimeUnit.SECONDS.toNanos(1);
+            this.capacity = permitsPerSecond * 2.0;
+            this.clock = clock;
+            this.permits = capacity;
+            this.lastRefill = clock.getAsLong();
+        }
+
+        synchronized long reserve() {
+            final long now = clock.getAsLong();
+            permits = Math.min(capacity, permits + (now - lastRefill) * permitsPerNano);
+            lastRefill = now;
+            permits -= 1;
+            if (permits >= 0) {
+                return 0;
+            }
+            return (long) Math.ceil(-permits / permitsPerNano);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.quarkus.arc.Unremovable;
+import io.quarkus.runtime.ShutdownEvent;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Starts and stops a JDK Flight Recorder recording of the operator through HTTP, to profile the operator in
+ * production:
+ * <ul>
+ *     <li>POST /kaap/jfr/start?duration=60&amp;settings=profile starts a recording, the duration in seconds is
+ *     optional and the settings are "default" (the default, with a very low overhead) or "profile"</li>
+ *     <li>POST /kaap/jfr/stop stops the recording and downloads it</li>
+ *     <li>GET /kaap/jfr returns the state of the recording</li>
+ * </ul>
+ * Only one recording runs at a time, and it's capped to {@link #MAX_SIZE_BYTES} on disk.
+ * The endpoint shares the HTTP port with the metrics, so it only accepts requests from the pod itself (e.g. through
+ * kubectl port-forward), and the events that might hold credentials (environment variables, system properties,
+ * JVM and process arguments) are not recorded.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class FlightRecorderEndpoint {
+
+    static final String PATH = "/kaap/jfr";
+    static final String RECORDING_NAME = "kaap";
+    static final long MAX_SIZE_BYTES = 256L * 1024 * 1024;
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            OperatorEvents.ReconciliationPhaseEvent.class,
+            OperatorEvents.SpecDiffEvent.class,
+            OperatorEvents.PatchEvent.class,
+            OperatorEvents.PodExecEvent.class,
+            OperatorEvents.AutoscalerDecisionEvent.class
+    );
+    static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation",
+            "jdk.SystemProcess"
+    );
+
+    private final boolean enabled;
+    private Recording recording;
+
+    @Inject
+    public FlightRecorderEndpoint(OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(operatorRuntimeConfiguration.flightRecorderEndpointEnabled());
+    }
+
+    public FlightRecorderEndpoint(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void onRouter(@Observes Router router) {
+        if (!enabled) {
+            return;
+        }
+        log.infof("Flight recorder endpoint enabled at %s, local requests only", PATH);
+        router.route(PATH + "*").handler(ctx -> {
+            final SocketAddress remoteAddress = ctx.request().remoteAddress();
+            if (remoteAddress == null || !isLoopbackAddress(remoteAddress.hostAddress())) {
+                respond(ctx, 403, SerializationUtil.writeAsJson(Map.of("error",
+                        "The flight recorder endpoint only accepts local requests, use kubectl port-forward")));
+                return;
+            }
+            ctx.next();
+        });
+        router.get(PATH).handler(ctx -> respond(ctx, 200, status()));
+        router.post(PATH + "/start").blockingHandler(ctx -> {
+            try {
+                final String duration = ctx.request().getParam("duration");
+                final String settings = ctx.request().getParam("settings");
+                respond(ctx, 200, start(duration == null ? null : Duration.ofSeconds(Long.parseLong(duration)),
+                        settings == null ? "default" : settings));
+            } catch (IllegalStateException ex) {
+                respond(ctx, 409, error(ex));
+            } catch (IllegalArgumentException ex) {
+                respond(ctx, 400, error(ex));
+            }
+        });
+        router.post(PATH + "/stop").blockingHandler(ctx -> {
+            final Path file;
+            try {
+                file = stop();
+            } catch (IllegalStateException ex) {
+                respond(ctx, 409, error(ex));
+                return;
+            } catch (IOException ex) {
+                respond(ctx, 500, error(ex));
+                return;
+            }
+            ctx.response()
+                    .putHeader("Content-Type", "application/octet-stream")
+                    .putHeader("Content-Disposition", "attachment; filename=\"%s.jfr\"".formatted(RECORDING_NAME))
+                    .sendFile(file.toString())
+                    .onComplete(result -> deleteQuietly(file));
+        });
+    }
+
+    public synchronized String start(Duration duration, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        closeRecording();
+        final Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException ex) {
+            throw new IllegalArgumentException("Unknown settings " + settings, ex);
+        }
+        recording = new Recording(configuration);
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxSize(MAX_SIZE_BYTES);
+        for (Class<? extends Event> event : EVENTS) {
+            recording.enable(event);
+        }
+        for (String event : SENSITIVE_EVENTS) {
+            recording.disable(event);
+        }
+        if (duration != null && !duration.isZero()) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+        log.infof("Started flight recording with settings %s, duration %s", settings,
+                duration == null ? "unlimited" : duration);
+        return status();
+    }
+
+    /**
+     * Stop the recording and dump it to a temporary file, that must be deleted by the caller.
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording to stop");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        final Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } finally {
+            closeRecording();
+        }
+        log.infof("Stopped flight recording, %d bytes", Files.size(file));
+        return file;
+    }
+
+    public synchronized String status() {
+        final Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", recording == null ? "NONE" : recording.getState().name());
+        if (recording != null) {
+            status.put("startTime", String.valueOf(recording.getStartTime()));
+            status.put("duration", String.valueOf(recording.getDuration()));
+            status.put("size", recording.getSize());
+        }
+        return SerializationUtil.writeAsJson(status);
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        synchronized (this) {
+            closeRecording();
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    static boolean isLoopbackAddress(String hostAddress) {
+        if (hostAddress == null) {
+            return false;
+        }
+        try {
+            // the remote address is an IP literal, no name resolution happens here
+            return InetAddress.getByName(hostAddress).isLoopbackAddress();
+        } catch (UnknownHostException ex) {
+            return false;
+        }
+    }
+
+    private static String error(Exception ex) {
+        return SerializationUtil.writeAsJson(Map.of("error", String.valueOf(ex.getMessage())));
+    }
+
+    private static void respond(RoutingContext ctx, int status, String body) {
+        ctx.response()
+                .setStatusCode(status)
+                .putHeader("Content-Type", "application/json")
+                .end(body);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warnf("Unable to delete %s: %s", file, ex.getMessage());
+        }
+    }
+}
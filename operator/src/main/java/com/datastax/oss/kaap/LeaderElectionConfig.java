@@ -17,15 +17,28 @@ package com.datastax.oss.kaap;
 
 import io.javaoperatorsdk.operator.api.config.LeaderElectionConfiguration;
 import io.quarkus.arc.Unremovable;
+import java.util.UUID;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
 @ApplicationScoped
 @Unremovable
 public class LeaderElectionConfig extends LeaderElectionConfiguration {
 
     public static final String LEASE_NAME = "kaap-lease";
+    public static final String IDENTITY = System.getenv().getOrDefault("HOSTNAME", UUID.randomUUID().toString());
 
-    public LeaderElectionConfig() {
-        super(LEASE_NAME);
+    /**
+     * With sharding, every replica is the leader of its own lease, so all the replicas are active and the lease
+     * is used to detect the live members. The resources are partitioned by the {@link ShardManager}.
+     */
+    @Inject
+    public LeaderElectionConfig(OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        super(operatorRuntimeConfiguration.shardingEnabled() ? LEASE_NAME + "-" + IDENTITY : LEASE_NAME,
+                null,
+                LEASE_DURATION_DEFAULT_VALUE,
+                RENEW_DEADLINE_DEFAULT_VALUE,
+                RETRY_PERIOD_DEFAULT_VALUE,
+                IDENTITY);
     }
 }
\ No newline at end of file
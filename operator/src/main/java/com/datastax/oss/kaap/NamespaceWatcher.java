@@ -0,0 +1,177 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.controllers.AbstractController;
+import com.datastax.oss.kaap.controllers.NamespaceWorkLimiter;
+import com.datastax.oss.kaap.controllers.ResourcesCache;
+import io.fabric8.kubernetes.api.model.Namespace;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.javaoperatorsdk.operator.Operator;
+import io.javaoperatorsdk.operator.RegisteredController;
+import io.javaoperatorsdk.operator.api.reconciler.Reconciler;
+import io.javaoperatorsdk.operator.processing.Controller;
+import io.quarkus.arc.Unremovable;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Restricts the watched namespaces to the namespaces matching a label selector.
+ * The namespaces are watched with an informer and, whenever the selection changes, all the controllers are moved to
+ * the selected namespaces. The resources of a namespace that is not selected anymore are left untouched, but the
+ * background tasks, the cached resources and the reconciliation permits of the namespace are released.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class NamespaceWatcher {
+
+    // the operator is started by the operator sdk extension with priority 3123, the controllers must be registered
+    static final int STARTUP_PRIORITY = 3124;
+
+    private final KubernetesClient client;
+    private final Operator operator;
+    private final ResourcesCache resourcesCache;
+    private final NamespaceWorkLimiter namespaceWorkLimiter;
+    private final String selector;
+    private SharedIndexInformer<Namespace> informer;
+    private Set<String> watched = Set.of();
+
+    @Inject
+    public NamespaceWatcher(KubernetesClient client, Operator operator, ResourcesCache resourcesCache,
+                            NamespaceWorkLimiter namespaceWorkLimiter,
+                            OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(client, operator, resourcesCache, namespaceWorkLimiter,
+                operatorRuntimeConfiguration.watchNamespacesSelector().orElse(null));
+    }
+
+    public NamespaceWatcher(KubernetesClient client, Operator operator, ResourcesCache resourcesCache,
+                            NamespaceWorkLimiter namespaceWorkLimiter, String selector) {
+        this.client = client;
+        this.operator = operator;
+        this.resourcesCache = resourcesCache;
+        this.namespaceWorkLimiter = namespaceWorkLimiter;
+        this.selector = selector;
+    }
+
+    void onStart(@Observes @Priority(STARTUP_PRIORITY) StartupEvent ev) {
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        close();
+    }
+
+    public synchronized void start() {
+        if (selector == null || selector.isBlank() || informer != null) {
+            return;
+        }
+        log.infof("Watching the namespaces matching the label selector '%s'", selector);
+        informer = client.namespaces().withLabelSelector(selector).runnableInformer(0);
+        informer.addEventHandler(new ResourceEventHandler<>() {
+            @Override
+            public void onAdd(Namespace namespace) {
+                refresh();
+            }
+
+            @Override
+            public void onUpdate(Namespace oldNamespace, Namespace newNamespace) {
+                refresh();
+            }
+
+            @Override
+            public void onDelete(Namespace namespace, boolean deletedFinalStateUnknown) {
+                refresh();
+            }
+        });
+        informer.run();
+        refresh();
+    }
+
+    public synchronized void close() {
+        if (informer != null) {
+            informer.close();
+            informer = null;
+        }
+    }
+
+    public synchronized Set<String> getWatchedNamespaces() {
+        return watched;
+    }
+
+    private synchronized void refresh() {
+        if (informer == null) {
+            return;
+        }
+        apply(informer.getStore().list().stream()
+                .map(namespace -> namespace.getMetadata().getName())
+                .collect(Collectors.toSet()));
+    }
+
+    synchronized void apply(Collection<String> selected) {
+        final Set<String> namespaces = new TreeSet<>(selected);
+        if (namespaces.isEmpty()) {
+            // the controllers can't watch an empty set of namespaces
+            log.warnf("No namespace matches the label selector '%s', watching only the operator namespace %s",
+                    selector, client.getNamespace());
+            namespaces.add(client.getNamespace());
+        }
+        if (namespaces.equals(watched)) {
+            return;
+        }
+        log.infof("Watched namespaces changed to %s", namespaces);
+        for (RegisteredController<?> controller : operator.getRegisteredControllers()) {
+            if (controller.allowsNamespaceChanges()) {
+                controller.changeNamespaces(namespaces);
+            }
+        }
+        for (String namespace : watched) {
+            if (!namespaces.contains(namespace)) {
+                onNamespaceUnwatched(namespace);
+            }
+        }
+        watched = Set.copyOf(namespaces);
+    }
+
+    private void onNamespaceUnwatched(String namespace) {
+        log.infof("Namespace %s is not watched anymore", namespace);
+        if (resourcesCache != null) {
+            resourcesCache.close(namespace);
+        }
+        if (namespaceWorkLimiter != null) {
+            namespaceWorkLimiter.onNamespaceUnwatched(namespace);
+        }
+        for (RegisteredController<?> controller : operator.getRegisteredControllers()) {
+            if (controller instanceof Controller) {
+                final Reconciler<?> reconciler = ((Controller<?>) controller).getReconciler();
+                if (reconciler instanceof AbstractController) {
+                    ((AbstractController<?>) reconciler).onNamespaceUnwatched(namespace);
+                }
+            }
+        }
+    }
+}
@@ -16,70 +16,129 @@
 package com.datastax.oss.kaap;
 
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
-import lombok.Data;
 import lombok.extern.jbosslog.JBossLog;
 
+/**
+ * Schedules periodic tasks for each namespace, from the cluster spec.
+ * The spec is split in named tasks (e.g. one per resource set): when the spec of a namespace changes, only the tasks
+ * whose spec changed are rescheduled, the tasks of the other sets and of the other namespaces keep their timers.
+ * Cancelling a task never waits for it to complete: the task is interrupted and the new one is scheduled right away.
+ */
 @JBossLog
 public abstract class NamespacedDaemonThread<T> implements AutoCloseable {
 
-    private final Map<String, NamespaceContext<T>> namespaces = new HashMap<>();
-    protected final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+    private final Map<String, NamespaceContext<T>> namespaces = new ConcurrentHashMap<>();
 
-    @Data
+    // guarded by its own monitor
     private static class NamespaceContext<T> {
-        private T current;
+        private final Map<String, T> specs = new HashMap<>();
+        private final Map<String, ScheduledFuture<?>> tasks = new HashMap<>();
+        private boolean stopped;
+    }
+
+    static <T> boolean isChanged(T current, T spec) {
+        return current == null
+                || spec == null
+                || !Objects.equals(spec, current);
+    }
 
-        boolean isChanged(T spec) {
-            if (current != null
-                    && spec != null
-                    && Objects.equals(spec, current)) {
+    public void onSpecChange(PulsarClusterSpec clusterSpec, String namespace) {
+        final Map<String, T> newSpecs = getSpecs(clusterSpec);
+        while (true) {
+            final NamespaceContext<T> context = namespaces.computeIfAbsent(namespace, ns -> new NamespaceContext<>());
+            synchronized (context) {
+                if (context.stopped) {
+                    // stopped concurrently, start over with a new context
+                    continue;
+                }
+                applySpecs(context, namespace, newSpecs, clusterSpec);
+                return;
+            }
+        }
+    }
+
+    private void applySpecs(NamespaceContext<T> context, String namespace, Map<String, T> newSpecs,
+                            PulsarClusterSpec clusterSpec) {
+        context.specs.keySet().removeIf(name -> {
+            if (newSpecs.containsKey(name)) {
                 return false;
             }
+            log.infof("Cancelling task %s in namespace %s", name, namespace);
+            cancel(context.tasks.remove(name));
             return true;
+        });
+        for (Map.Entry<String, T> entry : newSpecs.entrySet()) {
+            final String name = entry.getKey();
+            final T newSpec = entry.getValue();
+            if (context.specs.containsKey(name) && !isChanged(context.specs.get(name), newSpec)) {
+                continue;
+            }
+            cancel(context.tasks.remove(name));
+            final ScheduledFuture<?> task = schedule(namespace, name, newSpec, clusterSpec);
+            if (task != null) {
+                context.tasks.put(name, task);
+            }
+            context.specs.put(name, newSpec);
         }
     }
 
-    public void onSpecChange(PulsarClusterSpec clusterSpec, String namespace) {
-        final NamespaceContext namespaceContext = namespaces.getOrDefault(namespace,
-                new NamespaceContext());
-        final T newSpec = getSpec(clusterSpec);
-        final boolean isChanged = namespaceContext.isChanged(newSpec);
-        if (isChanged) {
-            cancelTasks();
-            final List<ScheduledFuture<?>> newTasks = specChanged(namespace, newSpec, clusterSpec);
-            if (newTasks != null) {
-                tasks.addAll(newTasks);
+    /**
+     * Stop the tasks of the namespace, they're scheduled again at the next spec change.
+     */
+    public void stop(String namespace) {
+        final NamespaceContext<T> context = namespaces.get(namespace);
+        if (context == null) {
+            return;
+        }
+        synchronized (context) {
+            if (context.stopped) {
+                return;
             }
+            // removed while holding the monitor, so no task is scheduled on the context after it's replaced
+            namespaces.remove(namespace, context);
+            context.stopped = true;
+            context.tasks.values().forEach(NamespacedDaemonThread::cancel);
+            context.tasks.clear();
+            context.specs.clear();
         }
-        namespaceContext.setCurrent(newSpec);
-        namespaces.put(namespace, namespaceContext);
     }
 
+    /**
+     * Get the specs of the tasks to schedule, by task name.
+     */
+    protected abstract Map<String, T> getSpecs(PulsarClusterSpec clusterSpec);
 
-    protected abstract T getSpec(PulsarClusterSpec clusterSpec);
-
-    protected abstract List<ScheduledFuture<?>> specChanged(String namespace, T newSpec, PulsarClusterSpec clusterSpec);
+    /**
+     * Schedule the task, or return null if the task is disabled.
+     */
+    protected abstract ScheduledFuture<?> schedule(String namespace, String name, T spec,
+                                                   PulsarClusterSpec clusterSpec);
 
+    Set<String> getScheduledTasks(String namespace) {
+        final NamespaceContext<T> context = namespaces.get(namespace);
+        if (context == null) {
+            return Set.of();
+        }
+        synchronized (context) {
+            return Set.copyOf(context.tasks.keySet());
+        }
+    }
 
-    public void cancelTasks() {
-        tasks.forEach(f -> {
-            f.cancel(true);
-            try {
-                f.get();
-            } catch (Throwable ignore) {
-            }
-        });
-        tasks.clear();
+    private static void cancel(ScheduledFuture<?> task) {
+        if (task != null) {
+            task.cancel(true);
+        }
     }
 
     @Override
     public void close() {
-        cancelTasks();
+        List.copyOf(namespaces.keySet()).forEach(this::stop);
     }
 }
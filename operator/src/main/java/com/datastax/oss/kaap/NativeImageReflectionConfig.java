@@ -0,0 +1,114 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.autoscaler.BookKeeperSetAutoscaler;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDecommissionUtil;
+import com.datastax.oss.kaap.autoscaler.broker.LoadReportResourceUsageSource;
+import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
+import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.BkRackClient;
+import com.datastax.oss.kaap.controllers.broker.BrokerController;
+import com.datastax.oss.kaap.controllers.proxy.ProxyController;
+import com.datastax.oss.kaap.crds.BaseComponentStatus;
+import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.autorecovery.Autorecovery;
+import com.datastax.oss.kaap.crds.autorecovery.AutorecoveryFullSpec;
+import com.datastax.oss.kaap.crds.autorecovery.AutorecoverySpec;
+import com.datastax.oss.kaap.crds.bastion.Bastion;
+import com.datastax.oss.kaap.crds.bastion.BastionFullSpec;
+import com.datastax.oss.kaap.crds.bastion.BastionSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSpec;
+import com.datastax.oss.kaap.crds.broker.Broker;
+import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarCluster;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterStatus;
+import com.datastax.oss.kaap.crds.function.FunctionsWorker;
+import com.datastax.oss.kaap.crds.function.FunctionsWorkerFullSpec;
+import com.datastax.oss.kaap.crds.function.FunctionsWorkerSpec;
+import com.datastax.oss.kaap.crds.proxy.Proxy;
+import com.datastax.oss.kaap.crds.proxy.ProxyFullSpec;
+import com.datastax.oss.kaap.crds.proxy.ProxySetSpec;
+import com.datastax.oss.kaap.crds.proxy.ProxySpec;
+import com.datastax.oss.kaap.crds.validation.ValidSpec;
+import com.datastax.oss.kaap.crds.zookeeper.ZooKeeper;
+import com.datastax.oss.kaap.crds.zookeeper.ZooKeeperFullSpec;
+import com.datastax.oss.kaap.crds.zookeeper.ZooKeeperSpec;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Classes accessed with reflection that must be registered for the native image build (-Pnative).
+ * <ul>
+ *     <li>the specs are walked field by field by {@link com.datastax.oss.kaap.crds.ConfigUtil} to apply the
+ *     defaults, and instantiated with their no-args constructor</li>
+ *     <li>the specs are the {@link ValidSpec} validators of the Hibernate Validator factory built by the
+ *     controllers, and their fields hold the constraint annotations</li>
+ *     <li>the specs, the last applied specs, the payloads read from the pods and the {@link OperatorCheckpoint}
+ *     entries are deserialized by Jackson</li>
+ * </ul>
+ * The whole hierarchy of each class is registered, including the types of the fields.
+ * The BouncyCastle security provider is registered with the native build arguments in application.properties.
+ */
+@RegisterForReflection(registerFullHierarchy = true, targets = {
+        PulsarCluster.class,
+        PulsarClusterSpec.class,
+        PulsarClusterStatus.class,
+        BaseComponentStatus.class,
+        GlobalSpec.class,
+        ZooKeeper.class,
+        ZooKeeperSpec.class,
+        ZooKeeperFullSpec.class,
+        BookKeeper.class,
+        BookKeeperSpec.class,
+        BookKeeperSetSpec.class,
+        BookKeeperFullSpec.class,
+        Broker.class,
+        BrokerSpec.class,
+        BrokerSetSpec.class,
+        BrokerFullSpec.class,
+        Proxy.class,
+        ProxySpec.class,
+        ProxySetSpec.class,
+        ProxyFullSpec.class,
+        Autorecovery.class,
+        AutorecoverySpec.class,
+        AutorecoveryFullSpec.class,
+        Bastion.class,
+        BastionSpec.class,
+        BastionFullSpec.class,
+        FunctionsWorker.class,
+        FunctionsWorkerSpec.class,
+        FunctionsWorkerFullSpec.class,
+        ValidSpec.class,
+        BookKeeperController.BookKeeperSetsLastApplied.class,
+        BrokerController.BrokerSetsLastApplied.class,
+        ProxyController.ProxySetsLastApplied.class,
+        LoadReportResourceUsageSource.LoadReportResourceUsage.class,
+        BkRackClient.BookiesRackConfiguration.class,
+        BkRackClient.BookieRackInfo.class,
+        BookKeeperSetAutoscaler.ForcedGcCheckpoint.class,
+        BookieDecommissionUtil.DecommissionCheckpoint.class
+})
+public final class NativeImageReflectionConfig {
+
+    private NativeImageReflectionConfig() {
+    }
+}
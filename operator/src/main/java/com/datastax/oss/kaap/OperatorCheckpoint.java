@@ -0,0 +1,168 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.ConfigMapList;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.quarkus.arc.Unremovable;
+import java.net.HttpURLConnection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Keeps the in-flight state of the operator that is not stored in the managed resources, so that it survives the
+ * reschedule of the background tasks and, when enabled, a leader failover.
+ * Each entry is stored as a json value under its own key of the {@value #CONFIG_MAP_NAME} ConfigMap in the operator
+ * namespace. Entries are written with a merge patch of their own key only, so the replicas owning different shards
+ * never overwrite each other's entries. The entries are read from the ConfigMap every time, since a shard can move to
+ * this replica at any time.
+ * When disabled, the entries are kept in memory only.
+ * The checkpoint is best effort: a failed write is logged and the operator keeps working with its in-memory state.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class OperatorCheckpoint {
+
+    public static final String CONFIG_MAP_NAME = "kaap-checkpoint";
+
+    private static final PatchContext MERGE_PATCH_CONTEXT = PatchContext.of(PatchType.JSON_MERGE);
+
+    private final KubernetesClient client;
+    private final boolean enabled;
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+
+    @Inject
+    public OperatorCheckpoint(KubernetesClient client, OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(client, operatorRuntimeConfiguration.checkpointEnabled());
+    }
+
+    public OperatorCheckpoint(KubernetesClient client, boolean enabled) {
+        this.client = client;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Key of the entry for a resource set. Namespaces and set names are DNS labels, so the key is a valid ConfigMap
+     * key.
+     */
+    public static String key(String kind, String namespace, String name) {
+        return kind + "." + namespace + "." + name;
+    }
+
+    /**
+     * Get the entry, or null if not found or not readable.
+     */
+    public <T> T get(String key, Class<T> type) {
+        final String json = enabled ? readEntry(key) : entries.get(key);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return SerializationUtil.readJson(json, type);
+        } catch (Exception ex) {
+            log.warnf("Ignoring the unreadable checkpoint entry %s: %s", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    public synchronized void put(String key, Object value) {
+        final String json = SerializationUtil.writeAsJson(value);
+        if (!enabled) {
+            entries.put(key, json);
+            return;
+        }
+        if (!patchEntry(key, json)) {
+            createWithEntry(key, json);
+        }
+    }
+
+    public synchronized void remove(String key) {
+        if (!enabled) {
+            entries.remove(key);
+            return;
+        }
+        patchEntry(key, null);
+    }
+
+    private String readEntry(String key) {
+        try {
+            final ConfigMap configMap = configMaps().withName(CONFIG_MAP_NAME).get();
+            if (configMap == null || configMap.getData() == null) {
+                return null;
+            }
+            return configMap.getData().get(key);
+        } catch (KubernetesClientException ex) {
+            log.warnf("Unable to read the checkpoint entry %s: %s", key, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Set or remove (when json is null) the entry, return false if the ConfigMap doesn't exist.
+     */
+    private boolean patchEntry(String key, String json) {
+        final String patch = "{\"data\":{\"%s\":%s}}".formatted(key,
+                json == null ? "null" : SerializationUtil.writeAsJson(json));
+        try {
+            configMaps().withName(CONFIG_MAP_NAME).patch(MERGE_PATCH_CONTEXT, patch);
+            return true;
+        } catch (KubernetesClientException ex) {
+            if (ex.getCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                return false;
+            }
+            log.warnf("Unable to write the checkpoint entry %s: %s", key, ex.getMessage());
+            return true;
+        }
+    }
+
+    private void createWithEntry(String key, String json) {
+        try {
+            configMaps().resource(new ConfigMapBuilder()
+                    .withNewMetadata()
+                    .withName(CONFIG_MAP_NAME)
+                    .endMetadata()
+                    .withData(Map.of(key, json))
+                    .build()).create();
+        } catch (KubernetesClientException ex) {
+            if (ex.getCode() == HttpURLConnection.HTTP_CONFLICT) {
+                // created concurrently by another replica
+                patchEntry(key, json);
+                return;
+            }
+            log.warnf("Unable to write the checkpoint entry %s: %s", key, ex.getMessage());
+        }
+    }
+
+    private NonNamespaceOperation<ConfigMap, ConfigMapList, Resource<ConfigMap>> configMaps() {
+        return client.configMaps().inNamespace(client.getNamespace());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.common.json.JSONComparator;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events emitted by the operator, in the "Kaap" category.
+ * The events are only recorded while a recording is running (see {@link FlightRecorderEndpoint}), otherwise
+ * emitting them costs a disabled check.
+ */
+public final class OperatorEvents {
+
+    public static final String CATEGORY = "Kaap";
+
+    private OperatorEvents() {
+    }
+
+    @Name("kaap.ReconciliationPhase")
+    @Label("Reconciliation Phase")
+    @Description("Phase of the reconciliation of a custom resource")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class ReconciliationPhaseEvent extends Event {
+        @Label("Kind")
+        String kind;
+        @Label("Namespace")
+        String namespace;
+        @Label("Name")
+        String name;
+        @Label("Phase")
+        String phase;
+        @Label("API Calls")
+        @Description("Kubernetes API calls issued during the phase")
+        long apiCalls;
+
+        transient long apiCallsAtBegin;
+    }
+
+    @Name("kaap.SpecDiff")
+    @Label("Spec Diff")
+    @Description("Comparison of two specs")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class SpecDiffEvent extends Event {
+        @Label("Spec Type")
+        String specType;
+        @Label("Equal")
+        boolean equal;
+        @Label("Diff Size")
+        @Description("Number of fields that differ")
+        int diffSize;
+
+        transient boolean begun;
+    }
+
+    @Name("kaap.Patch")
+    @Label("Patch")
+    @Description("Server side apply of a resource owned by a component")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class PatchEvent extends Event {
+        @Label("Kind")
+        String kind;
+        @Label("Namespace")
+        String namespace;
+        @Label("Name")
+        String name;
+        @Label("Result")
+        String result;
+        @Label("API Calls")
+        long apiCalls;
+
+        transient long apiCallsAtBegin;
+    }
+
+    @Name("kaap.PodExec")
+    @Label("Pod Exec")
+    @Description("Command executed in a pod")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class PodExecEvent extends Event {
+        @Label("Namespace")
+        String namespace;
+        @Label("Pod")
+        String pod;
+        @Label("Container")
+        String container;
+        @Label("Success")
+        boolean success;
+        @Label("Output Size")
+        @DataAmount
+        long outputSize;
+    }
+
+    @Name("kaap.AutoscalerDecision")
+    @Label("Autoscaler Decision")
+    @Description("Decision taken by an autoscaler check")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static class AutoscalerDecisionEvent extends Event {
+        @Label("Component")
+        String component;
+        @Label("Namespace")
+        String namespace;
+        @Label("Resource Set")
+        String resourceSet;
+        @Label("Decision")
+        String decision;
+        @Label("Reason")
+        String reason;
+    }
+
+    public static ReconciliationPhaseEvent beginReconciliationPhase(HasMetadata resource, String phase) {
+        final ReconciliationPhaseEvent event = new ReconciliationPhaseEvent();
+        if (event.isEnabled()) {
+            event.kind = resource.getKind();
+            event.namespace = resource.getMetadata().getNamespace();
+            event.name = resource.getMetadata().getName();
+            event.phase = phase;
+            event.apiCallsAtBegin = OperatorMetrics.getCurrentApiCalls();
+            event.begin();
+        }
+        return event;
+    }
+
+    public static void endReconciliationPhase(ReconciliationPhaseEvent event) {
+        event.end();
+        // not begun if the recording started in the meantime
+        if (event.name != null && event.shouldCommit()) {
+            event.apiCalls = OperatorMetrics.getCurrentApiCalls() - event.apiCallsAtBegin;
+            event.commit();
+        }
+    }
+
+    public static PatchEvent beginPatch(HasMetadata resource, String namespace) {
+        final PatchEvent event = new PatchEvent();
+        if (event.isEnabled()) {
+            event.kind = resource.getKind();
+            event.namespace = namespace;
+            event.name = resource.getMetadata().getName();
+            event.apiCallsAtBegin = OperatorMetrics.getCurrentApiCalls();
+            event.begin();
+        }
+        return event;
+    }
+
+    public static void endPatch(PatchEvent event, String result) {
+        event.end();
+        if (event.name != null && event.shouldCommit()) {
+            event.result = result;
+            event.apiCalls = OperatorMetrics.getCurrentApiCalls() - event.apiCallsAtBegin;
+            event.commit();
+        }
+    }
+
+    public static SpecDiffEvent beginSpecDiff() {
+        final SpecDiffEvent event = new SpecDiffEvent();
+        if (event.isEnabled()) {
+            event.begun = true;
+            event.begin();
+        }
+        return event;
+    }
+
+    /**
+     * The diffs of the result are only listed when the event is committed, since the comparison computes them
+     * lazily.
+     */
+    public static void endSpecDiff(SpecDiffEvent event, Object spec, JSONComparator.Result result) {
+        event.end();
+        if (event.begun && event.shouldCommit()) {
+            event.specType = spec == null ? null : spec.getClass().getSimpleName();
+            event.equal = result.areEquals();
+            event.diffSize = result.diffs() == null ? 0 : result.diffs().size();
+            event.commit();
+        }
+    }
+
+    public static PodExecEvent beginPodExec(String namespace, String pod, String container) {
+        final PodExecEvent event = new PodExecEvent();
+        if (event.isEnabled()) {
+            event.namespace = namespace;
+            event.pod = pod;
+            event.container = container;
+            event.begin();
+        }
+        return event;
+    }
+
+    public static void endPodExec(PodExecEvent event, boolean success, long outputSize) {
+        event.end();
+        if (event.pod != null && event.shouldCommit()) {
+            event.success = success;
+            event.outputSize = outputSize;
+            event.commit();
+        }
+    }
+
+    public static void autoscalerDecision(String component, String namespace, String resourceSet, String decision,
+                                          String reason) {
+        final AutoscalerDecisionEvent event = new AutoscalerDecisionEvent();
+        if (event.shouldCommit()) {
+            event.component = component;
+            event.namespace = namespace;
+            event.resourceSet = resourceSet;
+            event.decision = decision;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
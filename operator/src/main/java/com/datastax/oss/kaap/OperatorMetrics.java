@@ -0,0 +1,187 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Metrics exposed by the operator, registered in the global Micrometer registry and exported by the Prometheus
+ * endpoint (/q/metrics).
+ */
+public final class OperatorMetrics {
+
+    public static final String RECONCILIATION_DURATION = "kaap.reconciliation.duration";
+    public static final String RECONCILIATION_STATUS_UPDATES = "kaap.reconciliation.status.updates";
+    public static final String RECONCILIATION_API_CALLS = "kaap.reconciliation.api.calls";
+    public static final String API_CALLS = "kaap.api.calls";
+    public static final String API_THROTTLING_DELAY = "kaap.api.throttling.delay";
+    public static final String API_COALESCED_READS = "kaap.api.coalesced.reads";
+    public static final String AUTOSCALER_TICK_DURATION = "kaap.autoscaler.tick.duration";
+    public static final String AUTOSCALER_COLLECTION_DURATION = "kaap.autoscaler.collection.duration";
+    public static final String AUTOSCALER_DECISIONS = "kaap.autoscaler.decisions";
+    public static final String BOOKIE_DECOMMISSION_DURATION = "kaap.bookkeeper.decommission.duration";
+    public static final String BOOKIE_FORCED_GC_RECLAIMED_BYTES = "kaap.bookkeeper.forced.gc.reclaimed.bytes";
+
+    public static final String PHASE_VALIDATE = "validate";
+    public static final String PHASE_PATCH = "patch";
+    public static final String PHASE_STATUS = "status";
+    public static final String PHASE_TOTAL = "total";
+
+    public static final String DECISION_SCALE_UP = "scale_up";
+    public static final String DECISION_SCALE_DOWN = "scale_down";
+    public static final String DECISION_SKIPPED = "skipped";
+
+    // API calls issued by the reconciliation running on the current thread
+    private static final ThreadLocal<LongAdder> RECONCILIATION_API_CALLS_COUNTER = new ThreadLocal<>();
+
+    private OperatorMetrics() {
+    }
+
+    public static void recordReconciliationPhase(String kind, String phase, long startNanos) {
+        Timer.builder(RECONCILIATION_DURATION)
+                .description("Duration of the reconciliations, by phase")
+                .tags("kind", kind, "phase", phase)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordStatusUpdate(String kind, boolean updated) {
+        Metrics.counter(RECONCILIATION_STATUS_UPDATES, "kind", kind, "result", updated ? "updated" : "skipped")
+                .increment();
+    }
+
+    /**
+     * Start counting the API calls issued by the current thread, and by the tasks wrapped with
+     * {@link #withApiCallsCounter(Supplier)}, until {@link #stopCountingApiCalls(String)} is called.
+     */
+    public static void startCountingApiCalls() {
+        RECONCILIATION_API_CALLS_COUNTER.set(new LongAdder());
+    }
+
+    public static long stopCountingApiCalls(String kind) {
+        final LongAdder counter = RECONCILIATION_API_CALLS_COUNTER.get();
+        RECONCILIATION_API_CALLS_COUNTER.remove();
+        if (counter == null) {
+            return 0;
+        }
+        final long calls = counter.sum();
+        DistributionSummary.builder(RECONCILIATION_API_CALLS)
+                .description("Kubernetes API calls issued by a single reconciliation")
+                .tags("kind", kind)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(calls);
+        return calls;
+    }
+
+    /**
+     * Count the API calls of the task with the counter of the calling thread, for tasks of the reconciliation that
+     * run on other threads.
+     */
+    public static <T> Supplier<T> withApiCallsCounter(Supplier<T> task) {
+        final LongAdder counter = RECONCILIATION_API_CALLS_COUNTER.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            final LongAdder previous = RECONCILIATION_API_CALLS_COUNTER.get();
+            RECONCILIATION_API_CALLS_COUNTER.set(counter);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    RECONCILIATION_API_CALLS_COUNTER.remove();
+                } else {
+                    RECONCILIATION_API_CALLS_COUNTER.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * API calls issued so far by the reconciliation running on the current thread.
+     */
+    public static long getCurrentApiCalls() {
+        final LongAdder counter = RECONCILIATION_API_CALLS_COUNTER.get();
+        return counter == null ? 0 : counter.sum();
+    }
+
+    public static void recordApiCall(String verb, String kind) {
+        Metrics.counter(API_CALLS, "verb", verb, "kind", kind).increment();
+        final LongAdder counter = RECONCILIATION_API_CALLS_COUNTER.get();
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public static void recordApiThrottling(String verbClass, long delayNanos) {
+        Timer.builder(API_THROTTLING_DELAY)
+                .description("Delay of the requests throttled by the client side request budget")
+                .tags("class", verbClass)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordCoalescedRead(String kind) {
+        Metrics.counter(API_COALESCED_READS, "kind", kind).increment();
+    }
+
+    public static void recordAutoscalerTick(String component, boolean success, long startNanos) {
+        Timer.builder(AUTOSCALER_TICK_DURATION)
+                .description("Duration of the autoscaler checks")
+                .tags("component", component, "result", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordAutoscalerCollection(String component, String source, long startNanos) {
+        Timer.builder(AUTOSCALER_COLLECTION_DURATION)
+                .description("Duration of the collection of the resources usage of a single pod")
+                .tags("component", component, "source", source)
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordAutoscalerDecision(String component, String decision, String reason) {
+        Metrics.counter(AUTOSCALER_DECISIONS, "component", component, "decision", decision, "reason", reason)
+                .increment();
+    }
+
+    public static void recordBookieDecommission(String result, long startNanos) {
+        Timer.builder(BOOKIE_DECOMMISSION_DURATION)
+                .description("Duration of the bookies decommission")
+                .tags("result", result)
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordForcedGcReclaimedBytes(long reclaimedBytes) {
+        DistributionSummary.builder(BOOKIE_FORCED_GC_RECLAIMED_BYTES)
+                .description("Disk space reclaimed by the forced GC triggered by the bookkeeper autoscaler")
+                .baseUnit("bytes")
+                .register(Metrics.globalRegistry)
+                .record(Math.max(0, reclaimedBytes));
+    }
+}
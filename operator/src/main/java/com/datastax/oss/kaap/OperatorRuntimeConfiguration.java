@@ -17,6 +17,7 @@ package com.datastax.oss.kaap;
 
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
+import java.util.Optional;
 
 
 @ConfigMapping(prefix = "kaap")
@@ -24,4 +25,39 @@ public interface OperatorRuntimeConfiguration {
 
     @WithDefault("5")
     Integer reconciliationRescheduleSeconds();
+
+    @WithDefault("60")
+    Integer reconciliationRescheduleMaxSeconds();
+
+    @WithDefault("true")
+    Boolean resourcesCacheEnabled();
+
+    @WithDefault("false")
+    Boolean lastAppliedCompressionEnabled();
+
+    @WithDefault("false")
+    Boolean shardingEnabled();
+
+    @WithDefault("16")
+    Integer shardingShards();
+
+    Optional<String> watchNamespacesSelector();
+
+    @WithDefault("0")
+    Integer maxConcurrentReconciliationsPerNamespace();
+
+    @WithDefault("50")
+    Integer apiReadRequestsPerSecond();
+
+    @WithDefault("20")
+    Integer apiWriteRequestsPerSecond();
+
+    @WithDefault("false")
+    Boolean virtualThreadsEnabled();
+
+    @WithDefault("false")
+    Boolean flightRecorderEndpointEnabled();
+
+    @WithDefault("false")
+    Boolean checkpointEnabled();
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Creates the threads running the blocking work of the operator: the reconciliations, the autoscaler ticks and the
+ * collection of the resources usage of the pods.
+ * With virtual threads enabled, the blocking Kubernetes requests and the exec calls park a virtual thread instead of
+ * holding a platform thread. The operator is built for Java 17, so the virtual threads are created through
+ * reflection and are used only when the runtime supports them (Java 21 or later); otherwise platform threads are
+ * used.
+ */
+@JBossLog
+public final class OperatorThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+    private static final Method BUILDER_NAME = findMethod(
+            findClass("java.lang.Thread$Builder"), "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = findMethod(findClass("java.lang.Thread$Builder"), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class,
+            "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private static volatile boolean virtual;
+    private static volatile ExecutorService collectionExecutor;
+
+    private OperatorThreads() {
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return OF_VIRTUAL != null && BUILDER_NAME != null && BUILDER_FACTORY != null
+                && NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Enable or disable the virtual threads for the executors created from now on.
+     *
+     * @return whether the virtual threads are used
+     */
+    public static synchronized boolean configure(boolean virtualThreadsEnabled) {
+        if (virtualThreadsEnabled && !isVirtualThreadsSupported()) {
+            log.warnf("Virtual threads are not supported by the Java runtime %s, using platform threads",
+                    Runtime.version());
+            virtualThreadsEnabled = false;
+        }
+        virtual = virtualThreadsEnabled;
+        if (collectionExecutor != null) {
+            collectionExecutor.shutdown();
+            collectionExecutor = null;
+        }
+        return virtual;
+    }
+
+    public static boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Executor of the reconciliations. Platform threads are pooled, virtual threads are created for each task.
+     */
+    public static ExecutorService newTaskExecutor(String name, int platformThreads) {
+        if (virtual) {
+            return newThreadPerTaskExecutor(name);
+        }
+        return platformThreads > 0
+                ? Executors.newFixedThreadPool(platformThreads, platformThreadFactory(name))
+                : Executors.newCachedThreadPool(platformThreadFactory(name));
+    }
+
+    /**
+     * Single threaded scheduler, the scheduled tasks run one at a time on the scheduler thread.
+     */
+    public static ScheduledExecutorService newSingleThreadScheduledExecutor(String name) {
+        return Executors.newSingleThreadScheduledExecutor(virtual ? virtualThreadFactory(name)
+                : platformThreadFactory(name));
+    }
+
+    /**
+     * Collect a value for each item, for instance the resources usage of each pod.
+     * With virtual threads, the items are collected in parallel, each one on its own virtual thread. Otherwise they
+     * are collected one after the other by the calling thread.
+     * The results are in the same order as the items and the first failure is rethrown.
+     */
+    @SneakyThrows
+    public static <T, R> List<R> collect(List<T> items, Function<T, R> collector) {
+        final List<R> results = new ArrayList<>(items.size());
+        if (!virtual || items.size() < 2) {
+            for (T item : items) {
+                results.add(collector.apply(item));
+            }
+            return results;
+        }
+        final ExecutorService executor = getCollectionExecutor();
+        final List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(CompletableFuture.supplyAsync(() -> collector.apply(item), executor));
+        }
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex.getCause() == null ? ex : ex.getCause();
+        }
+        return results;
+    }
+
+    private static synchronized ExecutorService getCollectionExecutor() {
+        if (collectionExecutor == null) {
+            collectionExecutor = newThreadPerTaskExecutor("kaap-collection");
+        }
+        return collectionExecutor;
+    }
+
+    private static ThreadFactory platformThreadFactory(String name) {
+        final AtomicLong counter = new AtomicLong();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @SneakyThrows
+    private static ThreadFactory virtualThreadFactory(String name) {
+        try {
+            final Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    @SneakyThrows
+    private static ExecutorService newThreadPerTaskExecutor(String name) {
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, virtualThreadFactory(name));
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private static Class<?> findClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        if (clazz == null) {
+            return null;
+        }
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+}
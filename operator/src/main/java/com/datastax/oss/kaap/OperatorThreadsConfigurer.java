@@ -0,0 +1,62 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.javaoperatorsdk.operator.Operator;
+import io.javaoperatorsdk.operator.api.config.ConfigurationServiceProvider;
+import io.quarkus.arc.Unremovable;
+import io.quarkus.runtime.StartupEvent;
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Applies the thread model to the operator executors before the operator is started.
+ * With virtual threads, the reconciliations run on a virtual thread each instead of the fixed pool of
+ * quarkus.operator-sdk.concurrent-reconciliation-threads threads: the concurrency is then bounded by the client
+ * side API request budget and by the per namespace limit of concurrent reconciliations.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class OperatorThreadsConfigurer {
+
+    // the operator is started by the operator sdk extension with priority 3123
+    static final int STARTUP_PRIORITY = 3122;
+
+    private final boolean virtualThreadsEnabled;
+
+    @Inject
+    public OperatorThreadsConfigurer(OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(operatorRuntimeConfiguration.virtualThreadsEnabled());
+    }
+
+    public OperatorThreadsConfigurer(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    // the operator is injected so that it's created, and the operator sdk configuration is set, before overriding it
+    void onStart(@Observes @Priority(STARTUP_PRIORITY) StartupEvent ev, Operator operator) {
+        if (!OperatorThreads.configure(virtualThreadsEnabled)) {
+            return;
+        }
+        log.info("Running the reconciliations, the autoscalers and the pods collection on virtual threads");
+        ConfigurationServiceProvider.overrideCurrent(overrider -> overrider
+                .withExecutorService(OperatorThreads.newTaskExecutor("kaap-reconciler", 0)));
+    }
+}
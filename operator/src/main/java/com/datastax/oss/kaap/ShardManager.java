@@ -0,0 +1,365 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseList;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.NonNamespaceOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.quarkus.arc.Unremovable;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import lombok.extern.jbosslog.JBossLog;
+import org.apache.commons.codec.digest.MurmurHash3;
+
+/**
+ * Partitions the reconciled resources across the operator replicas.
+ * Resources are mapped to a fixed number of shards by hashing their namespace and cluster name, so a PulsarCluster
+ * and all its components always belong to the same shard. Each shard is assigned to one of the live replicas with
+ * rendezvous hashing: when a replica joins or leaves, only the shards of that replica move.
+ * A replica is live while it renews its own leader election lease, and it owns a shard only while it holds the
+ * shard lease. When a shard moves to another replica, no new reconciliation of the shard is started but the lease
+ * is kept until the running ones are done, so a shard is never reconciled by two replicas at the same time.
+ * The leases of the replicas that are gone are deleted by the live ones.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class ShardManager {
+
+    static final String SHARD_LEASE_PREFIX = "kaap-shard-";
+    static final int SHARD_LEASE_DURATION_SECONDS = 15;
+    static final long SYNC_PERIOD_SECONDS = 5;
+    // a member lease expired for this long belongs to a replica that is gone
+    static final int MEMBER_LEASE_RETENTION_SECONDS = 300;
+
+    private final KubernetesClient client;
+    private final boolean enabled;
+    private final int shards;
+    private final String identity;
+    // shard -> nano time until the shard can be considered owned without renewing the lease
+    private final Map<Integer, Long> ownedShards = new ConcurrentHashMap<>();
+    // shard -> number of reconciliations running, guarded by inFlightLock
+    private final Map<Integer, Integer> inFlight = new HashMap<>();
+    // owned shards assigned to another replica, waiting for their reconciliations to complete
+    private final Set<Integer> releasingShards = new HashSet<>();
+    private final Object inFlightLock = new Object();
+    private ScheduledExecutorService executorService;
+
+    @Inject
+    public ShardManager(KubernetesClient client, OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(client, operatorRuntimeConfiguration.shardingEnabled(), operatorRuntimeConfiguration.shardingShards(),
+                LeaderElectionConfig.IDENTITY);
+    }
+
+    public ShardManager(KubernetesClient client, boolean enabled, int shards, String identity) {
+        this.client = client;
+        this.enabled = enabled;
+        this.shards = shards;
+        this.identity = identity;
+    }
+
+    void onStart(@Observes StartupEvent ev) {
+        start();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        close();
+    }
+
+    public synchronized void start() {
+        if (!enabled || executorService != null) {
+            return;
+        }
+        log.infof("Sharding enabled with %d shards, member identity %s", shards, identity);
+        executorService = Executors.newSingleThreadScheduledExecutor();
+        executorService.scheduleWithFixedDelay(() -> {
+            try {
+                sync();
+            } catch (Throwable tt) {
+                log.errorf(tt, "Error while syncing shards: %s", tt.getMessage());
+            }
+        }, 0, SYNC_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void close() {
+        if (executorService == null) {
+            return;
+        }
+        executorService.shutdownNow();
+        executorService = null;
+        for (Integer shard : Set.copyOf(ownedShards.keySet())) {
+            ownedShards.remove(shard);
+            release(shard);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Check if the resources of the given cluster must be reconciled by this replica.
+     */
+    public boolean isOwned(String namespace, String clusterName) {
+        if (!enabled) {
+            return true;
+        }
+        final int shard = shardOf(namespace + "/" + clusterName, shards);
+        synchronized (inFlightLock) {
+            return isShardOwned(shard);
+        }
+    }
+
+    /**
+     * Register a reconciliation of the given cluster, if it's owned by this replica. Until
+     * {@link #endReconciliation(String, String)} is called, the shard is not released to another replica.
+     *
+     * @return false if the cluster must not be reconciled by this replica
+     */
+    public boolean startReconciliation(String namespace, String clusterName) {
+        if (!enabled) {
+            return true;
+        }
+        final int shard = shardOf(namespace + "/" + clusterName, shards);
+        synchronized (inFlightLock) {
+            if (!isShardOwned(shard)) {
+                return false;
+            }
+            inFlight.merge(shard, 1, Integer::sum);
+            return true;
+        }
+    }
+
+    public void endReconciliation(String namespace, String clusterName) {
+        if (!enabled) {
+            return;
+        }
+        final int shard = shardOf(namespace + "/" + clusterName, shards);
+        synchronized (inFlightLock) {
+            inFlight.computeIfPresent(shard, (k, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private boolean isShardOwned(int shard) {
+        final Long ownedUntil = ownedShards.get(shard);
+        return ownedUntil != null && ownedUntil - System.nanoTime() > 0 && !releasingShards.contains(shard);
+    }
+
+    static int shardOf(String key, int shards) {
+        return Math.floorMod(MurmurHash3.hash32x86(key.getBytes(StandardCharsets.UTF_8)), shards);
+    }
+
+    static String ownerOf(int shard, Collection<String> members) {
+        String owner = null;
+        int ownerWeight = 0;
+        for (String member : members) {
+            final int weight = MurmurHash3.hash32x86((shard + "/" + member).getBytes(StandardCharsets.UTF_8));
+            if (owner == null || weight > ownerWeight || (weight == ownerWeight && member.compareTo(owner) < 0)) {
+                owner = member;
+                ownerWeight = weight;
+            }
+        }
+        return owner;
+    }
+
+    static boolean isExpired(LeaseSpec spec, ZonedDateTime now) {
+        if (spec == null || spec.getRenewTime() == null || spec.getLeaseDurationSeconds() == null) {
+            return true;
+        }
+        return spec.getRenewTime().plusSeconds(spec.getLeaseDurationSeconds()).isBefore(now);
+    }
+
+    /**
+     * A shard held by another replica is acquired only once released or expired, even if the holder is not a live
+     * member anymore, since it might still be reconciling.
+     */
+    static boolean canAcquire(LeaseSpec spec, String identity, ZonedDateTime now) {
+        final String holder = spec == null ? null : spec.getHolderIdentity();
+        return holder == null
+                || holder.equals(identity)
+                || isExpired(spec, now);
+    }
+
+    void sync() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        final Set<String> liveMembers = getLiveMembers(now);
+        liveMembers.add(identity);
+        for (int shard = 0; shard < shards; shard++) {
+            final boolean owner = identity.equals(ownerOf(shard, liveMembers));
+            if (!owner && !ownedShards.containsKey(shard)) {
+                continue;
+            }
+            if (!owner) {
+                final boolean drained;
+                boolean waiting = false;
+                synchronized (inFlightLock) {
+                    drained = !inFlight.containsKey(shard);
+                    if (drained) {
+                        ownedShards.remove(shard);
+                        releasingShards.remove(shard);
+                    } else {
+                        waiting = releasingShards.add(shard);
+                    }
+                }
+                if (drained) {
+                    log.infof("Releasing shard %d, live members: %s", shard, liveMembers);
+                    release(shard);
+                    continue;
+                }
+                if (waiting) {
+                    log.infof("Shard %d is assigned to another replica, waiting for its reconciliations to complete",
+                            shard);
+                }
+            }
+            final long renewedAt = System.nanoTime();
+            if (acquireOrRenew(shard, now)) {
+                final Long previous;
+                synchronized (inFlightLock) {
+                    previous = ownedShards.put(shard,
+                            renewedAt + TimeUnit.SECONDS.toNanos(SHARD_LEASE_DURATION_SECONDS));
+                    if (owner) {
+                        releasingShards.remove(shard);
+                    }
+                }
+                if (previous == null) {
+                    log.infof("Acquired shard %d", shard);
+                }
+            } else {
+                final boolean lost;
+                synchronized (inFlightLock) {
+                    lost = ownedShards.remove(shard) != null;
+                    releasingShards.remove(shard);
+                }
+                if (lost) {
+                    log.warnf("Lost shard %d", shard);
+                }
+            }
+        }
+    }
+
+    private Set<String> getLiveMembers(ZonedDateTime now) {
+        final Set<String> members = new HashSet<>();
+        final String memberLeasePrefix = LeaderElectionConfig.LEASE_NAME + "-";
+        for (Lease lease : leases().list().getItems()) {
+            if (!lease.getMetadata().getName().startsWith(memberLeasePrefix)) {
+                continue;
+            }
+            final LeaseSpec spec = lease.getSpec();
+            if (spec != null && spec.getHolderIdentity() != null && !isExpired(spec, now)) {
+                members.add(spec.getHolderIdentity());
+            } else if (!lease.getMetadata().getName().equals(memberLeasePrefix + identity)
+                    && isExpired(spec, now.minusSeconds(MEMBER_LEASE_RETENTION_SECONDS))) {
+                deleteMemberLease(lease);
+            }
+        }
+        return members;
+    }
+
+    private void deleteMemberLease(Lease lease) {
+        log.infof("Deleting lease %s of a replica that is gone", lease.getMetadata().getName());
+        try {
+            leases().withName(lease.getMetadata().getName()).delete();
+        } catch (KubernetesClientException ex) {
+            log.warnf("Unable to delete lease %s: %s", lease.getMetadata().getName(), ex.getMessage());
+        }
+    }
+
+    private boolean acquireOrRenew(int shard, ZonedDateTime now) {
+        final String name = SHARD_LEASE_PREFIX + shard;
+        try {
+            final Lease current = leases().withName(name).get();
+            if (current == null) {
+                leases().resource(new LeaseBuilder()
+                        .withNewMetadata()
+                        .withName(name)
+                        .endMetadata()
+                        .withNewSpec()
+                        .withHolderIdentity(identity)
+                        .withLeaseDurationSeconds(SHARD_LEASE_DURATION_SECONDS)
+                        .withAcquireTime(now)
+                        .withRenewTime(now)
+                        .withLeaseTransitions(0)
+                        .endSpec()
+                        .build()).create();
+                return true;
+            }
+            final LeaseSpec spec = current.getSpec();
+            if (!canAcquire(spec, identity, now)) {
+                log.debugf("Shard %d is still held by %s", shard, spec.getHolderIdentity());
+                return false;
+            }
+            final boolean renew = spec != null && identity.equals(spec.getHolderIdentity());
+            final int transitions = spec == null || spec.getLeaseTransitions() == null
+                    ? 0 : spec.getLeaseTransitions();
+            // the resource version is kept, so a concurrent update of the lease fails with a conflict
+            leases().resource(new LeaseBuilder(current)
+                    .editOrNewSpec()
+                    .withHolderIdentity(identity)
+                    .withLeaseDurationSeconds(SHARD_LEASE_DURATION_SECONDS)
+                    .withAcquireTime(renew ? spec.getAcquireTime() : now)
+                    .withRenewTime(now)
+                    .withLeaseTransitions(renew ? transitions : transitions + 1)
+                    .endSpec()
+                    .build()).replace();
+            return true;
+        } catch (KubernetesClientException ex) {
+            log.warnf("Unable to acquire shard %d: %s", shard, ex.getMessage());
+            return false;
+        }
+    }
+
+    private void release(int shard) {
+        try {
+            final Lease current = leases().withName(SHARD_LEASE_PREFIX + shard).get();
+            if (current == null || current.getSpec() == null
+                    || !Objects.equals(identity, current.getSpec().getHolderIdentity())) {
+                return;
+            }
+            leases().resource(new LeaseBuilder(current)
+                    .editSpec()
+                    .withHolderIdentity(null)
+                    .endSpec()
+                    .build()).replace();
+        } catch (KubernetesClientException ex) {
+            log.warnf("Unable to release shard %d, it will be taken over when the lease expires: %s",
+                    shard, ex.getMessage());
+        }
+    }
+
+    private NonNamespaceOperation<Lease, LeaseList, Resource<Lease>> leases() {
+        return client.leases().inNamespace(client.getNamespace());
+    }
+}
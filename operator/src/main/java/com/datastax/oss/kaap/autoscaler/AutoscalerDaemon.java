@@ -15,35 +15,72 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.OperatorThreads;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.concurrent.Executors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.extern.jbosslog.JBossLog;
 
+/**
+ * Runs the autoscalers of all the watched namespaces.
+ * Each namespace has its own lane (a dedicated scheduler thread), so a slow autoscaler tick in a namespace doesn't
+ * delay the autoscalers of the other namespaces. The lane thread is a virtual thread when enabled with
+ * {@link OperatorThreads}.
+ */
 @JBossLog
 public class AutoscalerDaemon implements AutoCloseable {
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final Map<String, ScheduledExecutorService> lanes = new ConcurrentHashMap<>();
     @Getter
     private final BrokerAutoscalerDaemon brokerAutoscalerDaemon;
     @Getter
     private final BookKeeperAutoscalerDaemon bookKeeperAutoscalerDaemon;
 
     public AutoscalerDaemon(KubernetesClient client) {
+        this(client, () -> null);
+    }
+
+    /**
+     * The checkpoint is supplied when the autoscalers are scheduled since it's injected after the daemon creation.
+     */
+    public AutoscalerDaemon(KubernetesClient client, Supplier<OperatorCheckpoint> checkpoint) {
         this.client = client;
-        this.executorService = Executors.newSingleThreadScheduledExecutor();
-        this.brokerAutoscalerDaemon = new BrokerAutoscalerDaemon(client, executorService);
-        this.bookKeeperAutoscalerDaemon = new BookKeeperAutoscalerDaemon(client, executorService);
+        this.brokerAutoscalerDaemon = new BrokerAutoscalerDaemon(client, this::getLane);
+        this.bookKeeperAutoscalerDaemon = new BookKeeperAutoscalerDaemon(client, this::getLane, checkpoint);
+
+    }
+
+    ScheduledExecutorService getLane(String namespace) {
+        return lanes.computeIfAbsent(namespace, ns -> {
+            log.infof("Starting autoscaler lane for namespace %s", ns);
+            return OperatorThreads.newSingleThreadScheduledExecutor("kaap-autoscaler-" + ns);
+        });
+    }
+
+    int getLanesCount() {
+        return lanes.size();
+    }
 
+    public void stop(String namespace) {
+        brokerAutoscalerDaemon.stop(namespace);
+        bookKeeperAutoscalerDaemon.stop(namespace);
+        final ScheduledExecutorService lane = lanes.remove(namespace);
+        if (lane != null) {
+            lane.shutdownNow();
+        }
     }
 
     @Override
     public void close() {
         brokerAutoscalerDaemon.close();
         bookKeeperAutoscalerDaemon.close();
-        executorService.shutdownNow();
+        lanes.values().forEach(ScheduledExecutorService::shutdownNow);
+        lanes.clear();
     }
 
 }
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorEvents;
 import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
 import io.fabric8.kubernetes.api.model.ContainerStatus;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -107,6 +108,7 @@ public class AutoscalerUtils {
             log.debugf("Executing in pod %s: %s",
                     containerName == null ? podName : podName + "/" + containerName, cmd);
         }
+        final OperatorEvents.PodExecEvent event = OperatorEvents.beginPodExec(namespace, podName, containerName);
         final AtomicBoolean completed = new AtomicBoolean(false);
         final CompletableFuture<String> response = new CompletableFuture<>();
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -175,6 +177,7 @@ public class AutoscalerUtils {
 
         final ExecWatch execToClose = exec;
         response.whenComplete((s, ex) -> {
+            OperatorEvents.endPodExec(event, ex == null, out.size());
             closeQuietly(execToClose);
             closeQuietly(out);
             closeQuietly(error);
@@ -16,35 +16,39 @@
 package com.datastax.oss.kaap.autoscaler;
 
 import com.datastax.oss.kaap.NamespacedDaemonThread;
+import com.datastax.oss.kaap.OperatorCheckpoint;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperController;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
-public class BookKeeperAutoscalerDaemon extends NamespacedDaemonThread<Map<String, BookKeeperAutoscalerSpec>> {
+public class BookKeeperAutoscalerDaemon extends NamespacedDaemonThread<BookKeeperAutoscalerSpec> {
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final Function<String, ScheduledExecutorService> lanes;
+    private final Supplier<OperatorCheckpoint> checkpoint;
 
-    public BookKeeperAutoscalerDaemon(KubernetesClient client, ScheduledExecutorService executorService) {
+    public BookKeeperAutoscalerDaemon(KubernetesClient client, Function<String, ScheduledExecutorService> lanes,
+                                      Supplier<OperatorCheckpoint> checkpoint) {
         this.client = client;
-        this.executorService = executorService;
+        this.lanes = lanes;
+        this.checkpoint = checkpoint;
     }
 
     @Override
-    protected Map<String, BookKeeperAutoscalerSpec> getSpec(PulsarClusterSpec clusterSpec) {
+    protected Map<String, BookKeeperAutoscalerSpec> getSpecs(PulsarClusterSpec clusterSpec) {
         final BookKeeperSpec bk = clusterSpec.getBookkeeper();
         final LinkedHashMap<String, BookKeeperSetSpec> sets =
                 BookKeeperController.getBookKeeperSetSpecs(bk);
@@ -53,23 +57,15 @@ public class BookKeeperAutoscalerDaemon extends NamespacedDaemonThread<Map<Strin
     }
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, Map<String, BookKeeperAutoscalerSpec> newSpec,
-                                                   PulsarClusterSpec clusterSpec) {
-        List<ScheduledFuture<?>> newTasks = new ArrayList<>();
-        for (Map.Entry<String, BookKeeperAutoscalerSpec> autoscaler :
-                newSpec.entrySet()) {
-            final BookKeeperAutoscalerSpec spec = autoscaler.getValue();
-            if (spec.getEnabled()) {
-                final String bkSetName = autoscaler.getKey();
-                log.infof("Scheduling bookkeeper autoscaler every %d ms for bookkeeper set %s",
-                        spec.getPeriodMs(), bkSetName);
-                newTasks.add(executorService.scheduleWithFixedDelay(
-                        new BookKeeperSetAutoscaler(client, namespace, bkSetName, clusterSpec),
-                        spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
-            }
-
+    protected ScheduledFuture<?> schedule(String namespace, String bkSetName, BookKeeperAutoscalerSpec spec,
+                                          PulsarClusterSpec clusterSpec) {
+        if (!spec.getEnabled()) {
+            return null;
         }
-        return newTasks;
+        log.infof("Scheduling bookkeeper autoscaler every %d ms for bookkeeper set %s in namespace %s",
+                spec.getPeriodMs(), bkSetName, namespace);
+        return lanes.apply(namespace).scheduleWithFixedDelay(
+                new BookKeeperSetAutoscaler(client, namespace, bkSetName, clusterSpec, checkpoint.get()),
+                spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS);
     }
 }
-
@@ -15,6 +15,10 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.OperatorEvents;
+import com.datastax.oss.kaap.OperatorMetrics;
+import com.datastax.oss.kaap.OperatorThreads;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.PodExecBookieAdminClient;
 import com.datastax.oss.kaap.controllers.PulsarClusterController;
@@ -28,14 +32,17 @@ import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
 import org.apache.commons.lang3.exception.ExceptionUtils;
@@ -44,6 +51,8 @@ import org.apache.commons.lang3.tuple.Pair;
 @JBossLog
 public class BookKeeperSetAutoscaler implements Runnable {
 
+    static final String COMPONENT = "bookkeeper";
+    public static final String CHECKPOINT_KIND = "bookkeeper-forced-gc";
 
     @Data
     public static class ClusterStats {
@@ -52,20 +61,44 @@ public class BookKeeperSetAutoscaler implements Runnable {
         int readOnlyBookiesTotal = 0;
     }
 
+    /**
+     * Forced GC in progress, the start time is the epoch time in millis.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ForcedGcCheckpoint {
+        private Map<String, Long> usedBytes;
+        private long startedAt;
+    }
+
     private final KubernetesClient client;
     private final String namespace;
     private final PulsarClusterSpec clusterSpec;
     private final String bookkeeperSetName;
     private final BookKeeperSetSpec desiredBookKeeperSetSpec;
+    private final OperatorCheckpoint checkpoint;
     private BookieAdminClient bookieAdminClient;
+    private boolean checkpointRestored;
+    // bookie pod name -> used bytes before the forced GC, null if no forced GC is in progress
+    private Map<String, Long> forcedGcUsedBytes;
+    private long forcedGcStartedAtNanos;
 
     public BookKeeperSetAutoscaler(KubernetesClient client, String namespace,
                                    String bookkeeperSetName,
                                    PulsarClusterSpec clusterSpec) {
+        this(client, namespace, bookkeeperSetName, clusterSpec, null);
+    }
+
+    public BookKeeperSetAutoscaler(KubernetesClient client, String namespace,
+                                   String bookkeeperSetName,
+                                   PulsarClusterSpec clusterSpec,
+                                   OperatorCheckpoint checkpoint) {
         this.client = client;
         this.namespace = namespace;
         this.clusterSpec = clusterSpec;
         this.bookkeeperSetName = bookkeeperSetName;
+        this.checkpoint = checkpoint;
         this.desiredBookKeeperSetSpec = BookKeeperController.getBookKeeperSetSpecs(
                         new BookKeeperFullSpec(clusterSpec.getGlobal(), clusterSpec.getBookkeeper()))
                 .get(bookkeeperSetName);
@@ -73,13 +106,16 @@ public class BookKeeperSetAutoscaler implements Runnable {
 
     @Override
     public void run() {
+        final long start = System.nanoTime();
         try {
             log.infof("Bookkeeper autoscaler starting for bookkeeper set %s", bookkeeperSetName);
             internalRun();
+            OperatorMetrics.recordAutoscalerTick(COMPONENT, true, start);
         } catch (Throwable tt) {
             if (ExceptionUtils.indexOfThrowable(tt, RejectedExecutionException.class) >= 0) {
                 return;
             }
+            OperatorMetrics.recordAutoscalerTick(COMPONENT, false, start);
             log.errorf("Bookkeeper (bookkeeper set %s) autoscaler error", bookkeeperSetName, tt);
         }
     }
@@ -94,6 +130,10 @@ public class BookKeeperSetAutoscaler implements Runnable {
     void internalRun() {
         final BookKeeperAutoscalerSpec autoscalerSpec = desiredBookKeeperSetSpec.getAutoscaler();
         Objects.requireNonNull(autoscalerSpec);
+        if (!checkpointRestored) {
+            restoreForcedGc();
+            checkpointRestored = true;
+        }
 
         final String clusterSpecName = clusterSpec.getGlobal().getName();
         final String bkBaseName = clusterSpec.getGlobal()
@@ -106,6 +146,8 @@ public class BookKeeperSetAutoscaler implements Runnable {
         final int bookieSafeStepUp = bkScalerSpec.getScaleUpBy();
         final int bookieSafeStepDown = bkScalerSpec.getScaleDownBy();
         final int scaleUpMaxLimit = bkScalerSpec.getScaleUpMaxLimit();
+        final boolean forceGcBeforeScaleUp = bkScalerSpec.getForceGcBeforeScaleUp();
+        final long forceGcWaitMs = bkScalerSpec.getForceGcWaitMs();
 
         if (scaleUpMaxLimit < targetWritableBookiesCount) {
             throw new IllegalArgumentException("scaleUpMaxLimit must be >= to minWritableBookies, "
@@ -120,6 +162,7 @@ public class BookKeeperSetAutoscaler implements Runnable {
                 .get();
         if (bkCr == null) {
             log.warnf("BookKeeper custom resource not found in namespace %s", namespace);
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "resource_not_found");
             return;
         }
 
@@ -151,17 +194,27 @@ public class BookKeeperSetAutoscaler implements Runnable {
                 namespace, statefulsetName, podSelector, currentExpectedReplicas)) {
             log.infof("BookKeeper cluster %s %s is not ready to scale, expect replicas: %d",
                     clusterSpecName, bkName, currentExpectedReplicas);
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "not_ready");
             return;
         }
 
         List<Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfos =
-                this.bookieAdminClient.collectBookieInfos()
-                        .stream()
-                        .map(bookieInfo -> Pair.of(bookieInfo, this.bookieAdminClient.collectBookieStats(bookieInfo)))
-                        .collect(Collectors.toList());
+                OperatorThreads.collect(this.bookieAdminClient.collectBookieInfos(),
+                        bookieInfo -> Pair.of(bookieInfo, collectBookieStats(bookieInfo)));
 
         ClusterStats clusterStats = collectClusterStats(diskUsageHwm, bookieInfos);
 
+        boolean forcedGcCompleted = false;
+        if (forcedGcUsedBytes != null
+                && System.nanoTime() - forcedGcStartedAtNanos >= TimeUnit.MILLISECONDS.toNanos(forceGcWaitMs)) {
+            reportForcedGcReclaimedBytes(bookieInfos);
+            forcedGcUsedBytes = null;
+            if (checkpoint != null) {
+                checkpoint.remove(getCheckpointKey());
+            }
+            forcedGcCompleted = true;
+        }
+
         int desiredScaleChange = 0;
 
         // 1. quickly add to targetWritableBookiesCount if there are not enough writable bookies.
@@ -177,9 +230,27 @@ public class BookKeeperSetAutoscaler implements Runnable {
         if (clusterStats.atRiskWritableBookies > 0
                 && (clusterStats.writableBookiesTotal - clusterStats.atRiskWritableBookies) < (
                 targetWritableBookiesCount - desiredScaleChange)) {
-            desiredScaleChange += bookieSafeStepUp;
-            log.infof("Some writable bookies are at risk of running out of disk space, need to add extra %d",
-                    bookieSafeStepUp);
+            boolean waitForcedGc = false;
+            if (forceGcBeforeScaleUp && !forcedGcCompleted) {
+                // a forced GC might reclaim enough disk space, check again after forceGcWaitMs
+                if (forcedGcUsedBytes == null) {
+                    waitForcedGc = triggerForcedGc(diskUsageHwm, bookieInfos);
+                } else {
+                    log.infof("Some writable bookies are at risk of running out of disk space, "
+                            + "waiting for the forced GC to complete before scaling up");
+                    waitForcedGc = true;
+                }
+            }
+            if (waitForcedGc) {
+                if (desiredScaleChange == 0) {
+                    recordDecision(OperatorMetrics.DECISION_SKIPPED, "forced_gc");
+                    return;
+                }
+            } else {
+                desiredScaleChange += bookieSafeStepUp;
+                log.infof("Some writable bookies are at risk of running out of disk space, need to add extra %d",
+                        bookieSafeStepUp);
+            }
         }
 
         // 3. only after that check if it's safe to scale down
@@ -192,12 +263,14 @@ public class BookKeeperSetAutoscaler implements Runnable {
                         Math.abs(desiredScaleChange));
             } else {
                 log.infof("Cannot scale down");
+                recordDecision(OperatorMetrics.DECISION_SKIPPED, "scale_down_unsafe");
                 return;
             }
         }
 
         if (desiredScaleChange == 0) {
             log.infof("System is stable, no scaling needed");
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "stable");
             return;
         }
 
@@ -208,6 +281,7 @@ public class BookKeeperSetAutoscaler implements Runnable {
         if (currentExpectedReplicas == scaleTo) {
             log.infof("Hit scale limits, won't scale. Current expected replicas: %d, desired scale change: %d",
                     currentExpectedReplicas, desiredScaleChange);
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "replicas_limit");
             return;
         }
 
@@ -219,6 +293,109 @@ public class BookKeeperSetAutoscaler implements Runnable {
                 .patch(bkCr);
 
         log.infof("Bookies scaled up/down from %d to %d", currentExpectedReplicas, scaleTo);
+        if (scaleTo > currentExpectedReplicas) {
+            recordDecision(OperatorMetrics.DECISION_SCALE_UP,
+                    clusterStats.writableBookiesTotal < targetWritableBookiesCount
+                            ? "min_writable_bookies" : "disk_usage_high");
+        } else {
+            recordDecision(OperatorMetrics.DECISION_SCALE_DOWN, "disk_usage_low");
+        }
+    }
+
+    private BookieAdminClient.BookieStats collectBookieStats(BookieAdminClient.BookieInfo bookieInfo) {
+        final long start = System.nanoTime();
+        try {
+            return bookieAdminClient.collectBookieStats(bookieInfo);
+        } finally {
+            OperatorMetrics.recordAutoscalerCollection(COMPONENT, "bookie_stats", start);
+        }
+    }
+
+    /**
+     * Trigger the forced GC on the bookies at risk, return false if it couldn't be triggered on any bookie.
+     * A bookie that fails to trigger the GC (e.g. the endpoint is not available) is not waited for.
+     */
+    private boolean triggerForcedGc(double diskUsageHwm,
+                                    List<Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>>
+                                            bookieInfos) {
+        final Map<String, Long> usedBytes = new HashMap<>();
+        for (Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> info : bookieInfos) {
+            if (info.getRight().isWritable() && isBookieAtRisk(info.getRight(), diskUsageHwm)) {
+                final String podName = info.getLeft().getPod().getMetadata().getName();
+                try {
+                    bookieAdminClient.triggerForceGc(info.getLeft());
+                    usedBytes.put(podName, getUsedBytes(info.getRight()));
+                } catch (Exception ex) {
+                    if (ExceptionUtils.indexOfThrowable(ex, InterruptedException.class) >= 0) {
+                        Thread.currentThread().interrupt();
+                        throw ex;
+                    }
+                    log.warnf("Unable to trigger the forced GC on bookie %s: %s", podName, ex.getMessage());
+                }
+            }
+        }
+        if (usedBytes.isEmpty()) {
+            log.warnf("Unable to trigger the forced GC on the bookies at risk, scaling up without it");
+            return false;
+        }
+        log.infof("Triggered forced GC on %d bookies at risk, re-checking disk usage before scaling up",
+                usedBytes.size());
+        forcedGcUsedBytes = usedBytes;
+        forcedGcStartedAtNanos = System.nanoTime();
+        if (checkpoint != null) {
+            checkpoint.put(getCheckpointKey(), new ForcedGcCheckpoint(usedBytes, System.currentTimeMillis()));
+        }
+        return true;
+    }
+
+    private String getCheckpointKey() {
+        return OperatorCheckpoint.key(CHECKPOINT_KIND, namespace, bookkeeperSetName);
+    }
+
+    /**
+     * Resume the forced GC triggered before the autoscaler has been rescheduled, or by the previous leader.
+     */
+    private void restoreForcedGc() {
+        if (checkpoint == null) {
+            return;
+        }
+        final ForcedGcCheckpoint forcedGc = checkpoint.get(getCheckpointKey(), ForcedGcCheckpoint.class);
+        if (forcedGc == null || forcedGc.getUsedBytes() == null) {
+            return;
+        }
+        final long elapsedMs = Math.max(0, System.currentTimeMillis() - forcedGc.getStartedAt());
+        forcedGcUsedBytes = new HashMap<>(forcedGc.getUsedBytes());
+        forcedGcStartedAtNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(elapsedMs);
+        log.infof("Resuming the forced GC started %d ms ago on %d bookies", elapsedMs, forcedGcUsedBytes.size());
+    }
+
+    private void reportForcedGcReclaimedBytes(List<Pair<BookieAdminClient.BookieInfo,
+            BookieAdminClient.BookieStats>> bookieInfos) {
+        long totalReclaimedBytes = 0;
+        for (Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats> info : bookieInfos) {
+            final String podName = info.getLeft().getPod().getMetadata().getName();
+            final Long usedBytesBefore = forcedGcUsedBytes.get(podName);
+            if (usedBytesBefore == null) {
+                continue;
+            }
+            final long reclaimedBytes = usedBytesBefore - getUsedBytes(info.getRight());
+            log.infof("Forced GC on bookie %s reclaimed %d bytes", podName, reclaimedBytes);
+            totalReclaimedBytes += reclaimedBytes;
+        }
+        log.infof("Forced GC reclaimed %d bytes in total on %d bookies", totalReclaimedBytes,
+                forcedGcUsedBytes.size());
+        OperatorMetrics.recordForcedGcReclaimedBytes(totalReclaimedBytes);
+    }
+
+    private static long getUsedBytes(BookieAdminClient.BookieStats stats) {
+        return stats.getLedgerDiskInfos().stream()
+                .mapToLong(BookieAdminClient.BookieLedgerDiskInfo::getUsedBytes)
+                .sum();
+    }
+
+    private boolean isBookieAtRisk(BookieAdminClient.BookieStats stats, double diskUsageHwm) {
+        return stats.getLedgerDiskInfos().stream()
+                .noneMatch(d -> isDiskUsageBelowTolerance(d, diskUsageHwm));
     }
 
     private void applyScaleTo(BookKeeper bookKeeperCr, int scaleTo) {
@@ -235,7 +412,7 @@ public class BookKeeperSetAutoscaler implements Runnable {
                         .filter(d -> {
                             boolean res = isDiskUsageAboveTolerance(d, diskUsageLwm);
                             log.infof("isDiskUsageAboveTolerance: %s for %s (%s)", res,
-                                    info.getLeft().getPodResource().get().getMetadata().getName(),
+                                    info.getLeft().getPod().getMetadata().getName(),
                                     d);
                             return res;
                         })
@@ -245,7 +422,7 @@ public class BookKeeperSetAutoscaler implements Runnable {
                     // don't want to go back and forth if bookies disk usage may result in
                     // switch to read-only/scale up soon
                     log.infof("Not all disks are ready for %s",
-                            info.getLeft().getPodResource().get().getMetadata().getName());
+                            info.getLeft().getPod().getMetadata().getName());
                     return false;
                 }
             }
@@ -269,10 +446,7 @@ public class BookKeeperSetAutoscaler implements Runnable {
             if (info.getRight().isWritable()) {
                 clusterStats.writableBookiesTotal++;
 
-                long disksNotAtRisk = info.getRight().getLedgerDiskInfos().stream()
-                        .filter(d -> isDiskUsageBelowTolerance(d, diskUsageHwm))
-                        .count();
-                if (disksNotAtRisk == 0) {
+                if (isBookieAtRisk(info.getRight(), diskUsageHwm)) {
                     clusterStats.atRiskWritableBookies++;
                 }
             } else {
@@ -296,4 +470,9 @@ public class BookKeeperSetAutoscaler implements Runnable {
         return diskInfo.getMaxBytes() > 0
                 && ((double) diskInfo.getUsedBytes() / diskInfo.getMaxBytes()) < tolerance;
     }
+
+    private void recordDecision(String decision, String reason) {
+        OperatorMetrics.recordAutoscalerDecision(COMPONENT, decision, reason);
+        OperatorEvents.autoscalerDecision(COMPONENT, namespace, bookkeeperSetName, decision, reason);
+    }
 }
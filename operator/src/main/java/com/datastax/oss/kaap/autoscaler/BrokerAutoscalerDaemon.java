@@ -22,29 +22,28 @@ import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.ArrayList;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
-public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<Map<String, BrokerAutoscalerSpec>> {
+public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<BrokerAutoscalerSpec> {
 
     private final KubernetesClient client;
-    private final ScheduledExecutorService executorService;
+    private final Function<String, ScheduledExecutorService> lanes;
 
-    public BrokerAutoscalerDaemon(KubernetesClient client, ScheduledExecutorService executorService) {
+    public BrokerAutoscalerDaemon(KubernetesClient client, Function<String, ScheduledExecutorService> lanes) {
         this.client = client;
-        this.executorService = executorService;
+        this.lanes = lanes;
     }
 
     @Override
-    protected Map<String, BrokerAutoscalerSpec> getSpec(PulsarClusterSpec clusterSpec) {
+    protected Map<String, BrokerAutoscalerSpec> getSpecs(PulsarClusterSpec clusterSpec) {
         final BrokerSpec broker = clusterSpec.getBroker();
         final LinkedHashMap<String, BrokerSetSpec> brokerSetSpecs =
                 BrokerController.getBrokerSetSpecs(broker);
@@ -53,22 +52,15 @@ public class BrokerAutoscalerDaemon extends NamespacedDaemonThread<Map<String, B
     }
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, Map<String, BrokerAutoscalerSpec> newSpec,
-                                                   PulsarClusterSpec clusterSpec) {
-        List<ScheduledFuture<?>> newTasks = new ArrayList<>();
-        for (Map.Entry<String, BrokerAutoscalerSpec> brokerSetAutoscalers :
-                newSpec.entrySet()) {
-            final BrokerAutoscalerSpec spec = brokerSetAutoscalers.getValue();
-            if (spec.getEnabled()) {
-                final String brokerSetName = brokerSetAutoscalers.getKey();
-                log.infof("Scheduling broker autoscaler every %d ms for broker set %s",
-                        spec.getPeriodMs(), brokerSetName);
-                newTasks.add(executorService.scheduleWithFixedDelay(
-                        new BrokerSetAutoscaler(client, namespace, brokerSetName, clusterSpec),
-                        spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS));
-            }
+    protected ScheduledFuture<?> schedule(String namespace, String brokerSetName, BrokerAutoscalerSpec spec,
+                                          PulsarClusterSpec clusterSpec) {
+        if (!spec.getEnabled()) {
+            return null;
         }
-        return newTasks;
+        log.infof("Scheduling broker autoscaler every %d ms for broker set %s in namespace %s",
+                spec.getPeriodMs(), brokerSetName, namespace);
+        return lanes.apply(namespace).scheduleWithFixedDelay(
+                new BrokerSetAutoscaler(client, namespace, brokerSetName, clusterSpec),
+                spec.getPeriodMs(), spec.getPeriodMs(), TimeUnit.MILLISECONDS);
     }
 }
-
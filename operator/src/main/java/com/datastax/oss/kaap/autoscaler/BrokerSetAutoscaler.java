@@ -15,6 +15,8 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorEvents;
+import com.datastax.oss.kaap.OperatorMetrics;
 import com.datastax.oss.kaap.autoscaler.broker.BrokerResourceUsageSource;
 import com.datastax.oss.kaap.autoscaler.broker.LoadReportResourceUsageSource;
 import com.datastax.oss.kaap.autoscaler.broker.PodMetricResourceUsageSource;
@@ -42,6 +44,8 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 @JBossLog
 public class BrokerSetAutoscaler implements Runnable {
 
+    static final String COMPONENT = "broker";
+
     private final KubernetesClient client;
     private final String namespace;
     private final PulsarClusterSpec clusterSpec;
@@ -61,12 +65,15 @@ public class BrokerSetAutoscaler implements Runnable {
 
     @Override
     public void run() {
+        final long start = System.nanoTime();
         try {
             internalRun();
+            OperatorMetrics.recordAutoscalerTick(COMPONENT, true, start);
         } catch (Throwable tt) {
             if (ExceptionUtils.indexOfThrowable(tt, RejectedExecutionException.class) >= 0) {
                 return;
             }
+            OperatorMetrics.recordAutoscalerTick(COMPONENT, false, start);
             log.errorf(tt, "Broker (broker set %s) autoscaler error", brokerSetName);
         }
     }
@@ -85,6 +92,7 @@ public class BrokerSetAutoscaler implements Runnable {
                 .get();
         if (brokerCr == null) {
             log.warnf("Broker custom resource not found in namespace %s", namespace);
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "resource_not_found");
             return;
         }
 
@@ -109,6 +117,7 @@ public class BrokerSetAutoscaler implements Runnable {
         if (!AutoscalerUtils.isStsReadyToScale(client,
                 autoscalerSpec.getStabilizationWindowMs(),
                 namespace, statefulsetName, podSelector, currentExpectedReplicas)) {
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "not_ready");
             return;
         }
         BrokerResourceUsageSource brokerResourceUsageSource =
@@ -128,6 +137,7 @@ public class BrokerSetAutoscaler implements Runnable {
                         min,
                         autoscalerSpec.getScaleDownBy()
                 );
+                recordDecision(OperatorMetrics.DECISION_SKIPPED, "min_replicas");
                 return;
             }
             final Integer max = autoscalerSpec.getMax();
@@ -138,6 +148,7 @@ public class BrokerSetAutoscaler implements Runnable {
                         max,
                         autoscalerSpec.getScaleUpBy()
                 );
+                recordDecision(OperatorMetrics.DECISION_SKIPPED, "max_replicas");
                 return;
             }
 
@@ -149,8 +160,12 @@ public class BrokerSetAutoscaler implements Runnable {
                     .patch(brokerCr);
             log.infof("Scaled brokers for broker set %s from %d to %d",
                     brokerSetName, currentExpectedReplicas, scaleTo);
+            recordDecision(scaleUpOrDown.get()
+                            ? OperatorMetrics.DECISION_SCALE_UP : OperatorMetrics.DECISION_SCALE_DOWN,
+                    scaleUpOrDown.get() ? "cpu_high" : "cpu_low");
         } else {
             log.infof("System is stable, no scaling needed");
+            recordDecision(OperatorMetrics.DECISION_SKIPPED, "stable");
         }
     }
 
@@ -214,4 +229,9 @@ public class BrokerSetAutoscaler implements Runnable {
                         "Unknown resource usage source: " + brokerAutoscalerSpec.getResourcesUsageSource());
         }
     }
+
+    private void recordDecision(String decision, String reason) {
+        OperatorMetrics.recordAutoscalerDecision(COMPONENT, decision, reason);
+        OperatorEvents.autoscalerDecision(COMPONENT, namespace, brokerSetName, decision, reason);
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.autoscaler.bookkeeper;
 
+import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import java.util.List;
 import lombok.Builder;
@@ -26,7 +27,16 @@ public interface BookieAdminClient {
     @Builder
     class BookieInfo {
         PodResource podResource;
+        Pod pod;
         String bookieId;
+
+        public Pod getPod() {
+            // fetched at most once per bookie info to save API calls
+            if (pod == null) {
+                pod = podResource.get();
+            }
+            return pod;
+        }
     }
 
     @Data
@@ -61,4 +71,6 @@ public interface BookieAdminClient {
     void triggerAudit();
 
     void deleteCookieOnDisk(BookieInfo bookieInfo);
+
+    void triggerForceGc(BookieInfo bookieInfo);
 }
@@ -15,26 +15,98 @@
  */
 package com.datastax.oss.kaap.autoscaler.bookkeeper;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.OperatorMetrics;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
 public class BookieDecommissionUtil {
 
+    public static final String CHECKPOINT_KIND = "bookkeeper-decommission";
+
+    /**
+     * Bookies set read-only by a decommission in progress.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DecommissionCheckpoint {
+        private List<String> bookies;
+        private long startedAt;
+    }
+
     public static int decommissionBookies(List<BookieAdminClient.BookieInfo> allBookies, int numToDecommission,
                                           BookieAdminClient bookieAdminClient) {
+        return decommissionBookies(allBookies, numToDecommission, bookieAdminClient, null, null);
+    }
+
+    /**
+     * Decommission the bookies with the highest ordinals. While in progress, the bookies set read-only are recorded
+     * in the checkpoint, so that they can be set writable again if the decommission is interrupted
+     * (see {@link #restoreInterruptedDecommission(OperatorCheckpoint, String, Supplier)}).
+     */
+    public static int decommissionBookies(List<BookieAdminClient.BookieInfo> allBookies, int numToDecommission,
+                                          BookieAdminClient bookieAdminClient,
+                                          OperatorCheckpoint checkpoint, String checkpointKey) {
         List<BookieAdminClient.BookieInfo> bookiesToRemove = new ArrayList<>();
         int sz = allBookies.size();
         for (int i = sz - 1; i >= sz - numToDecommission; i--) {
             bookiesToRemove.add(allBookies.get(i));
         }
-        return decommissionBookies(bookiesToRemove, bookieAdminClient);
+        if (checkpoint != null) {
+            checkpoint.put(checkpointKey, new DecommissionCheckpoint(bookiesToRemove.stream()
+                    .map(b -> b.getPod().getMetadata().getName())
+                    .collect(Collectors.toList()), System.currentTimeMillis()));
+        }
+        final long start = System.nanoTime();
+        final int decommissioned = decommissionBookies(bookiesToRemove, bookieAdminClient);
+        if (checkpoint != null) {
+            // the bookies not decommissioned have been set writable again
+            checkpoint.remove(checkpointKey);
+        }
+        final String result;
+        if (decommissioned == bookiesToRemove.size()) {
+            result = "success";
+        } else {
+            result = decommissioned > 0 ? "partial" : "failed";
+        }
+        OperatorMetrics.recordBookieDecommission(result, start);
+        return decommissioned;
     }
 
+    /**
+     * Set writable again the bookies of a decommission that has been interrupted (e.g. by a leader failover) before
+     * completing. Returns the number of bookies set writable.
+     */
+    public static int restoreInterruptedDecommission(OperatorCheckpoint checkpoint, String checkpointKey,
+                                                     Supplier<BookieAdminClient> bookieAdminClientSupplier) {
+        final DecommissionCheckpoint interrupted = checkpoint.get(checkpointKey, DecommissionCheckpoint.class);
+        if (interrupted == null) {
+            return 0;
+        }
+        final Set<String> readOnlyBookies = interrupted.getBookies() == null
+                ? Set.of() : new HashSet<>(interrupted.getBookies());
+        log.infof("Found an interrupted decommission of bookies %s, setting them writable", readOnlyBookies);
+        final BookieAdminClient bookieAdminClient = bookieAdminClientSupplier.get();
+        int restored = 0;
+        for (BookieAdminClient.BookieInfo bookieInfo : bookieAdminClient.collectBookieInfos()) {
+            if (readOnlyBookies.contains(bookieInfo.getPod().getMetadata().getName())) {
+                bookieAdminClient.setReadOnly(bookieInfo, false);
+                restored++;
+            }
+        }
+        checkpoint.remove(checkpointKey);
+        return restored;
+    }
 
     private static int decommissionBookies(List<BookieAdminClient.BookieInfo> bookiesToDecommission,
                                            BookieAdminClient bookieAdminClient) {
@@ -60,7 +132,7 @@ public class BookieDecommissionUtil {
 
         boolean success = true;
         for (BookieAdminClient.BookieInfo bookieInfo : bookiesToDecommission) {
-            String bookieName = bookieInfo.getPodResource().get().getMetadata().getName();
+            String bookieName = bookieInfo.getPod().getMetadata().getName();
             log.infof("Attempting decommission of bookie %s with bookieId = %s",
                     bookieName, bookieInfo.getBookieId());
 
@@ -89,7 +161,7 @@ public class BookieDecommissionUtil {
                 // and on restart the bookie will fail
                 if (!deleteCookie(bookieInfo, bookieAdminClient)) {
                     log.warnf("Can't scale down, failed to delete cookie for %s",
-                            bookieInfo.getPodResource().get().getMetadata().getName());
+                            bookieInfo.getPod().getMetadata().getName());
                     break;
                 }
                 bookiesSetAsReadonly.remove(bookieInfo);
@@ -122,13 +194,13 @@ public class BookieDecommissionUtil {
             bookieAdminClient.recoverAndDeleteCookieInZk(bookieInfo, false);
             if (bookieAdminClient.existsLedger(bookieInfo)) {
                 log.warnf("Bookie %s still has ledgers assigned to it, will not delete cookie",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                        bookieInfo.getPod().getMetadata().getName());
                 return false;
             }
             return true;
         } catch (Exception e) {
             log.errorf(e, "Error while recovering bookie %s",
-                    bookieInfo.getPodResource().get().getMetadata().getName());
+                    bookieInfo.getPod().getMetadata().getName());
             return false;
         }
     }
@@ -137,7 +209,7 @@ public class BookieDecommissionUtil {
         try {
             if (bookieAdminClient.existsLedger(bookieInfo)) {
                 log.warnf("Bookie %s has ledgers assigned to it, will not delete cookie",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                        bookieInfo.getPod().getMetadata().getName());
                 return false;
             }
 
@@ -147,7 +219,7 @@ public class BookieDecommissionUtil {
             return true;
         } catch (Exception e) {
             log.errorf(e, "Error while deleting a cookie for bookie %s",
-                    bookieInfo.getPodResource().get().getMetadata().getName());
+                    bookieInfo.getPod().getMetadata().getName());
             return false;
         }
     }
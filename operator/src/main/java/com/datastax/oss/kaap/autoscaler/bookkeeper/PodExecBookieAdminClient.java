@@ -28,6 +28,7 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.PodResource;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
 
@@ -42,6 +44,7 @@ import lombok.extern.jbosslog.JBossLog;
 public class PodExecBookieAdminClient implements BookieAdminClient {
 
     static final ObjectMapper MAPPER = new ObjectMapper();
+    static final String BATCH_OUTPUT_DELIMITER = "#kaap-batch-output#";
 
     private final KubernetesClient client;
     private final String namespace;
@@ -76,9 +79,12 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
 
     @Override
     public List<BookieInfo> collectBookieInfos() {
-        this.bookieInfos = client.pods().inNamespace(namespace).withLabels(podSelector).resources()
-                .map(pod -> getBookieInfo(pod))
-                .sorted(Comparator.comparing(b -> b.podResource.get().getMetadata().getName())).toList();
+        this.bookieInfos = client.pods().inNamespace(namespace).withLabels(podSelector).list()
+                .getItems()
+                .stream()
+                .sorted(Comparator.comparing(pod -> pod.getMetadata().getName()))
+                .map(pod -> getBookieInfo(client.pods().inNamespace(namespace).resource(pod), pod))
+                .toList();
         return bookieInfos;
     }
 
@@ -90,40 +96,35 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     }
 
     @SneakyThrows
-    protected BookieInfo getBookieInfo(PodResource pod) {
+    protected BookieInfo getBookieInfo(PodResource podResource, Pod pod) {
         if (log.isDebugEnabled()) {
-            log.debugf("getting BookieInfo for pod %s", pod.get().getMetadata().getName());
+            log.debugf("getting BookieInfo for pod %s", pod.getMetadata().getName());
         }
 
 
         return BookieInfo.builder()
-                .podResource(pod)
-                .bookieId(getBookieId(pod))
+                .podResource(podResource)
+                .pod(pod)
+                .bookieId(getBookieId(pod, bookkeeperSetName, currentBookKeeperSetSpec, globalSpec, namespace))
                 .build();
     }
 
     @Override
     @SneakyThrows
     public BookieStats collectBookieStats(BookieInfo bookieInfo) {
-        final Pod pod = bookieInfo.getPodResource().get();
+        final Pod pod = bookieInfo.getPod();
 
-        CompletableFuture<String> bkStateOut =
-                AutoscalerUtils.execInPod(client, namespace, pod.getMetadata().getName(),
-                        BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
-                        "curl -s " + bookieAdminUrl + "/api/v1/bookie/state");
-
-        CompletableFuture<String> bkInfoOut =
-                AutoscalerUtils.execInPod(client, namespace, pod.getMetadata().getName(),
-                        BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
-                        "curl -s " + bookieAdminUrl + "/api/v1/bookie/info");
+        final List<String> outputs = execBatchInPod(pod.getMetadata().getName(),
+                "curl -s " + bookieAdminUrl + "/api/v1/bookie/state",
+                "curl -s " + bookieAdminUrl + "/api/v1/bookie/info");
 
         List<BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
-        final BookieLedgerDiskInfo diskInfo = parseAndFillDiskUsage(bkInfoOut.get(), pod);
+        final BookieLedgerDiskInfo diskInfo = parseAndFillDiskUsage(outputs.get(1), pod);
         if (diskInfo != null) {
             ledgerDiskInfos.add(diskInfo);
         }
 
-        boolean writable = parseIsWritable(bkStateOut.get());
+        boolean writable = parseIsWritable(outputs.get(0));
         return BookieStats.builder()
                 .isWritable(writable)
                 .ledgerDiskInfos(ledgerDiskInfos)
@@ -131,6 +132,22 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
 
     }
 
+    /**
+     * Run all the commands in a single exec session, the output of each command is separated by a delimiter.
+     */
+    @SneakyThrows
+    private List<String> execBatchInPod(String podName, String... cmds) {
+        final String cmd = String.join("; echo '%s'; ".formatted(BATCH_OUTPUT_DELIMITER), cmds);
+        final String out = AutoscalerUtils.execInPod(client, namespace, podName,
+                BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec), cmd).get();
+        final String[] outputs = out.split(Pattern.quote(BATCH_OUTPUT_DELIMITER), -1);
+        if (outputs.length != cmds.length) {
+            throw new IllegalStateException("unexpected batch output for bookie pod %s, expected %d outputs, got: %s"
+                    .formatted(podName, cmds.length, out));
+        }
+        return Arrays.asList(outputs);
+    }
+
     @SneakyThrows
     private boolean parseIsWritable(String bkStateOutput)
             throws JsonProcessingException, InterruptedException, ExecutionException {
@@ -179,7 +196,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     @SneakyThrows
     public void setReadOnly(BookieInfo bookieInfo, boolean readonly) {
         CompletableFuture<String> curlOut = AutoscalerUtils.execInPod(client, namespace,
-                bookieInfo.getPodResource().get().getMetadata().getName(),
+                bookieInfo.getPod().getMetadata().getName(),
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
                 "curl -s -X PUT -H \"Content-Type: application/json\" "
                         + "-d '{\"readOnly\":" + readonly + "}' "
@@ -187,10 +204,10 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
         curlOut.whenComplete((s, e) -> {
             if (e != null) {
                 log.errorf(e, "Error making bookie read-only %s",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                        bookieInfo.getPod().getMetadata().getName());
             } else {
                 log.infof("Bookie %s is set to read-only=%b",
-                        bookieInfo.getPodResource().get().getMetadata().getName(),
+                        bookieInfo.getPod().getMetadata().getName(),
                         readonly);
             }
         });
@@ -200,7 +217,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     @Override
     @SneakyThrows
     public void recoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie) {
-        final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
+        final String podName = bookieInfo.getPod().getMetadata().getName();
         String res = internalRecoverAndDeleteCookieInZk(bookieInfo, deleteCookie);
         log.debugf("Recover output: %s", res);
         if (!deleteCookie) {
@@ -222,7 +239,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
 
     @SneakyThrows
     private String internalRecoverAndDeleteCookieInZk(BookieInfo bookieInfo, boolean deleteCookie) {
-        final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
+        final String podName = bookieInfo.getPod().getMetadata().getName();
         final long start = System.nanoTime();
         log.info("Starting bookie recovery for bookie " + podName);
         CompletableFuture<String> recoverOut = AutoscalerUtils.execInPod(client, namespace,
@@ -245,7 +262,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     @Override
     @SneakyThrows
     public boolean existsLedger(BookieInfo bookieInfo) {
-        final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
+        final String podName = bookieInfo.getPod().getMetadata().getName();
         CompletableFuture<String> out = AutoscalerUtils.execInPod(client, namespace,
                 podName,
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
@@ -280,9 +297,9 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
         $ curl -s localhost:8000/api/v1/autorecovery/list_under_replicated_ledger/
         No under replicated ledgers found
         */
-        final PodResource pod = getBookieInfos().get(0).getPodResource();
+        final Pod pod = getBookieInfos().get(0).getPod();
         CompletableFuture<String> urLedgersOut = AutoscalerUtils.execInPod(client, namespace,
-                pod.get().getMetadata().getName(),
+                pod.getMetadata().getName(),
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
                 "curl -s " + bookieAdminUrl + "/api/v1/autorecovery/list_under_replicated_ledger/");
 
@@ -312,16 +329,16 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     public void triggerAudit() {
         final BookieInfo bookieInfo = getBookieInfos().get(0);
         CompletableFuture<String> curlOut = AutoscalerUtils.execInPod(client, namespace,
-                bookieInfo.getPodResource().get().getMetadata().getName(),
+                bookieInfo.getPod().getMetadata().getName(),
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
                 "curl -s -X PUT " + bookieAdminUrl + "/api/v1/autorecovery/trigger_audit");
         curlOut.whenComplete((s, e) -> {
             if (e != null) {
                 log.errorf(e, "Error triggering audit %s",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                        bookieInfo.getPod().getMetadata().getName());
             } else {
                 log.infof("Triggered audit",
-                        bookieInfo.getPodResource().get().getMetadata().getName());
+                        bookieInfo.getPod().getMetadata().getName());
             }
         });
         curlOut.get(1, TimeUnit.MINUTES);
@@ -366,7 +383,7 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
     @SneakyThrows
     public void deleteCookieOnDisk(BookieInfo bookieInfo) {
         // moving rather than deleting, into a random name
-        final String podName = bookieInfo.getPodResource().get().getMetadata().getName();
+        final String podName = bookieInfo.getPod().getMetadata().getName();
         CompletableFuture<String> cookieOut = AutoscalerUtils.execInPod(client, namespace,
                 podName,
                 BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
@@ -383,4 +400,26 @@ public class PodExecBookieAdminClient implements BookieAdminClient {
         String res = cookieOut.get();
         log.debugf("Cookie delete output: %s", res);
     }
+
+    @Override
+    @SneakyThrows
+    public void triggerForceGc(BookieInfo bookieInfo) {
+        /*
+        $ curl -s -X PUT localhost:8000/api/v1/bookie/gc
+        "Triggered GC on BookieServer: ..."
+        */
+        final String podName = bookieInfo.getPod().getMetadata().getName();
+        CompletableFuture<String> curlOut = AutoscalerUtils.execInPod(client, namespace,
+                podName,
+                BookKeeperResourcesFactory.getBookKeeperContainerName(globalSpec),
+                "curl -s -X PUT " + bookieAdminUrl + "/api/v1/bookie/gc");
+        curlOut.whenComplete((s, e) -> {
+            if (e != null) {
+                log.errorf(e, "Error triggering forced GC on bookie %s", podName);
+            } else {
+                log.infof("Triggered forced GC on bookie %s", podName);
+            }
+        });
+        curlOut.get(1, TimeUnit.MINUTES);
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.datastax.oss.kaap.autoscaler.broker;
 
+import com.datastax.oss.kaap.OperatorMetrics;
+import com.datastax.oss.kaap.OperatorThreads;
 import com.datastax.oss.kaap.autoscaler.AutoscalerUtils;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
@@ -24,7 +26,6 @@ import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -67,7 +68,6 @@ public class LoadReportResourceUsageSource implements BrokerResourceUsageSource
                 .getItems();
 
 
-        List<ResourceUsage> result = new ArrayList<>();
         String webServicePort = getWebServicePort();
         final String brokerUrl =
                 "http://localhost:%s/admin/v2/broker-stats/load-report/".formatted(String.valueOf(webServicePort));
@@ -79,30 +79,38 @@ public class LoadReportResourceUsageSource implements BrokerResourceUsageSource
                 BrokerResourcesFactory.getMainContainerName(BrokerResourcesFactory.getResourceName(globalSpec.getName(),
                         globalSpec.getComponents().getBrokerBaseName(), brokerSet,
                         brokerSetSpec.getOverrideResourceName()));
-        for (Pod pod : pods) {
-            final String podName = pod.getMetadata().getName();
+        return OperatorThreads.collect(pods, pod -> collect(pod, containerName, curlCommand));
+    }
+
+    @SneakyThrows
+    private ResourceUsage collect(Pod pod, String containerName, String curlCommand) {
+        final String podName = pod.getMetadata().getName();
 
-            final String jsonOut = AutoscalerUtils.execInPod(client, namespace, podName, containerName, curlCommand)
+        final long start = System.nanoTime();
+        final String jsonOut;
+        try {
+            jsonOut = AutoscalerUtils.execInPod(client, namespace, podName, containerName, curlCommand)
                     .get(30, TimeUnit.SECONDS);
+        } finally {
+            OperatorMetrics.recordAutoscalerCollection("broker", "load_report", start);
+        }
 
-            final Map<String, Object> json = SerializationUtil.readJson(jsonOut, Map.class);
-            if (!json.containsKey("cpu")) {
-                throw new IllegalStateException(
-                        "Broker %s didn't exposed valid report usage, expected 'cpu', found: %s".formatted(podName,
-                                jsonOut));
-            }
-            final LoadReportResourceUsage loadReportResourceUsage =
-                    SerializationUtil.convertValue(json.get("cpu"), LoadReportResourceUsage.class);
-            final float percentUsage = loadReportResourceUsage.percentUsage();
+        final Map<String, Object> json = SerializationUtil.readJson(jsonOut, Map.class);
+        if (!json.containsKey("cpu")) {
+            throw new IllegalStateException(
+                    "Broker %s didn't exposed valid report usage, expected 'cpu', found: %s".formatted(podName,
+                            jsonOut));
+        }
+        final LoadReportResourceUsage loadReportResourceUsage =
+                SerializationUtil.convertValue(json.get("cpu"), LoadReportResourceUsage.class);
+        final float percentUsage = loadReportResourceUsage.percentUsage();
 
-            final float rounded = new BigDecimal(percentUsage).setScale(2, RoundingMode.HALF_UP)
-                    .floatValue();
+        final float rounded = new BigDecimal(percentUsage).setScale(2, RoundingMode.HALF_UP)
+                .floatValue();
 
 
-            log.infof("Broker %s cpu usage: %f %%", podName, rounded * 100, null);
-            result.add(new ResourceUsage(podName, rounded));
-        }
-        return result;
+        log.infof("Broker %s cpu usage: %f %%", podName, rounded * 100, null);
+        return new ResourceUsage(podName, rounded);
     }
 
     private String getWebServicePort() {
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.autoscaler.broker;
 
+import com.datastax.oss.kaap.OperatorMetrics;
 import io.fabric8.kubernetes.api.model.Quantity;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetrics;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetricsList;
@@ -42,6 +43,7 @@ public class PodMetricResourceUsageSource implements BrokerResourceUsageSource {
 
     @Override
     public List<ResourceUsage> getBrokersResourceUsages() {
+        final long start = System.nanoTime();
         final PodMetricsList metrics =
                 client.top()
                         .pods()
@@ -50,6 +52,8 @@ public class PodMetricResourceUsageSource implements BrokerResourceUsageSource {
                         .metrics();
 
         log.infof("Got %d broker pod metrics", metrics.getItems().size());
+        // the metrics of all the pods are collected with a single request
+        OperatorMetrics.recordAutoscalerCollection("broker", "k8s_metrics", start);
 
 
         List<ResourceUsage> result = new ArrayList<>();
@@ -15,7 +15,11 @@
  */
 package com.datastax.oss.kaap.controllers;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.OperatorEvents;
+import com.datastax.oss.kaap.OperatorMetrics;
 import com.datastax.oss.kaap.OperatorRuntimeConfiguration;
+import com.datastax.oss.kaap.ShardManager;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.crds.BaseComponentStatus;
 import com.datastax.oss.kaap.crds.CRDConstants;
@@ -63,10 +67,21 @@ import org.hibernate.validator.cfg.context.ConstraintDefinitionContext;
 public abstract class AbstractController<T extends CustomResource<? extends FullSpecWithDefaults, BaseComponentStatus>>
         implements Reconciler<T> {
 
+    static final long NAMESPACE_BUSY_RESCHEDULE_MILLIS = 1000;
+
     protected final KubernetesClient client;
     private final Validator validator;
     @Inject
     OperatorRuntimeConfiguration operatorRuntimeConfiguration;
+    @Inject
+    protected ResourcesCache resourcesCache;
+    @Inject
+    ShardManager shardManager;
+    @Inject
+    NamespaceWorkLimiter namespaceWorkLimiter;
+    @Inject
+    protected OperatorCheckpoint checkpoint;
+    private AdaptiveRescheduler rescheduler;
 
     public AbstractController() {
         this(null);
@@ -111,41 +126,98 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
 
     @Override
     public UpdateControl<T> reconcile(T resource, Context<T> context) throws Exception {
+        final String namespace = resource.getMetadata().getNamespace();
+        if (namespaceWorkLimiter != null && !namespaceWorkLimiter.tryAcquire(namespace)) {
+            log.debugf("%s %s: too many reconciliations running in namespace %s, rescheduling",
+                    resource.getFullResourceName(), resource.getMetadata().getName(), namespace);
+            return UpdateControl.<T>noUpdate().rescheduleAfter(NAMESPACE_BUSY_RESCHEDULE_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
+        final long start = System.nanoTime();
+        OperatorMetrics.startCountingApiCalls();
+        ReconciliationReadCache.start();
+        ReconciliationProgress.start();
+        final OperatorEvents.ReconciliationPhaseEvent event =
+                OperatorEvents.beginReconciliationPhase(resource, OperatorMetrics.PHASE_TOTAL);
+        try {
+            return reconcileResource(resource, context);
+        } finally {
+            OperatorEvents.endReconciliationPhase(event);
+            ReconciliationReadCache.stop();
+            ReconciliationProgress.stop();
+            OperatorMetrics.stopCountingApiCalls(resource.getKind());
+            OperatorMetrics.recordReconciliationPhase(resource.getKind(), OperatorMetrics.PHASE_TOTAL, start);
+            if (namespaceWorkLimiter != null) {
+                namespaceWorkLimiter.release(namespace);
+            }
+        }
+    }
+
+    private UpdateControl<T> reconcileResource(T resource, Context<T> context) throws Exception {
         log.debugf("%s controller reconciliation started (resource gen %d)",
                 resource.getFullResourceName(), resource.getMetadata().getGeneration());
         long start = System.nanoTime();
 
+        final GlobalSpec globalSpec = resource.getSpec().getGlobalSpec();
+        final String namespace = resource.getMetadata().getNamespace();
+        if (shardManager != null && !shardManager.startReconciliation(namespace, globalSpec.getName())) {
+            log.debugf("%s %s belongs to a shard owned by another replica, skipping",
+                    resource.getFullResourceName(), resource.getMetadata().getName());
+            onResourceNotOwned(resource);
+            // check again later, the shard might be assigned to this replica after a rebalance
+            return UpdateControl.<T>noUpdate().rescheduleAfter(
+                    operatorRuntimeConfiguration.reconciliationRescheduleSeconds(), TimeUnit.SECONDS);
+        }
+        try {
+            return reconcileOwnedResource(resource, context, start);
+        } finally {
+            if (shardManager != null) {
+                // the shard is handed over to another replica only once its reconciliations are done
+                shardManager.endReconciliation(namespace, globalSpec.getName());
+            }
+        }
+    }
+
+    private UpdateControl<T> reconcileOwnedResource(T resource, Context<T> context, long start) throws Exception {
         final GlobalSpec globalSpec = resource.getSpec().getGlobalSpec();
         globalSpec.applyDefaults(null);
         resource.getSpec().applyDefaults(globalSpec);
 
         String lastApplied = resource.getStatus().getLastApplied();
 
+        final long validateStart = System.nanoTime();
+        final OperatorEvents.ReconciliationPhaseEvent validateEvent =
+                OperatorEvents.beginReconciliationPhase(resource, OperatorMetrics.PHASE_VALIDATE);
         final String validationErrorMessage = validate(resource);
+        OperatorMetrics.recordReconciliationPhase(resource.getKind(), OperatorMetrics.PHASE_VALIDATE,
+                validateStart);
+        OperatorEvents.endReconciliationPhase(validateEvent);
         if (validationErrorMessage != null) {
             final List<Condition> conditions =
                     mergeConditions(resource.getStatus().getConditions(), List.of(createNotReadyCondition(
                             resource, CRDConstants.CONDITIONS_TYPE_READY_REASON_INVALID_SPEC, validationErrorMessage
                     )), Instant.now());
-            resource.setStatus(new BaseComponentStatus(conditions, lastApplied));
-            return UpdateControl.updateStatus(resource);
+            return updateStatusIfChanged(resource, new BaseComponentStatus(conditions, lastApplied));
         }
 
 
         boolean reschedule;
         List<Condition> conditions;
 
+        final long patchStart = System.nanoTime();
+        final OperatorEvents.ReconciliationPhaseEvent patchEvent =
+                OperatorEvents.beginReconciliationPhase(resource, OperatorMetrics.PHASE_PATCH);
         try {
             ReconciliationResult reconciliationResult = patchResources(resource, context);
             conditions = mergeConditions(resource.getStatus().getConditions(), reconciliationResult.getConditions(),
                     Instant.now());
             reschedule = reconciliationResult.isReschedule();
             if (!reconciliationResult.isSkipLastAppliedUpdate()) {
-                if (reconciliationResult.getOverrideLastApplied() != null) {
-                    lastApplied = reconciliationResult.getOverrideLastApplied();
-                } else {
-                    lastApplied = SerializationUtil.writeAsJson(resource.getSpec());
-                }
+                final String newLastApplied = reconciliationResult.getOverrideLastApplied() != null
+                        ? reconciliationResult.getOverrideLastApplied()
+                        : SerializationUtil.writeAsJson(resource.getSpec());
+                lastApplied = LastAppliedCodec.encode(newLastApplied,
+                        operatorRuntimeConfiguration.lastAppliedCompressionEnabled());
             }
         } catch (Throwable throwable) {
             log.errorf(throwable, "Error during reconciliation for resource %s with name %s: %s",
@@ -157,6 +229,11 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
             )), Instant.now());
             reschedule = true;
         }
+        OperatorMetrics.recordReconciliationPhase(resource.getKind(), OperatorMetrics.PHASE_PATCH, patchStart);
+        OperatorEvents.endReconciliationPhase(patchEvent);
+        final long statusStart = System.nanoTime();
+        final OperatorEvents.ReconciliationPhaseEvent statusEvent =
+                OperatorEvents.beginReconciliationPhase(resource, OperatorMetrics.PHASE_STATUS);
         long time = (System.nanoTime() - start) / 1_000_000;
 
         final String conditionsStr = conditions.stream().map(c -> {
@@ -173,14 +250,41 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
                 resource.getFullResourceName(),
                 time, reschedule + "", conditionsStr);
 
-        resource.setStatus(new BaseComponentStatus(conditions, lastApplied));
-        final UpdateControl<T> update = UpdateControl.updateStatus(resource);
+        final UpdateControl<T> update = updateStatusIfChanged(resource, new BaseComponentStatus(conditions, lastApplied));
+        final String resourceKey = resource.getMetadata().getNamespace() + "/" + resource.getMetadata().getName();
         if (reschedule) {
-            update.rescheduleAfter(operatorRuntimeConfiguration.reconciliationRescheduleSeconds(), TimeUnit.SECONDS);
+            // the conditions stay the same during a rollout, the workloads status tells if it's progressing
+            final String outcome = resource.getMetadata().getGeneration() + "/" + conditionsStr + "/"
+                    + ReconciliationProgress.current();
+            update.rescheduleAfter(getRescheduler().nextDelayMillis(resourceKey, outcome), TimeUnit.MILLISECONDS);
+        } else {
+            getRescheduler().reset(resourceKey);
         }
+        OperatorMetrics.recordReconciliationPhase(resource.getKind(), OperatorMetrics.PHASE_STATUS, statusStart);
+        OperatorEvents.endReconciliationPhase(statusEvent);
         return update;
     }
 
+    private UpdateControl<T> updateStatusIfChanged(T resource, BaseComponentStatus newStatus) {
+        final boolean changed = !newStatus.equals(resource.getStatus());
+        OperatorMetrics.recordStatusUpdate(resource.getKind(), changed);
+        if (!changed) {
+            log.debugf("%s status unchanged, skipping status update", resource.getFullResourceName());
+            return UpdateControl.noUpdate();
+        }
+        resource.setStatus(newStatus);
+        return UpdateControl.updateStatus(resource);
+    }
+
+    private synchronized AdaptiveRescheduler getRescheduler() {
+        if (rescheduler == null) {
+            rescheduler = new AdaptiveRescheduler(
+                    TimeUnit.SECONDS.toMillis(operatorRuntimeConfiguration.reconciliationRescheduleSeconds()),
+                    TimeUnit.SECONDS.toMillis(operatorRuntimeConfiguration.reconciliationRescheduleMaxSeconds()));
+        }
+        return rescheduler;
+    }
+
     @Data
     @AllArgsConstructor
     protected static class ReconciliationResult {
@@ -205,6 +309,18 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
 
     protected abstract ReconciliationResult patchResources(T resource, Context<T> context) throws Exception;
 
+    /**
+     * Called when the resource is reconciled by another replica, to stop any background task for the resource.
+     */
+    protected void onResourceNotOwned(T resource) {
+    }
+
+    /**
+     * Called when the namespace is not watched anymore, to stop any background task for the namespace.
+     */
+    public void onNamespaceUnwatched(String namespace) {
+    }
+
     protected String validate(T resource) {
         final Set<ConstraintViolation<Object>> violations = validator.validate(resource.getSpec());
         if (violations.isEmpty()) {
@@ -234,15 +350,19 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
     }
 
     protected boolean areSpecChanged(T cr) {
-        final String lastApplied = cr.getStatus().getLastApplied();
+        final String lastApplied = getLastApplied(cr);
         if (lastApplied == null) {
             return true;
         }
         return !SpecDiffer.generateDiff(cr.getSpec(), lastApplied).areEquals();
     }
 
+    protected String getLastApplied(T cr) {
+        return LastAppliedCodec.decode(cr.getStatus().getLastApplied());
+    }
+
     protected  <SPEC> SPEC getLastAppliedResource(T cr, Class<SPEC> toClass) {
-        final String lastApplied = cr.getStatus().getLastApplied();
+        final String lastApplied = getLastApplied(cr);
         if (lastApplied == null) {
             return null;
         }
@@ -316,7 +436,7 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
             }
 
             if (updated.getStatus().equals(condition.getStatus())) {
-                result.add(updated);
+                result.add(copyConditionWithLastTransitionTime(condition.getLastTransitionTime(), updated));
             } else {
                 result.add(copyConditionWithLastTransitionTime(now, updated));
             }
@@ -336,6 +456,10 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
     }
 
     private Condition copyConditionWithLastTransitionTime(Instant now, Condition updated) {
+        return copyConditionWithLastTransitionTime(now.toString(), updated);
+    }
+
+    private Condition copyConditionWithLastTransitionTime(String lastTransitionTime, Condition updated) {
         return new ConditionBuilder()
                 .withType(updated.getType())
                 .withObservedGeneration(updated.getObservedGeneration())
@@ -343,7 +467,7 @@ public abstract class AbstractController<T extends CustomResource<? extends Full
                 .withMessage(updated.getMessage())
                 .withReason(updated.getReason())
                 .withAdditionalProperties(updated.getAdditionalProperties())
-                .withLastTransitionTime(now.toString())
+                .withLastTransitionTime(lastTransitionTime)
                 .build();
     }
 }
@@ -16,17 +16,20 @@
 package com.datastax.oss.kaap.controllers;
 
 import com.datastax.oss.kaap.common.SerializationUtil;
-import com.datastax.oss.kaap.common.json.JSONComparator;
 import com.datastax.oss.kaap.crds.BaseComponentStatus;
 import com.datastax.oss.kaap.crds.ConfigUtil;
 import com.datastax.oss.kaap.crds.FullSpecWithDefaults;
 import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.SetSpecView;
 import com.datastax.oss.kaap.crds.SpecDiffer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -63,13 +66,17 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
     }
 
 
+    /**
+     * Last applied state of the resource sets.
+     * The full spec is stored once, each set only stores the hash of its {@link SetSpecView}.
+     */
     public interface SetsLastApplied<FULLSPEC> {
 
         FULLSPEC getCommon();
 
         void setCommon(FULLSPEC fullspec);
 
-        Map<String, FULLSPEC> getSets();
+        Map<String, String> getSets();
     }
 
     protected abstract String getComponentNameForLogs();
@@ -103,7 +110,7 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
         List<SetInfo<SETSPEC, FACTORY>> desiredSets = getSets(ownerReference, namespace, spec);
 
         SETSLASTAPPLIED lastAppliedResource = readSetsLastApplied(resource);
-        final SETSLASTAPPLIED clonedLastAppliedResource = SerializationUtil.deepCloneObject(lastAppliedResource);
+        final FULLSPEC previousCommon = SerializationUtil.deepCloneObject(lastAppliedResource.getCommon());
 
         if (!SpecDiffer.generateDiff(lastAppliedResource.getCommon(), spec).areEquals()) {
 
@@ -120,11 +127,9 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
         boolean allSetsReady = true;
         for (SetInfo<SETSPEC, FACTORY> info : desiredSets) {
             final String setName = info.getName();
-            final FULLSPEC lastApplied = lastAppliedResource.getSets().get(setName);
-
-            final JSONComparator.Result compResult = compareLastAppliedSetSpec(resource, info, spec, lastApplied);
-            final boolean areEquals = compResult.areEquals();
-            if (areEquals) {
+            final String lastAppliedHash = lastAppliedResource.getSets().get(setName);
+            final String desiredHash = SetSpecView.hash(spec, setName);
+            if (desiredHash.equals(lastAppliedHash)) {
                 final ReconciliationResult result = checkReady(resource, info);
                 if (result.isReschedule()) {
                     allSetsReady = false;
@@ -139,7 +144,8 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
                     log.infof("%s-set '%s' is ready", componentNameForLogs, setName);
                 }
             } else {
-                SpecDiffer.logDetailedSpecDiff(compResult);
+                logSetSpecDiff(setName, lastAppliedHash, previousCommon, spec);
+                onSetSpecChanged(resource, info, spec, previousCommon);
                 patchResourceSet(info);
                 log.infof("%s-set '%s' patched", componentNameForLogs, setName);
 
@@ -148,7 +154,7 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
                 if (!isReady) {
                     allSetsReady = false;
                 }
-                lastAppliedResource.getSets().put(setName, spec);
+                lastAppliedResource.getSets().put(setName, desiredHash);
                 if (!isReady && isRollingUpdate) {
                     return newNotReadyResult(resource, lastAppliedResource);
                 }
@@ -156,7 +162,7 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
         }
         if (allSetsReady) {
             log.infof("All %s-sets ready", componentNameForLogs);
-            cleanupDeletedSets(clonedLastAppliedResource.getCommon(),
+            cleanupDeletedSets(previousCommon,
                     resource, desiredSets, lastAppliedResource);
             return newReadyResult(resource, lastAppliedResource);
         } else {
@@ -164,11 +170,56 @@ public abstract class AbstractResourceSetsController<T extends CustomResource<FU
         }
     }
 
-    protected abstract JSONComparator.Result compareLastAppliedSetSpec(T resource, SetInfo<SETSPEC, FACTORY> setInfo, FULLSPEC spec,
-                                                                       FULLSPEC lastApplied);
+    /**
+     * Called before patching a set whose spec changed.
+     *
+     * @param previousCommon full spec previously applied to the common resources, might be null
+     */
+    protected void onSetSpecChanged(T resource, SetInfo<SETSPEC, FACTORY> setInfo, FULLSPEC spec,
+                                    FULLSPEC previousCommon) {
+    }
+
+    private void logSetSpecDiff(String setName, String lastAppliedHash, FULLSPEC previousCommon, FULLSPEC spec) {
+        if (lastAppliedHash == null) {
+            log.infof("%s-set '%s' is new", componentNameForLogs, setName);
+            return;
+        }
+        // the previous common spec is the one applied to the set only if it has the same hash
+        if (previousCommon != null && lastAppliedHash.equals(SetSpecView.hash(previousCommon, setName))) {
+            SpecDiffer.logDetailedSpecDiff(SpecDiffer.generateSetDiff(previousCommon, spec, setName));
+        } else {
+            log.infof("%s-set '%s' spec changed", componentNameForLogs, setName);
+        }
+    }
 
     protected abstract SETSLASTAPPLIED readSetsLastApplied(T resource);
 
+    /**
+     * Read the last applied sets, migrating the format where each set stored the whole full spec.
+     */
+    protected SETSLASTAPPLIED readSetsLastApplied(T resource, Class<SETSLASTAPPLIED> lastAppliedClass) {
+        final String lastApplied = getLastApplied(resource);
+        if (lastApplied == null) {
+            return null;
+        }
+        final JsonNode tree = SerializationUtil.readJsonTree(lastApplied);
+        if (tree.get("sets") instanceof ObjectNode) {
+            final ObjectNode sets = (ObjectNode) tree.get("sets");
+            final List<String> legacySets = new ArrayList<>();
+            final Iterator<Map.Entry<String, JsonNode>> fields = sets.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isObject()) {
+                    legacySets.add(field.getKey());
+                }
+            }
+            for (String setName : legacySets) {
+                sets.put(setName, SetSpecView.hash(SetSpecView.of(sets.get(setName), setName)));
+            }
+        }
+        return SerializationUtil.convertValue(tree, lastAppliedClass);
+    }
+
     private ReconciliationResult newReadyResult(T resource,
                                                 SetsLastApplied<FULLSPEC> lastAppliedResource) {
         return new ReconciliationResult(
@@ -0,0 +1,97 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Computes the delay before the next reconciliation of a resource that is not ready yet.
+ * While the outcome of the reconciliation changes, the resource is rescheduled after the base delay. When the same
+ * outcome is observed again (same error or no progress) the delay is doubled, up to the max delay, with a random
+ * jitter to spread the retries of many stuck resources.
+ */
+public class AdaptiveRescheduler {
+
+    static final double JITTER = 0.2;
+
+    private record State(String outcome, int attempts, long lastUpdateNanos) {
+    }
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final DoubleSupplier random;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    private final AtomicLong lastEvictionNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveRescheduler(long baseDelayMillis, long maxDelayMillis) {
+        this(baseDelayMillis, maxDelayMillis, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    AdaptiveRescheduler(long baseDelayMillis, long maxDelayMillis, DoubleSupplier random) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.random = random;
+    }
+
+    /**
+     * Get the delay before the next reconciliation.
+     *
+     * @param resourceKey unique key of the resource
+     * @param outcome     fingerprint of the reconciliation outcome, equal outcomes mean that there's no progress
+     */
+    public long nextDelayMillis(String resourceKey, String outcome) {
+        final long now = System.nanoTime();
+        final State state = states.compute(resourceKey, (k, previous) -> {
+            if (previous != null && previous.outcome().equals(outcome)) {
+                return new State(outcome, previous.attempts() + 1, now);
+            }
+            return new State(outcome, 0, now);
+        });
+        evictStaleStates(now);
+        if (state.attempts() == 0 || maxDelayMillis <= baseDelayMillis) {
+            return baseDelayMillis;
+        }
+        final long delay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(state.attempts(), 30));
+        final double jitterFactor = 1 - JITTER + 2 * JITTER * random.getAsDouble();
+        return Math.max(baseDelayMillis, Math.round(delay * jitterFactor));
+    }
+
+    /**
+     * Forget the resource, to be called when the resource doesn't need to be rescheduled anymore.
+     */
+    public void reset(String resourceKey) {
+        states.remove(resourceKey);
+    }
+
+    int size() {
+        return states.size();
+    }
+
+    private void evictStaleStates(long now) {
+        // resources deleted while rescheduled are never reset
+        final long staleAfterNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis) * 5;
+        final long lastEviction = lastEvictionNanos.get();
+        if (now - lastEviction < staleAfterNanos || !lastEvictionNanos.compareAndSet(lastEviction, now)) {
+            return;
+        }
+        states.values().removeIf(s -> now - s.lastUpdateNanos() > staleAfterNanos);
+    }
+}
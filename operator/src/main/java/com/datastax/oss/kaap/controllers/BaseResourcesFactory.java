@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.controllers;
 
+import com.datastax.oss.kaap.OperatorEvents;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
 import com.datastax.oss.kaap.controllers.zookeeper.ZooKeeperResourcesFactory;
@@ -34,6 +35,7 @@ import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.DeletionPropagation;
 import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
 import io.fabric8.kubernetes.api.model.NodeAffinity;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
@@ -70,7 +72,10 @@ import io.fabric8.kubernetes.api.model.rbac.SubjectBuilder;
 import io.fabric8.kubernetes.api.model.storage.StorageClass;
 import io.fabric8.kubernetes.api.model.storage.StorageClassBuilder;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.VersionInfo;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -79,6 +84,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import lombok.Setter;
 import lombok.extern.jbosslog.JBossLog;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.ObjectUtils;
@@ -89,6 +95,20 @@ public abstract class BaseResourcesFactory<T> {
 
     public static final String CONFIG_PULSAR_PREFIX = "PULSAR_PREFIX_";
     public static final String DEPLOYMENT_REVISION_ANNOTATION = "deployment.kubernetes.io/revision";
+    public static final String FIELD_MANAGER = "kaap";
+    public static final String DESIRED_HASH_ANNOTATION = "%s/desired-hash".formatted(CRDConstants.GROUP);
+    static final String PATCH_RESULT_APPLIED = "applied";
+    static final String PATCH_RESULT_RECREATED = "recreated";
+    static final String PATCH_RESULT_UNCHANGED = "unchanged";
+    static final String PATCH_RESULT_SKIPPED = "skipped";
+    static final String PATCH_RESULT_FAILED = "failed";
+    private static final int HTTP_UNPROCESSABLE_ENTITY = 422;
+    private static final PatchContext SERVER_SIDE_APPLY_CONTEXT = new PatchContext.Builder()
+            .withPatchType(PatchType.SERVER_SIDE_APPLY)
+            .withFieldManager(FIELD_MANAGER)
+            .withForce(true)
+            .build();
+    private static final PatchContext JSON_PATCH_CONTEXT = PatchContext.of(PatchType.JSON);
     protected final KubernetesClient client;
     protected final String namespace;
     protected final T spec;
@@ -96,6 +116,8 @@ public abstract class BaseResourcesFactory<T> {
     protected final String resourceName;
     protected final OwnerReference ownerReference;
     private VersionInfo version;
+    @Setter
+    protected ResourcesCache resourcesCache;
 
     public BaseResourcesFactory(KubernetesClient client, String namespace, String resourceName, T spec,
                                 GlobalSpec global, OwnerReference ownerReference) {
@@ -113,50 +135,124 @@ public abstract class BaseResourcesFactory<T> {
 
     protected abstract boolean isComponentEnabled();
 
-    private static boolean isImmutableResource(Class<? extends HasMetadata> resourceClass) {
-        if (resourceClass.isAssignableFrom(Job.class)) {
-            return true;
-        }
-        return false;
+    private static boolean isRecreatableResource(Class<? extends HasMetadata> resourceClass) {
+        return Job.class.isAssignableFrom(resourceClass);
     }
 
-    private static boolean isNonNamespacedResource(Class<? extends HasMetadata> resourceClass) {
-        if (resourceClass.isAssignableFrom(StorageClass.class)) {
-            return true;
+    private static boolean isImmutableFieldChange(KubernetesClientException ex) {
+        return ex.getCode() == HTTP_UNPROCESSABLE_ENTITY
+                && ex.getMessage() != null
+                && ex.getMessage().contains("field is immutable");
+    }
+
+    private <R extends HasMetadata> R getResource(Class<R> resourceClass, String name) {
+        if (resourcesCache != null) {
+            return resourcesCache.get(resourceClass, namespace, name);
         }
-        return false;
+        return ReconciliationReadCache.get(resourceClass, namespace, name, () -> client.resources(resourceClass)
+                .inNamespace(namespace)
+                .withName(name)
+                .get());
     }
 
     protected <R extends HasMetadata> void patchResource(R resource) {
-        if (ownerReference != null && !isNonNamespacedResource(resource.getClass())) {
+        final OperatorEvents.PatchEvent event = OperatorEvents.beginPatch(resource, namespace);
+        String result = PATCH_RESULT_FAILED;
+        try {
+            result = doPatchResource(resource);
+        } finally {
+            OperatorEvents.endPatch(event, result);
+        }
+    }
+
+    private <R extends HasMetadata> String doPatchResource(R resource) {
+        if (ownerReference != null && !ResourcesCache.isNonNamespacedResource(resource.getClass())) {
             resource.getMetadata().setOwnerReferences(List.of(ownerReference));
         }
-        final R current = (R) client.resources(resource.getClass())
-                .inNamespace(namespace)
-                .withName(resource.getMetadata().getName())
-                .get();
-        final boolean isImmutableResource = isImmutableResource(resource.getClass());
-        if (current == null || isImmutableResource) {
-            if (current != null && isImmutableResource) {
-                client
-                        .resource(current)
-                        .inNamespace(namespace)
-                        .withPropagationPolicy(DeletionPropagation.BACKGROUND)
-                        .delete();
-            }
-            if (isComponentEnabled()) {
-                client.resource(resource)
-                        .inNamespace(namespace)
-                        .create();
-            } else {
+        if (resourcesCache != null && resourcesCache.isCached(resource.getClass())) {
+            // the hash is only useful when the current resource can be read without hitting the API server
+            final String desiredHash = addDesiredHashAnnotation(resource);
+            final HasMetadata current = getResource(resource.getClass(), resource.getMetadata().getName());
+            if (current == null && !isComponentEnabled()) {
                 log.infof("Skipping creating resource %s since component is disabled",
                         resource.getFullResourceName());
+                return PATCH_RESULT_SKIPPED;
             }
-        } else {
-            client
-                    .resource(current)
+            // the resource is applied again if modified since the last apply, to revert changes made out of band
+            if (current != null && desiredHash.equals(current.getMetadata().getAnnotations() == null ? null
+                    : current.getMetadata().getAnnotations().get(DESIRED_HASH_ANNOTATION))
+                    && !resourcesCache.isModifiedSinceApplied(current)) {
+                log.debugf("Skipping patching resource %s since it's unchanged", resource.getFullResourceName());
+                return PATCH_RESULT_UNCHANGED;
+            }
+        } else if (!isComponentEnabled()
+                && getResource(resource.getClass(), resource.getMetadata().getName()) == null) {
+            log.infof("Skipping creating resource %s since component is disabled",
+                    resource.getFullResourceName());
+            return PATCH_RESULT_SKIPPED;
+        }
+        try {
+            applyResource(resource);
+            return PATCH_RESULT_APPLIED;
+        } catch (KubernetesClientException ex) {
+            if (!isRecreatableResource(resource.getClass()) || !isImmutableFieldChange(ex)) {
+                throw ex;
+            }
+            log.infof("Recreating resource %s since immutable fields changed", resource.getFullResourceName());
+            client.resource(resource)
+                    .inNamespace(namespace)
+                    .withPropagationPolicy(DeletionPropagation.BACKGROUND)
+                    .delete();
+            applyResource(resource);
+            return PATCH_RESULT_RECREATED;
+        }
+    }
+
+    private String addDesiredHashAnnotation(HasMetadata resource) {
+        final Map<String, String> annotations = resource.getMetadata().getAnnotations() == null
+                ? new HashMap<>() : new HashMap<>(resource.getMetadata().getAnnotations());
+        annotations.remove(DESIRED_HASH_ANNOTATION);
+        resource.getMetadata().setAnnotations(annotations);
+        final String hash = DigestUtils.sha256Hex(SerializationUtil.writeAsSortedJsonBytes(resource));
+        annotations.put(DESIRED_HASH_ANNOTATION, hash);
+        return hash;
+    }
+
+    private <R extends HasMetadata> void applyResource(R resource) {
+        R applied = client.resource(resource)
+                .inNamespace(namespace)
+                .patch(SERVER_SIDE_APPLY_CONTEXT);
+        if (migrateManagedFields(applied)) {
+            // applied again, so the fields dropped from the desired state are removed
+            applied = client.resource(resource)
                     .inNamespace(namespace)
-                    .patch(resource);
+                    .patch(SERVER_SIDE_APPLY_CONTEXT);
+        }
+        if (resourcesCache != null) {
+            resourcesCache.recordApplied(applied);
+        }
+    }
+
+    /**
+     * Move the fields set by the client-side updates of the previous versions of the operator to the apply field
+     * manager. It happens once, at the first apply of a resource created by a previous version.
+     */
+    private boolean migrateManagedFields(HasMetadata applied) {
+        final List<ManagedFieldsEntry> managedFields = ManagedFieldsMigration.migrate(applied, FIELD_MANAGER);
+        if (managedFields == null) {
+            return false;
+        }
+        log.infof("Moving the fields of resource %s owned by client-side updates to field manager %s",
+                applied.getFullResourceName(), FIELD_MANAGER);
+        try {
+            client.resource(applied)
+                    .inNamespace(namespace)
+                    .patch(JSON_PATCH_CONTEXT, ManagedFieldsMigration.toJsonPatch(applied, managedFields));
+            return true;
+        } catch (KubernetesClientException ex) {
+            log.warnf(ex, "Unable to move the managed fields of resource %s, retrying at the next apply",
+                    applied.getFullResourceName());
+            return false;
         }
     }
 
@@ -713,28 +809,67 @@ public abstract class BaseResourcesFactory<T> {
                 .build();
     }
 
+    /**
+     * Get the statefulset, to read its status. When the resources cache is enabled, the returned statefulset is a
+     * pruned copy (see {@link PrunedItemStore}): it only has the metadata, without the annotations not set by the
+     * operator, the replicas and the status. Use {@link #getStatefulSetFromServer()} to read the full object.
+     */
     public StatefulSet getStatefulSet() {
-        return client.apps().statefulSets()
+        if (resourcesCache != null) {
+            return resourcesCache.get(StatefulSet.class, namespace, resourceName);
+        }
+        return ReconciliationReadCache.get(StatefulSet.class, namespace, resourceName, () -> client.apps()
+                .statefulSets()
+                .inNamespace(namespace)
+                .withName(resourceName)
+                .get());
+    }
+
+    /**
+     * Read the statefulset from the API server, bypassing the caches. To be used when acting on a stale
+     * statefulset (e.g. missing a write of this operator not yet seen by the informers) would be destructive, or
+     * when the full object is needed.
+     */
+    public StatefulSet getStatefulSetFromServer() {
+        return client.apps()
+                .statefulSets()
                 .inNamespace(namespace)
                 .withName(resourceName)
                 .get();
     }
 
+    /**
+     * Get the deployment, to read its status. When the resources cache is enabled, the returned deployment is a
+     * pruned copy (see {@link PrunedItemStore}): it only has the metadata, without the annotations not set by the
+     * operator, the replicas, the selector and the status.
+     */
     public Deployment getDeployment() {
-        return client.apps().deployments()
+        if (resourcesCache != null) {
+            return resourcesCache.get(Deployment.class, namespace, resourceName);
+        }
+        return ReconciliationReadCache.get(Deployment.class, namespace, resourceName, () -> client.apps()
+                .deployments()
                 .inNamespace(namespace)
                 .withName(resourceName)
-                .get();
+                .get());
     }
 
+    /**
+     * Get the job, to read its status. When the resources cache is enabled, the returned job is a pruned copy (see
+     * {@link PrunedItemStore}): it only has the metadata, without the annotations not set by the operator, and the
+     * status.
+     */
     public Job getJob(String name) {
-        return client
+        if (resourcesCache != null) {
+            return resourcesCache.get(Job.class, namespace, name);
+        }
+        return ReconciliationReadCache.get(Job.class, namespace, name, () -> client
                 .batch()
                 .v1()
                 .jobs()
                 .inNamespace(namespace)
                 .withName(name)
-                .get();
+                .get());
     }
 
     public Job getJob() {
@@ -753,6 +888,8 @@ public abstract class BaseResourcesFactory<T> {
         if (job == null) {
             return false;
         }
+        ReconciliationProgress.record("Job", job.getMetadata().getName(), job.getStatus().getActive(),
+                job.getStatus().getSucceeded(), job.getStatus().getFailed());
         final Integer succeeded = job.getStatus().getSucceeded();
         return succeeded != null && succeeded > 0;
     }
@@ -762,6 +899,9 @@ public abstract class BaseResourcesFactory<T> {
             return false;
         }
         final StatefulSetStatus status = sts.getStatus();
+        ReconciliationProgress.record("StatefulSet", sts.getMetadata().getName(), status.getObservedGeneration(),
+                status.getCurrentRevision(), status.getUpdateRevision(), status.getReplicas(),
+                status.getReadyReplicas(), status.getUpdatedReplicas());
         if (!Objects.equals(status.getCurrentRevision(), status.getUpdateRevision())) {
             log.debugf("statefulset %s is not ready, revision mismatch %s - %s", sts.getMetadata().getName(),
                     status.getCurrentRevision(), status.getUpdateRevision());
@@ -782,23 +922,26 @@ public abstract class BaseResourcesFactory<T> {
         return replicas == ready && updated == ready;
     }
 
-    public static boolean isDeploymentReady(Deployment deployment, KubernetesClient client) {
+    public static boolean isDeploymentReady(Deployment deployment, KubernetesClient client,
+                                            ResourcesCache resourcesCache) {
         if (deployment == null) {
             return false;
         }
         final String revision = deployment.getMetadata().getAnnotations().get(DEPLOYMENT_REVISION_ANNOTATION);
+        if (deployment.getStatus() != null) {
+            ReconciliationProgress.record("Deployment", deployment.getMetadata().getName(),
+                    deployment.getStatus().getObservedGeneration(), revision, deployment.getStatus().getReplicas(),
+                    deployment.getStatus().getReadyReplicas(), deployment.getStatus().getUpdatedReplicas(),
+                    deployment.getStatus().getAvailableReplicas());
+        }
         if (revision == null) {
             return false;
         }
 
-        final List<ReplicaSet> replicaSets = client.apps().replicaSets()
-                .inNamespace(deployment.getMetadata().getNamespace())
-                .list()
-                .getItems()
+        final List<ReplicaSet> replicaSets = getOwnedReplicaSets(deployment, client, resourcesCache)
                 .stream()
-                .filter(r -> r.getMetadata().getOwnerReferences().get(0).getUid()
-                        .equals(deployment.getMetadata().getUid()))
-                .filter(r -> revision.equals(r.getMetadata().getAnnotations().get(DEPLOYMENT_REVISION_ANNOTATION)))
+                .filter(r -> r.getMetadata().getAnnotations() != null
+                        && revision.equals(r.getMetadata().getAnnotations().get(DEPLOYMENT_REVISION_ANNOTATION)))
                 .collect(Collectors.toList());
         if (replicaSets.size() != 1) {
             log.warnf("Found %d replica sets for deployment %s with revision %s", replicaSets.size(),
@@ -817,6 +960,42 @@ public abstract class BaseResourcesFactory<T> {
         return replicas == ready && available == ready;
     }
 
+    /**
+     * Get the replica sets owned by the deployment from the owner index of the resources cache. If the replica sets
+     * are not cached or none is in the cache (e.g. the pod labels were overridden), only the replica sets matching the
+     * deployment selector are listed.
+     */
+    static List<ReplicaSet> getOwnedReplicaSets(Deployment deployment, KubernetesClient client,
+                                                ResourcesCache resourcesCache) {
+        final String namespace = deployment.getMetadata().getNamespace();
+        final String uid = deployment.getMetadata().getUid();
+        if (resourcesCache != null) {
+            final List<ReplicaSet> cached = resourcesCache.getByOwner(ReplicaSet.class, namespace, uid);
+            if (cached != null && !cached.isEmpty()) {
+                return cached;
+            }
+        }
+        final Map<String, String> matchLabels = deployment.getSpec() == null
+                || deployment.getSpec().getSelector() == null
+                ? null : deployment.getSpec().getSelector().getMatchLabels();
+        final List<ReplicaSet> replicaSets;
+        if (matchLabels == null || matchLabels.isEmpty()) {
+            replicaSets = client.apps().replicaSets()
+                    .inNamespace(namespace)
+                    .list()
+                    .getItems();
+        } else {
+            replicaSets = client.apps().replicaSets()
+                    .inNamespace(namespace)
+                    .withLabels(matchLabels)
+                    .list()
+                    .getItems();
+        }
+        return replicaSets.stream()
+                .filter(r -> ResourcesCache.getOwnerUids(r).contains(uid))
+                .collect(Collectors.toList());
+    }
+
     public static boolean isPodReady(Pod pod) {
         if (pod == null) {
             return false;
@@ -0,0 +1,125 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.OperatorMetrics;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import lombok.SneakyThrows;
+
+/**
+ * Dependency graph of the cluster components.
+ * A component is checked (and patched if needed) only once all its dependencies are ready. The components whose
+ * dependencies are ready form a frontier and they're checked concurrently.
+ */
+public class ComponentsDependencyGraph {
+
+    private record Node(String name, List<String> dependencies, BooleanSupplier checkReadyOrPatch) {
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    /**
+     * Add a component to the graph. Dependencies must be added before the components depending on them, so the
+     * graph can't have cycles.
+     */
+    public ComponentsDependencyGraph add(String name, BooleanSupplier checkReadyOrPatch, String... dependencies) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalArgumentException("Component " + name + " already added");
+        }
+        for (String dependency : dependencies) {
+            if (!nodes.containsKey(dependency)) {
+                throw new IllegalArgumentException("Component " + name + " depends on unknown component "
+                        + dependency);
+            }
+        }
+        nodes.put(name, new Node(name, List.of(dependencies), checkReadyOrPatch));
+        return this;
+    }
+
+    public Set<String> getComponents() {
+        return nodes.keySet();
+    }
+
+    /**
+     * Check all the reachable components, frontier by frontier.
+     *
+     * @param executor executor for the components of the same frontier, if null they're checked sequentially
+     * @return readiness of the checked components, in the order they've been checked. Components with a
+     * dependency not ready are not checked and not included.
+     */
+    public Map<String, Boolean> checkReadyOrPatch(Executor executor) {
+        final Map<String, Boolean> ready = new LinkedHashMap<>();
+        final Set<String> pending = new LinkedHashSet<>(nodes.keySet());
+        while (true) {
+            final List<Node> frontier = new ArrayList<>();
+            for (String name : pending) {
+                final Node node = nodes.get(name);
+                if (node.dependencies().stream().allMatch(d -> Boolean.TRUE.equals(ready.get(d)))) {
+                    frontier.add(node);
+                }
+            }
+            if (frontier.isEmpty()) {
+                return ready;
+            }
+            frontier.forEach(n -> pending.remove(n.name()));
+            final List<Boolean> results = checkFrontier(frontier, executor);
+            for (int i = 0; i < frontier.size(); i++) {
+                ready.put(frontier.get(i).name(), results.get(i));
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static List<Boolean> checkFrontier(List<Node> frontier, Executor executor) {
+        final List<Boolean> results = new ArrayList<>(frontier.size());
+        if (executor == null || frontier.size() == 1) {
+            for (Node node : frontier) {
+                results.add(node.checkReadyOrPatch().getAsBoolean());
+            }
+            return results;
+        }
+        final List<CompletableFuture<Boolean>> futures = new ArrayList<>(frontier.size());
+        for (Node node : frontier) {
+            futures.add(CompletableFuture.supplyAsync(
+                    OperatorMetrics.withApiCallsCounter(
+                            ReconciliationReadCache.propagate(node.checkReadyOrPatch()::getAsBoolean)), executor));
+        }
+        // wait for all the components before failing so nothing is left running in background
+        Throwable error = null;
+        for (CompletableFuture<Boolean> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException executionException) {
+                if (error == null) {
+                    error = executionException.getCause();
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return results;
+    }
+}
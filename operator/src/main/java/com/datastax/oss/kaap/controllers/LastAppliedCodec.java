@@ -0,0 +1,60 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.SneakyThrows;
+
+/**
+ * Encoding of the last applied spec stored in the status.
+ * Compressed values are gzipped and base64 encoded with a prefix, plain json values are returned as they are so
+ * the compression can be enabled or disabled at any time.
+ */
+final class LastAppliedCodec {
+
+    static final String GZIP_PREFIX = "gzip:";
+
+    private LastAppliedCodec() {
+    }
+
+    @SneakyThrows
+    static String encode(String json, boolean compress) {
+        if (json == null || !compress) {
+            return json;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (final GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return GZIP_PREFIX + Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    @SneakyThrows
+    static String decode(String value) {
+        if (value == null || !value.startsWith(GZIP_PREFIX)) {
+            return value;
+        }
+        final byte[] compressed = Base64.getDecoder().decode(value.substring(GZIP_PREFIX.length()));
+        try (final GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.fabric8.kubernetes.api.model.FieldsV1;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Migration of the fields owned by the client-side updates of the previous versions of the operator to the server
+ * side apply field manager, the same way as kubectl does when switching to server side apply.
+ * Without it, the fields set by the previous versions stay owned by their field manager and are never removed when
+ * they're dropped from the desired state.
+ */
+final class ManagedFieldsMigration {
+
+    static final String OPERATION_APPLY = "Apply";
+    static final String OPERATION_UPDATE = "Update";
+    // field manager set by the API server for the client-side requests of the previous versions, from the user agent
+    static final Set<String> CLIENT_SIDE_FIELD_MANAGERS = Set.of("fabric8-kubernetes-client");
+
+    private ManagedFieldsMigration() {
+    }
+
+    /**
+     * Get the managed fields of the resource with the fields of the client-side field managers merged in the
+     * fields of the apply field manager, or null if the resource has no fields owned by a client-side field manager.
+     */
+    static List<ManagedFieldsEntry> migrate(HasMetadata resource, String fieldManager) {
+        final List<ManagedFieldsEntry> managedFields = resource == null || resource.getMetadata() == null
+                ? null : resource.getMetadata().getManagedFields();
+        if (managedFields == null || managedFields.stream().noneMatch(ManagedFieldsMigration::isClientSide)) {
+            return null;
+        }
+        final List<ManagedFieldsEntry> migrated = new ArrayList<>();
+        Map<String, Object> fields = new HashMap<>();
+        ManagedFieldsEntry applyEntry = null;
+        for (ManagedFieldsEntry entry : managedFields) {
+            if (isClientSide(entry)) {
+                fields = merge(fields, getFields(entry));
+            } else if (applyEntry == null && fieldManager.equals(entry.getManager())
+                    && OPERATION_APPLY.equals(entry.getOperation()) && isMainResource(entry)) {
+                applyEntry = entry;
+                fields = merge(fields, getFields(entry));
+            } else {
+                migrated.add(entry);
+            }
+        }
+        final FieldsV1 fieldsV1 = new FieldsV1();
+        fieldsV1.setAdditionalProperties(fields);
+        migrated.add(new ManagedFieldsEntryBuilder(applyEntry == null ? new ManagedFieldsEntry() : applyEntry)
+                .withApiVersion(resource.getApiVersion())
+                .withFieldsType("FieldsV1")
+                .withFieldsV1(fieldsV1)
+                .withManager(fieldManager)
+                .withOperation(OPERATION_APPLY)
+                .build());
+        return migrated;
+    }
+
+    /**
+     * JSON patch replacing the managed fields, rejected if the resource changed in the meantime.
+     */
+    static String toJsonPatch(HasMetadata resource, List<ManagedFieldsEntry> managedFields) {
+        return SerializationUtil.writeAsJson(List.of(
+                Map.of("op", "test", "path", "/metadata/resourceVersion",
+                        "value", resource.getMetadata().getResourceVersion()),
+                Map.of("op", "replace", "path", "/metadata/managedFields", "value", managedFields)
+        ));
+    }
+
+    private static boolean isClientSide(ManagedFieldsEntry entry) {
+        return CLIENT_SIDE_FIELD_MANAGERS.contains(entry.getManager())
+                && OPERATION_UPDATE.equals(entry.getOperation())
+                && isMainResource(entry);
+    }
+
+    private static boolean isMainResource(ManagedFieldsEntry entry) {
+        return entry.getSubresource() == null || entry.getSubresource().isEmpty();
+    }
+
+    private static Map<String, Object> getFields(ManagedFieldsEntry entry) {
+        return entry.getFieldsV1() == null ? Map.of() : entry.getFieldsV1().getAdditionalProperties();
+    }
+
+    /**
+     * Union of two field sets, each field being a key of the map with the set of its child fields as value.
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> merge(Map<String, Object> fields, Map<String, Object> other) {
+        final Map<String, Object> merged = new HashMap<>(fields);
+        for (Map.Entry<String, Object> field : other.entrySet()) {
+            final Object current = merged.get(field.getKey());
+            if (current instanceof Map && field.getValue() instanceof Map) {
+                merged.put(field.getKey(), merge((Map<String, Object>) current,
+                        (Map<String, Object>) field.getValue()));
+            } else if (current == null) {
+                merged.put(field.getKey(), field.getValue());
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.OperatorRuntimeConfiguration;
+import io.quarkus.arc.Unremovable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Limits the number of reconciliations running at the same time for the same namespace, across all the controllers.
+ * The reconciliation threads are shared by all the watched namespaces: without a limit, a namespace with many
+ * resources (or slow reconciliations) could take all the threads and starve the other namespaces.
+ * The limiter never blocks: when the namespace has no permits left, the reconciliation is skipped and rescheduled.
+ */
+@ApplicationScoped
+@Unremovable
+public class NamespaceWorkLimiter {
+
+    private final int maxConcurrentPerNamespace;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    @Inject
+    public NamespaceWorkLimiter(OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(operatorRuntimeConfiguration.maxConcurrentReconciliationsPerNamespace());
+    }
+
+    public NamespaceWorkLimiter(int maxConcurrentPerNamespace) {
+        this.maxConcurrentPerNamespace = maxConcurrentPerNamespace;
+    }
+
+    public boolean isEnabled() {
+        return maxConcurrentPerNamespace > 0;
+    }
+
+    /**
+     * Try to get a permit for the namespace. Every successful call must be followed by {@link #release(String)}.
+     */
+    public boolean tryAcquire(String namespace) {
+        if (!isEnabled()) {
+            return true;
+        }
+        return permits.computeIfAbsent(namespace, ns -> new Semaphore(maxConcurrentPerNamespace)).tryAcquire();
+    }
+
+    public void release(String namespace) {
+        if (!isEnabled()) {
+            return;
+        }
+        final Semaphore semaphore = permits.get(namespace);
+        // a permit acquired before the namespace was unwatched and watched again must not be added to the new one
+        if (semaphore != null && semaphore.availablePermits() < maxConcurrentPerNamespace) {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Drop the permits of a namespace that is not watched anymore. The reconciliations still running in the
+     * namespace release their permits to nothing.
+     */
+    public void onNamespaceUnwatched(String namespace) {
+        permits.remove(namespace);
+    }
+
+    int available(String namespace) {
+        final Semaphore semaphore = permits.get(namespace);
+        return semaphore == null ? maxConcurrentPerNamespace : semaphore.availablePermits();
+    }
+}
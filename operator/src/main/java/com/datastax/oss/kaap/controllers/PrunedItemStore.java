@@ -0,0 +1,152 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.crds.CRDConstants;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSetBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetBuilder;
+import io.fabric8.kubernetes.api.model.batch.v1.Job;
+import io.fabric8.kubernetes.api.model.batch.v1.JobBuilder;
+import io.fabric8.kubernetes.api.model.policy.v1.PodDisruptionBudget;
+import io.fabric8.kubernetes.api.model.policy.v1.PodDisruptionBudgetBuilder;
+import io.fabric8.kubernetes.api.model.storage.StorageClass;
+import io.fabric8.kubernetes.api.model.storage.StorageClassBuilder;
+import io.fabric8.kubernetes.client.informers.cache.BasicItemStore;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Informer store that keeps only the fields of the resources read by the operator.
+ * The managed fields, the annotations not owned by the operator, the pod templates and the config maps data are
+ * dropped before the resources are stored, so the cache memory doesn't depend on the size of the resources specs.
+ * Resources of other kinds are stored unchanged.
+ */
+class PrunedItemStore<R extends HasMetadata> extends BasicItemStore<R> {
+
+    private static final String OPERATOR_ANNOTATIONS_PREFIX = CRDConstants.GROUP + "/";
+
+    PrunedItemStore() {
+        super(Cache::metaNamespaceKeyFunc);
+    }
+
+    @Override
+    public R put(String key, R obj) {
+        return super.put(key, prune(obj));
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R extends HasMetadata> R prune(R resource) {
+        if (resource == null) {
+            return null;
+        }
+        final ObjectMeta metadata = pruneMetadata(resource.getMetadata());
+        final HasMetadata pruned;
+        if (resource instanceof StatefulSet) {
+            final StatefulSet sts = (StatefulSet) resource;
+            pruned = new StatefulSetBuilder()
+                    .withMetadata(metadata)
+                    .withNewSpec()
+                    .withReplicas(sts.getSpec() == null ? null : sts.getSpec().getReplicas())
+                    .endSpec()
+                    .withStatus(sts.getStatus())
+                    .build();
+        } else if (resource instanceof Deployment) {
+            final Deployment deployment = (Deployment) resource;
+            pruned = new DeploymentBuilder()
+                    .withMetadata(metadata)
+                    .withNewSpec()
+                    .withReplicas(deployment.getSpec() == null ? null : deployment.getSpec().getReplicas())
+                    .withSelector(deployment.getSpec() == null ? null : deployment.getSpec().getSelector())
+                    .endSpec()
+                    .withStatus(deployment.getStatus())
+                    .build();
+        } else if (resource instanceof ReplicaSet) {
+            pruned = new ReplicaSetBuilder()
+                    .withMetadata(metadata)
+                    .withStatus(((ReplicaSet) resource).getStatus())
+                    .build();
+        } else if (resource instanceof Job) {
+            pruned = new JobBuilder()
+                    .withMetadata(metadata)
+                    .withStatus(((Job) resource).getStatus())
+                    .build();
+        } else if (resource instanceof ConfigMap) {
+            pruned = new ConfigMapBuilder()
+                    .withMetadata(metadata)
+                    .build();
+        } else if (resource instanceof Service) {
+            pruned = new ServiceBuilder()
+                    .withMetadata(metadata)
+                    .build();
+        } else if (resource instanceof PodDisruptionBudget) {
+            pruned = new PodDisruptionBudgetBuilder()
+                    .withMetadata(metadata)
+                    .build();
+        } else if (resource instanceof StorageClass) {
+            pruned = new StorageClassBuilder()
+                    .withMetadata(metadata)
+                    .withProvisioner(((StorageClass) resource).getProvisioner())
+                    .build();
+        } else {
+            return resource;
+        }
+        pruned.setApiVersion(resource.getApiVersion());
+        return (R) pruned;
+    }
+
+    /**
+     * Keep the identity and the version of the resource, the owners and the annotations read by the operator.
+     */
+    static ObjectMeta pruneMetadata(ObjectMeta metadata) {
+        if (metadata == null) {
+            return null;
+        }
+        return new ObjectMetaBuilder()
+                .withName(metadata.getName())
+                .withNamespace(metadata.getNamespace())
+                .withUid(metadata.getUid())
+                .withResourceVersion(metadata.getResourceVersion())
+                .withGeneration(metadata.getGeneration())
+                .withCreationTimestamp(metadata.getCreationTimestamp())
+                .withDeletionTimestamp(metadata.getDeletionTimestamp())
+                .withLabels(metadata.getLabels())
+                .withOwnerReferences(metadata.getOwnerReferences())
+                .withAnnotations(pruneAnnotations(metadata.getAnnotations()))
+                .build();
+    }
+
+    private static Map<String, String> pruneAnnotations(Map<String, String> annotations) {
+        if (annotations == null) {
+            return null;
+        }
+        return annotations.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(OPERATOR_ANNOTATIONS_PREFIX)
+                        || e.getKey().equals(BaseResourcesFactory.DEPLOYMENT_REVISION_ANNOTATION))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.controllers;
 
+import com.datastax.oss.kaap.OperatorThreads;
 import com.datastax.oss.kaap.autoscaler.AutoscalerDaemon;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.common.json.JSONComparator;
@@ -55,14 +56,23 @@ import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
 import io.fabric8.kubernetes.client.dsl.Resource;
+import io.javaoperatorsdk.operator.api.config.informer.InformerConfiguration;
 import io.javaoperatorsdk.operator.api.reconciler.Constants;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
 import io.javaoperatorsdk.operator.api.reconciler.ControllerConfiguration;
+import io.javaoperatorsdk.operator.api.reconciler.EventSourceContext;
+import io.javaoperatorsdk.operator.api.reconciler.EventSourceInitializer;
+import io.javaoperatorsdk.operator.processing.event.source.EventSource;
+import io.javaoperatorsdk.operator.processing.event.source.informer.InformerEventSource;
+import io.javaoperatorsdk.operator.processing.event.source.informer.Mappers;
 import io.quarkus.runtime.ShutdownEvent;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import lombok.SneakyThrows;
@@ -71,7 +81,8 @@ import lombok.extern.jbosslog.JBossLog;
 @ControllerConfiguration(namespaces = Constants.WATCH_CURRENT_NAMESPACE, name = "pulsar-cluster-app")
 @JBossLog
 @ApplicationScoped
-public class PulsarClusterController extends AbstractController<PulsarCluster> {
+public class PulsarClusterController extends AbstractController<PulsarCluster>
+        implements EventSourceInitializer<PulsarCluster> {
 
     public static final String CUSTOM_RESOURCE_BROKER = "broker";
     public static final String CUSTOM_RESOURCE_BOOKKEEPER = "bookkeeper";
@@ -85,96 +96,159 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
         return "%s-%s".formatted(clusterSpec.getGlobal().getName(), customResourceName);
     }
 
+    private static final List<Class<? extends CustomResource<?, BaseComponentStatus>>> CHILD_RESOURCES = List.of(
+            ZooKeeper.class,
+            BookKeeper.class,
+            Broker.class,
+            Proxy.class,
+            Autorecovery.class,
+            Bastion.class,
+            FunctionsWorker.class
+    );
+
     private final AutoscalerDaemon autoscaler;
+    // created on the first reconciliation, once the thread model is configured
+    private ExecutorService componentsExecutor;
 
     public PulsarClusterController(KubernetesClient client) {
         super(client);
-        autoscaler = new AutoscalerDaemon(client);
+        autoscaler = new AutoscalerDaemon(client, () -> checkpoint);
     }
 
-    @Override
-    protected ReconciliationResult patchResources(PulsarCluster resource, Context<PulsarCluster> context)
-            throws Exception {
-
-        final String currentNamespace = resource.getMetadata().getNamespace();
-        final PulsarClusterSpec clusterSpec = resource.getSpec();
-
-        final List<OwnerReference> ownerReference = List.of(getOwnerReference(resource));
-        generateSecretsIfAbsent(currentNamespace, clusterSpec);
-        setupTls(currentNamespace, clusterSpec);
-
-        if (!checkReadyOrPatchZooKeeper(currentNamespace, clusterSpec, ownerReference)) {
-            log.info("waiting for zookeeper to become ready");
-            return new ReconciliationResult(
-                    true,
-                    List.of(createNotReadyInitializingCondition(resource))
-            );
+    private synchronized ExecutorService getComponentsExecutor() {
+        if (componentsExecutor == null) {
+            componentsExecutor = OperatorThreads.newTaskExecutor("kaap-components", 0);
         }
+        return componentsExecutor;
+    }
 
-
-        if (!checkReadyOrPatchBookKeeper(currentNamespace, clusterSpec, ownerReference)) {
-            log.info("waiting for bookkeeper to become ready");
-            return new ReconciliationResult(
-                    true,
-                    List.of(createNotReadyInitializingCondition(resource))
-            );
+    /**
+     * Watch the component custom resources owned by the cluster so that the cluster is reconciled as soon as a
+     * component becomes ready (or not ready) instead of waiting for the next scheduled reconciliation.
+     */
+    @Override
+    public Map<String, EventSource> prepareEventSources(EventSourceContext<PulsarCluster> context) {
+        final Map<String, EventSource> eventSources = new HashMap<>();
+        for (Class<? extends CustomResource<?, BaseComponentStatus>> childResource : CHILD_RESOURCES) {
+            eventSources.put(childResource.getSimpleName(), createChildEventSource(childResource, context));
         }
-        autoscaler.getBookKeeperAutoscalerDaemon().onSpecChange(clusterSpec, currentNamespace);
+        return eventSources;
+    }
 
-        final boolean brokerReady = checkReadyOrPatchBroker(currentNamespace, clusterSpec, ownerReference);
-        autoscaler.getBrokerAutoscalerDaemon().onSpecChange(clusterSpec, currentNamespace);
+    private static <CR extends CustomResource<?, BaseComponentStatus>> InformerEventSource<CR, PulsarCluster>
+            createChildEventSource(Class<CR> resourceClass, EventSourceContext<PulsarCluster> context) {
+        final InformerConfiguration<CR> configuration = InformerConfiguration.from(resourceClass, context)
+                .withSecondaryToPrimaryMapper(Mappers.fromOwnerReference())
+                // the cluster just created the resource, it doesn't need to be notified
+                .withOnAddFilter(resource -> false)
+                .withOnUpdateFilter(PulsarClusterController::isReadyConditionChanged)
+                .build();
+        return new InformerEventSource<>(configuration, context);
+    }
 
-        adjustProxyFunctionsWorkerDeployment(clusterSpec);
-        final boolean proxyReady = checkReadyOrPatchProxy(currentNamespace, clusterSpec, ownerReference);
+    static boolean isReadyConditionChanged(CustomResource<?, BaseComponentStatus> newResource,
+                                           CustomResource<?, BaseComponentStatus> oldResource) {
+        final Condition newCondition = getReadyCondition(newResource);
+        final Condition oldCondition = getReadyCondition(oldResource);
+        if (newCondition == null || oldCondition == null) {
+            return newCondition != oldCondition;
+        }
+        return !Objects.equals(newCondition.getStatus(), oldCondition.getStatus())
+                || !Objects.equals(newCondition.getObservedGeneration(), oldCondition.getObservedGeneration());
+    }
 
-        adjustBastionTarget(clusterSpec);
-        final boolean bastionReady = checkReadyOrPatchBastion(currentNamespace, clusterSpec, ownerReference);
-        boolean functionsWorkerReady = false;
-        if (brokerReady) {
-            functionsWorkerReady =
-                    checkReadyOrPatchFunctionsWorker(currentNamespace, clusterSpec, ownerReference);
+    private static Condition getReadyCondition(CustomResource<?, BaseComponentStatus> resource) {
+        final BaseComponentStatus status = resource.getStatus();
+        if (status == null || status.getConditions() == null) {
+            return null;
         }
-        final boolean autorecoveryReady = checkReadyOrPatchAutorecovery(currentNamespace, clusterSpec, ownerReference);
+        return status.getConditions().stream()
+                .filter(c -> CRDConstants.CONDITIONS_TYPE_READY.equals(c.getType()))
+                .findFirst()
+                .orElse(null);
+    }
 
-        boolean allReady = autorecoveryReady
-                && brokerReady
-                && proxyReady
-                && bastionReady
-                && functionsWorkerReady;
+    @Override
+    protected ReconciliationResult patchResources(PulsarCluster resource, Context<PulsarCluster> context)
+            throws Exception {
 
+        final String currentNamespace = resource.getMetadata().getNamespace();
+        final PulsarClusterSpec clusterSpec = resource.getSpec();
 
-        if (allReady) {
+        final List<OwnerReference> ownerReference = List.of(getOwnerReference(resource));
+        generateSecretsIfAbsent(currentNamespace, clusterSpec);
+        setupTls(currentNamespace, clusterSpec);
+        // the components are patched concurrently and the autoscalers keep a reference to the cluster spec, so the
+        // spec is only modified here, before starting the tasks.
+        // The tasks compare the specs with the same versions of the resources the replicas have been taken from
+        final BookKeeper currentBookKeeper = getExistingCustomResource(BookKeeper.class, currentNamespace,
+                computeCustomResourceName(clusterSpec, CUSTOM_RESOURCE_BOOKKEEPER));
+        final Broker currentBroker = getExistingCustomResource(Broker.class, currentNamespace,
+                computeCustomResourceName(clusterSpec, CUSTOM_RESOURCE_BROKER));
+        adjustComponentSpecs(clusterSpec, currentBookKeeper, currentBroker);
+
+        final ComponentsDependencyGraph components = new ComponentsDependencyGraph()
+                .add(CUSTOM_RESOURCE_ZOOKEEPER,
+                        () -> checkReadyOrPatchZooKeeper(currentNamespace, clusterSpec, ownerReference))
+                .add(CUSTOM_RESOURCE_BOOKKEEPER, () -> {
+                    final boolean bookkeeperReady =
+                            checkReadyOrPatchBookKeeper(currentNamespace, clusterSpec, ownerReference,
+                                    currentBookKeeper);
+                    if (bookkeeperReady) {
+                        autoscaler.getBookKeeperAutoscalerDaemon().onSpecChange(clusterSpec, currentNamespace);
+                    }
+                    return bookkeeperReady;
+                }, CUSTOM_RESOURCE_ZOOKEEPER)
+                .add(CUSTOM_RESOURCE_BROKER, () -> {
+                    final boolean brokerReady = checkReadyOrPatchBroker(currentNamespace, clusterSpec, ownerReference,
+                            currentBroker);
+                    autoscaler.getBrokerAutoscalerDaemon().onSpecChange(clusterSpec, currentNamespace);
+                    return brokerReady;
+                }, CUSTOM_RESOURCE_BOOKKEEPER)
+                .add(CUSTOM_RESOURCE_PROXY,
+                        () -> checkReadyOrPatchProxy(currentNamespace, clusterSpec, ownerReference),
+                        CUSTOM_RESOURCE_BOOKKEEPER)
+                .add(CUSTOM_RESOURCE_BASTION,
+                        () -> checkReadyOrPatchBastion(currentNamespace, clusterSpec, ownerReference),
+                        CUSTOM_RESOURCE_BOOKKEEPER)
+                .add(CUSTOM_RESOURCE_AUTORECOVERY,
+                        () -> checkReadyOrPatchAutorecovery(currentNamespace, clusterSpec, ownerReference),
+                        CUSTOM_RESOURCE_BOOKKEEPER)
+                .add(CUSTOM_RESOURCE_FUNCTIONS_WORKER,
+                        () -> checkReadyOrPatchFunctionsWorker(currentNamespace, clusterSpec, ownerReference),
+                        CUSTOM_RESOURCE_BROKER);
+
+        final Map<String, Boolean> ready = components.checkReadyOrPatch(getComponentsExecutor());
+
+        final List<String> notReady = ready.entrySet()
+                .stream()
+                .filter(e -> !e.getValue())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        if (notReady.isEmpty() && ready.size() == components.getComponents().size()) {
             log.info("all resources ready, setting cluster to ready state");
             return new ReconciliationResult(
                     false,
                     List.of(createReadyCondition(resource))
             );
-        } else {
-            List<String> notReady = new ArrayList<>();
-            if (!autorecoveryReady) {
-                notReady.add("autorecovery");
-            }
-            if (!brokerReady) {
-                notReady.add("broker");
-            }
-            if (!proxyReady) {
-                notReady.add("proxy");
-            }
-            if (!bastionReady) {
-                notReady.add("bastion");
-            }
-            if (!functionsWorkerReady && brokerReady) {
-                notReady.add("functionsworker");
-            }
-
-            log.infof("waiting for %s to become ready", notReady);
-
-            return new ReconciliationResult(
-                    true,
-                    List.of(createNotReadyInitializingCondition(resource))
-            );
         }
+        log.infof("waiting for %s to become ready", notReady);
+        return new ReconciliationResult(
+                true,
+                List.of(createNotReadyInitializingCondition(resource))
+        );
+    }
 
+    private void adjustComponentSpecs(PulsarClusterSpec clusterSpec, BookKeeper currentBookKeeper,
+                                      Broker currentBroker) {
+        if (currentBookKeeper != null) {
+            adjustBookKeeperReplicas(currentBookKeeper, clusterSpec);
+        }
+        if (currentBroker != null) {
+            adjustBrokerReplicas(currentBroker, clusterSpec);
+        }
+        adjustProxyFunctionsWorkerDeployment(clusterSpec);
+        adjustBastionTarget(clusterSpec);
     }
 
     private void adjustBastionTarget(PulsarClusterSpec clusterSpec) {
@@ -269,9 +343,10 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
     }
 
     private boolean checkReadyOrPatchBookKeeper(String currentNamespace, PulsarClusterSpec clusterSpec,
-                                                List<OwnerReference> ownerReference) {
+                                                List<OwnerReference> ownerReference, BookKeeper current) {
         return checkReadyOrPatch(CUSTOM_RESOURCE_BOOKKEEPER,
                 BookKeeper.class,
+                current,
                 BookKeeperFullSpec.builder()
                         .global(clusterSpec.getGlobal())
                         .bookkeeper(clusterSpec.getBookkeeper())
@@ -297,10 +372,11 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
     }
 
     private boolean checkReadyOrPatchBroker(String currentNamespace, PulsarClusterSpec clusterSpec,
-                                            List<OwnerReference> ownerReference) {
+                                            List<OwnerReference> ownerReference, Broker current) {
         return checkReadyOrPatch(
                 CUSTOM_RESOURCE_BROKER,
                 Broker.class,
+                current,
                 BrokerFullSpec.builder()
                         .global(clusterSpec.getGlobal())
                         .broker(clusterSpec.getBroker())
@@ -353,10 +429,24 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
         );
     }
 
+    private <CR extends CustomResource<SPEC, ?>, SPEC> boolean checkReadyOrPatch(
+            String customResourceName,
+            Class<CR> resourceClass,
+            SPEC spec,
+            String namespace,
+            PulsarClusterSpec clusterSpec,
+            List<OwnerReference> ownerReferences) {
+        final CR current = getExistingCustomResource(resourceClass, namespace,
+                computeCustomResourceName(clusterSpec, customResourceName));
+        return checkReadyOrPatch(customResourceName, resourceClass, current, spec, namespace, clusterSpec,
+                ownerReferences);
+    }
+
     @SneakyThrows
     private <CR extends CustomResource<SPEC, ?>, SPEC> boolean checkReadyOrPatch(
             String customResourceName,
             Class<CR> resourceClass,
+            CR current,
             SPEC spec,
             String namespace,
             PulsarClusterSpec clusterSpec,
@@ -368,25 +458,15 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
         }
 
         final String crFullName = computeCustomResourceName(clusterSpec, customResourceName);
-        final CR current = getExistingCustomResource(resourceClass, namespace, crFullName);
         if (current != null) {
-            if (CUSTOM_RESOURCE_BOOKKEEPER.equals(customResourceName)) {
-                adjustBookKeeperReplicas((BookKeeper) current, clusterSpec);
-            }
-            if (CUSTOM_RESOURCE_BROKER.equals(customResourceName)) {
-                adjustBrokerReplicas((Broker) current, clusterSpec);
-            }
             final SPEC currentSpec = current.getSpec();
 
             final String currentAsJson = SerializationUtil.writeAsJson(currentSpec);
             final String newSpecAsJson = SerializationUtil.writeAsJson(spec);
             final JSONComparator.Result diff = SpecDiffer.generateDiff(currentAsJson, newSpecAsJson);
             if (diff.areEquals()) {
-                final BaseComponentStatus currentStatus = (BaseComponentStatus) current.getStatus();
-                final Condition readyCondition = currentStatus.getConditions().stream()
-                        .filter(c -> c.getType().equals(CRDConstants.CONDITIONS_TYPE_READY))
-                        .findFirst()
-                        .orElse(null);
+                final Condition readyCondition = getReadyCondition(
+                        (CustomResource<?, BaseComponentStatus>) current);
                 if (readyCondition != null && readyCondition.getStatus().equals(CRDConstants.CONDITIONS_STATUS_TRUE)) {
                     return true;
                 } else {
@@ -420,10 +500,10 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
     protected <CR extends CustomResource<SPEC, ?>, SPEC> CR getExistingCustomResource(
             Class<CR> resourceClass, String namespace,
             String crFullName) {
-        return client.resources(resourceClass)
+        return ReconciliationReadCache.get(resourceClass, namespace, crFullName, () -> client.resources(resourceClass)
                 .inNamespace(namespace)
                 .withName(crFullName)
-                .get();
+                .get());
     }
 
 
@@ -459,9 +539,24 @@ public class PulsarClusterController extends AbstractController<PulsarCluster> {
         return new TokenAuthProvisioner(client, namespace);
     }
 
+    @Override
+    protected void onResourceNotOwned(PulsarCluster resource) {
+        autoscaler.stop(resource.getMetadata().getNamespace());
+    }
+
+    @Override
+    public void onNamespaceUnwatched(String namespace) {
+        autoscaler.stop(namespace);
+    }
+
     void onStop(@Observes ShutdownEvent ev) {
         if (autoscaler != null) {
             autoscaler.close();
         }
+        synchronized (this) {
+            if (componentsExecutor != null) {
+                componentsExecutor.shutdownNow();
+            }
+        }
     }
 }
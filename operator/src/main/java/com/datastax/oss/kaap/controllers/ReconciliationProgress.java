@@ -0,0 +1,70 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the progress signals of the workloads checked during a single reconciliation: the observed generation
+ * and the ready/updated replicas of the StatefulSets and Deployments, the status of the Jobs.
+ * The child controllers are not notified when their workloads change, so these signals tell a rollout that is
+ * progressing from a stuck one while the reported condition stays the same.
+ */
+public final class ReconciliationProgress {
+
+    private static final ThreadLocal<ReconciliationProgress> CURRENT = new ThreadLocal<>();
+
+    // sorted by workload, the signals of the same reconciliation are compared in the same order
+    private final Map<String, String> signals = new TreeMap<>();
+
+    private ReconciliationProgress() {
+    }
+
+    /**
+     * Start collecting the signals recorded by the current thread, until {@link #stop()} is called.
+     */
+    public static void start() {
+        CURRENT.set(new ReconciliationProgress());
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static void record(String kind, String name, Object... values) {
+        final ReconciliationProgress progress = CURRENT.get();
+        if (progress == null) {
+            return;
+        }
+        final StringBuilder signal = new StringBuilder();
+        for (Object value : values) {
+            signal.append(value).append('/');
+        }
+        progress.signals.put(kind + "/" + name, signal.toString());
+    }
+
+    /**
+     * Fingerprint of the signals recorded so far by the current thread, empty if not started.
+     */
+    public static String current() {
+        final ReconciliationProgress progress = CURRENT.get();
+        if (progress == null) {
+            return "";
+        }
+        return progress.signals.toString();
+    }
+}
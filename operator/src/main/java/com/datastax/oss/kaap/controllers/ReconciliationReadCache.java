@@ -0,0 +1,113 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.OperatorMetrics;
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the reads of the same resource issued during a single reconciliation, when the resource is not served
+ * by the informers cache. The first read hits the API server, the following ones get a copy of the same resource.
+ * Any write sent to the API server invalidates all the coalesced reads, so a reconciliation always reads its own
+ * writes.
+ */
+public final class ReconciliationReadCache {
+
+    private static final ThreadLocal<ReconciliationReadCache> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Optional<HasMetadata>> resources = new ConcurrentHashMap<>();
+    // incremented on every invalidation, a read started before an invalidation is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private ReconciliationReadCache() {
+    }
+
+    /**
+     * Start coalescing the reads issued by the current thread, and by the tasks wrapped with
+     * {@link #propagate(Supplier)}, until {@link #stop()} is called.
+     */
+    public static void start() {
+        CURRENT.set(new ReconciliationReadCache());
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Coalesce the reads of the task with the ones of the calling thread, for tasks of the reconciliation that run
+     * on other threads.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        final ReconciliationReadCache cache = CURRENT.get();
+        if (cache == null) {
+            return task;
+        }
+        return () -> {
+            final ReconciliationReadCache previous = CURRENT.get();
+            CURRENT.set(cache);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public static void invalidate() {
+        final ReconciliationReadCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.generation.incrementAndGet();
+            cache.resources.clear();
+        }
+    }
+
+    public static <R extends HasMetadata> R get(Class<R> resourceClass, String namespace, String name,
+                                                Supplier<R> loader) {
+        final ReconciliationReadCache cache = CURRENT.get();
+        if (cache == null) {
+            return loader.get();
+        }
+        final String key = resourceClass.getName() + "/" + namespace + "/" + name;
+        final Optional<HasMetadata> cached = cache.resources.get(key);
+        if (cached != null) {
+            OperatorMetrics.recordCoalescedRead(resourceClass.getSimpleName());
+            return cached.map(resourceClass::cast)
+                    .map(SerializationUtil::deepCloneObject)
+                    .orElse(null);
+        }
+        final long generation = cache.generation.get();
+        final R resource = loader.get();
+        if (cache.generation.get() == generation) {
+            // the caller is free to modify the returned resource
+            cache.resources.put(key, Optional.ofNullable(SerializationUtil.deepCloneObject(resource)));
+            if (cache.generation.get() != generation) {
+                cache.resources.remove(key);
+            }
+        }
+        return resource;
+    }
+}
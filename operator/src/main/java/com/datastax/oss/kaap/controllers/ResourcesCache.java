@@ -0,0 +1,259 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.OperatorRuntimeConfiguration;
+import com.datastax.oss.kaap.crds.CRDConstants;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.api.model.batch.v1.Job;
+import io.fabric8.kubernetes.api.model.policy.v1.PodDisruptionBudget;
+import io.fabric8.kubernetes.api.model.storage.StorageClass;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.quarkus.arc.Unremovable;
+import io.quarkus.runtime.ShutdownEvent;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import lombok.extern.jbosslog.JBossLog;
+
+/**
+ * Shared read cache for the resources managed by the resources factories.
+ * Informers are started lazily, one per resource kind and namespace, the first time a resource of that kind is
+ * read in the namespace. Objects returned by the cache are shared and must not be modified, and only hold the fields
+ * read by the operator (see {@link PrunedItemStore}).
+ * The informers only watch the resources with the labels set by the operator on the resources of the components
+ * (see {@link #CACHED_RESOURCES_LABELS}), the other resources of the namespaces are not cached. The replica sets of
+ * the deployments are watched too, since they get the labels of the pods.
+ * Some kinds are also indexed by the UID of their owners, to look up the resources owned by another resource (e.g.
+ * the replica sets of a deployment) without scanning the namespace.
+ */
+@ApplicationScoped
+@Unremovable
+@JBossLog
+public class ResourcesCache {
+
+    private static final Set<Class<? extends HasMetadata>> CACHED_KINDS = Set.of(
+            ConfigMap.class,
+            Service.class,
+            StatefulSet.class,
+            Deployment.class,
+            ReplicaSet.class,
+            Job.class,
+            PodDisruptionBudget.class,
+            StorageClass.class
+    );
+
+    static final Map<String, String> CACHED_RESOURCES_LABELS = Map.of(CRDConstants.LABEL_APP,
+            CRDConstants.LABEL_APP_VALUE);
+
+    static final String OWNER_UID_INDEX = "ownerUid";
+    private static final Set<Class<? extends HasMetadata>> INDEXED_BY_OWNER_KINDS = Set.of(ReplicaSet.class);
+
+    private record InformerKey(Class<? extends HasMetadata> kind, String namespace) {
+    }
+
+    private final KubernetesClient client;
+    private final boolean enabled;
+    private final Map<InformerKey, SharedIndexInformer<? extends HasMetadata>> informers = new ConcurrentHashMap<>();
+    private final Set<InformerKey> failedInformers = ConcurrentHashMap.newKeySet();
+    // kind/namespace/name -> applied state (see appliedState) returned by the last apply of the operator
+    private final Map<String, String> appliedStates = new ConcurrentHashMap<>();
+
+    @Inject
+    public ResourcesCache(KubernetesClient client, OperatorRuntimeConfiguration operatorRuntimeConfiguration) {
+        this(client, operatorRuntimeConfiguration.resourcesCacheEnabled());
+    }
+
+    public ResourcesCache(KubernetesClient client, boolean enabled) {
+        this.client = client;
+        this.enabled = enabled;
+    }
+
+    public static boolean isNonNamespacedResource(Class<? extends HasMetadata> resourceClass) {
+        return StorageClass.class.isAssignableFrom(resourceClass);
+    }
+
+    public boolean isCached(Class<? extends HasMetadata> resourceClass) {
+        return enabled && CACHED_KINDS.contains(resourceClass);
+    }
+
+    /**
+     * Get a resource from the cache. If the resource kind is not cached, the informer can't be started or the
+     * resource is not in the cache (e.g. its labels were overridden), the resource is read from the API server,
+     * coalescing the reads of the same reconciliation.
+     * The cached resources are pruned copies with only the fields read by the operator (see
+     * {@link PrunedItemStore#prune(HasMetadata)}).
+     */
+    public <R extends HasMetadata> R get(Class<R> resourceClass, String namespace, String name) {
+        final SharedIndexInformer<R> informer = getInformer(resourceClass, namespace);
+        if (informer != null) {
+            final String key = isNonNamespacedResource(resourceClass)
+                    ? name : Cache.namespaceKeyFunc(namespace, name);
+            final R cached = informer.getStore().getByKey(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return ReconciliationReadCache.get(resourceClass, namespace, name, () -> client.resources(resourceClass)
+                .inNamespace(namespace)
+                .withName(name)
+                .get());
+    }
+
+    /**
+     * Get the resources owned by the resource with the given UID, from the owner index of the cache.
+     * Returns null if the resource kind is not indexed by owner or the informer can't be started.
+     */
+    public <R extends HasMetadata> List<R> getByOwner(Class<R> resourceClass, String namespace, String ownerUid) {
+        if (!INDEXED_BY_OWNER_KINDS.contains(resourceClass)) {
+            return null;
+        }
+        final SharedIndexInformer<R> informer = getInformer(resourceClass, namespace);
+        if (informer == null) {
+            return null;
+        }
+        return informer.getIndexer().byIndex(OWNER_UID_INDEX, ownerUid);
+    }
+
+    /**
+     * Record the state of a resource just applied by the operator.
+     */
+    public void recordApplied(HasMetadata applied) {
+        if (applied == null || applied.getMetadata() == null || (applied.getMetadata().getGeneration() == null
+                && applied.getMetadata().getResourceVersion() == null)) {
+            return;
+        }
+        appliedStates.put(appliedKey(applied), appliedState(applied));
+    }
+
+    /**
+     * Check if the spec of the resource has been modified since the operator applied it, by the operator itself or
+     * by someone else (e.g. kubectl edit or kubectl scale), or if it hasn't been applied since the operator started.
+     * The status updates of the resource (e.g. during a rollout) are not modifications.
+     */
+    public boolean isModifiedSinceApplied(HasMetadata current) {
+        return !Objects.equals(appliedStates.get(appliedKey(current)), appliedState(current));
+    }
+
+    /**
+     * The generation of the resource, which only changes with its spec, and the desired hash set by the operator.
+     * The resource version is used for the kinds without a generation (config maps, services and storage classes),
+     * whose status is not updated during the rollouts.
+     */
+    private static String appliedState(HasMetadata resource) {
+        final ObjectMeta metadata = resource.getMetadata();
+        final String version = metadata.getGeneration() == null
+                ? "resourceVersion=" + metadata.getResourceVersion() : "generation=" + metadata.getGeneration();
+        final String hash = metadata.getAnnotations() == null
+                ? null : metadata.getAnnotations().get(BaseResourcesFactory.DESIRED_HASH_ANNOTATION);
+        return version + "," + hash;
+    }
+
+    private static String appliedKey(HasMetadata resource) {
+        return resource.getClass().getSimpleName() + "/" + resource.getMetadata().getNamespace() + "/"
+                + resource.getMetadata().getName();
+    }
+
+    static List<String> getOwnerUids(HasMetadata resource) {
+        final List<OwnerReference> ownerReferences = resource.getMetadata().getOwnerReferences();
+        if (ownerReferences == null) {
+            return List.of();
+        }
+        return ownerReferences.stream()
+                .map(OwnerReference::getUid)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R extends HasMetadata> SharedIndexInformer<R> getInformer(Class<R> resourceClass, String namespace) {
+        if (!isCached(resourceClass)) {
+            return null;
+        }
+        final InformerKey key = new InformerKey(resourceClass,
+                isNonNamespacedResource(resourceClass) ? null : Objects.requireNonNull(namespace));
+        if (failedInformers.contains(key)) {
+            return null;
+        }
+        try {
+            return (SharedIndexInformer<R>) informers.computeIfAbsent(key, k -> startInformer(resourceClass,
+                    k.namespace()));
+        } catch (Throwable tt) {
+            log.warnf(tt, "Unable to start informer for %s in namespace %s, falling back to direct reads",
+                    resourceClass.getSimpleName(), namespace);
+            failedInformers.add(key);
+            return null;
+        }
+    }
+
+    private <R extends HasMetadata> SharedIndexInformer<R> startInformer(Class<R> resourceClass, String namespace) {
+        log.infof("Starting informer for %s in namespace %s", resourceClass.getSimpleName(),
+                namespace == null ? "<cluster>" : namespace);
+        final SharedIndexInformer<R> informer = namespace == null
+                ? client.resources(resourceClass)
+                        .withLabels(CACHED_RESOURCES_LABELS)
+                        .withLabel(CRDConstants.LABEL_COMPONENT)
+                        .runnableInformer(0)
+                : client.resources(resourceClass)
+                        .inNamespace(namespace)
+                        .withLabels(CACHED_RESOURCES_LABELS)
+                        .withLabel(CRDConstants.LABEL_COMPONENT)
+                        .runnableInformer(0);
+        informer.itemStore(new PrunedItemStore<>());
+        if (INDEXED_BY_OWNER_KINDS.contains(resourceClass)) {
+            informer.addIndexers(Map.of(OWNER_UID_INDEX, ResourcesCache::getOwnerUids));
+        }
+        return informer.run();
+    }
+
+    void onStop(@Observes ShutdownEvent ev) {
+        close();
+    }
+
+    public void close() {
+        informers.values().forEach(SharedIndexInformer::close);
+        informers.clear();
+    }
+
+    /**
+     * Stop the informers of the namespace, they're started again at the next read in the namespace.
+     */
+    public void close(String namespace) {
+        informers.entrySet().removeIf(entry -> {
+            if (namespace.equals(entry.getKey().namespace())) {
+                entry.getValue().close();
+                return true;
+            }
+            return false;
+        });
+        failedInformers.removeIf(key -> namespace.equals(key.namespace()));
+        appliedStates.keySet().removeIf(key -> key.contains("/" + namespace + "/"));
+    }
+}
@@ -44,6 +44,7 @@ public class AutorecoveryController extends AbstractController<Autorecovery> {
         final AutorecoveryResourcesFactory
                 resourcesFactory = new AutorecoveryResourcesFactory(
                 client, namespace, spec.getAutorecovery(), spec.getGlobal(), getOwnerReference(resource));
+        resourcesFactory.setResourcesCache(resourcesCache);
 
 
         if (!areSpecChanged(resource)) {
@@ -77,7 +78,7 @@ public class AutorecoveryController extends AbstractController<Autorecovery> {
             return new ReconciliationResult(true,
                     List.of(createNotReadyInitializingCondition(resource)));
         } else {
-            if (BaseResourcesFactory.isDeploymentReady(deployment, client)) {
+            if (BaseResourcesFactory.isDeploymentReady(deployment, client, resourcesCache)) {
                 return new ReconciliationResult(
                         false,
                         List.of(createReadyCondition(resource))
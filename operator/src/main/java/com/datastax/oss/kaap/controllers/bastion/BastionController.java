@@ -44,6 +44,7 @@ public class BastionController extends AbstractController<Bastion> {
         final BastionResourcesFactory
                 resourcesFactory = new BastionResourcesFactory(
                 client, namespace, spec.getBastion(), spec.getGlobal(), getOwnerReference(resource));
+        resourcesFactory.setResourcesCache(resourcesCache);
 
         if (!areSpecChanged(resource)) {
             return checkReady(resource, resourcesFactory);
@@ -76,7 +77,7 @@ public class BastionController extends AbstractController<Bastion> {
             return new ReconciliationResult(true,
                     List.of(createNotReadyInitializingCondition(resource)));
         } else {
-            if (BaseResourcesFactory.isDeploymentReady(deployment, client)) {
+            if (BaseResourcesFactory.isDeploymentReady(deployment, client, resourcesCache)) {
                 return new ReconciliationResult(
                         false,
                         List.of(createReadyCondition(resource))
@@ -15,17 +15,16 @@
  */
 package com.datastax.oss.kaap.controllers.bookkeeper;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.autoscaler.BookKeeperSetAutoscaler;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDecommissionUtil;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.PodExecBookieAdminClient;
-import com.datastax.oss.kaap.common.SerializationUtil;
-import com.datastax.oss.kaap.common.json.JSONComparator;
 import com.datastax.oss.kaap.controllers.AbstractResourceSetsController;
 import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
 import com.datastax.oss.kaap.controllers.bookkeeper.racks.BookKeeperRackDaemon;
 import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.ZkClientRackClientFactory;
 import com.datastax.oss.kaap.crds.GlobalSpec;
-import com.datastax.oss.kaap.crds.SpecDiffer;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
@@ -42,6 +41,8 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.enterprise.event.Observes;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -57,6 +58,8 @@ public class BookKeeperController extends
                 BookKeeperController.BookKeeperSetsLastApplied> {
 
     private final BookKeeperRackDaemon bkRackDaemon;
+    // namespace/set of the sets checked for an interrupted decommission since the operator started
+    private final Set<String> decommissionChecked = ConcurrentHashMap.newKeySet();
 
     public static List<String> enumerateBookKeeperSets(String clusterName, String componentBaseName,
                                                        BookKeeperSpec bk) {
@@ -88,7 +91,7 @@ public class BookKeeperController extends
     public static class BookKeeperSetsLastApplied
             implements AbstractResourceSetsController.SetsLastApplied<BookKeeperFullSpec> {
         private BookKeeperFullSpec common;
-        private Map<String, BookKeeperFullSpec> sets = new HashMap<>();
+        private Map<String, String> sets = new HashMap<>();
     }
 
 
@@ -127,12 +130,37 @@ public class BookKeeperController extends
         resourcesFactory.deleteConfigMap();
         resourcesFactory.deletePodDisruptionBudget();
         cleanupOrphanPVCs(set, resource.getSpec(), resource.getMetadata().getNamespace());
+        if (checkpoint != null) {
+            final String namespace = resource.getMetadata().getNamespace();
+            checkpoint.remove(OperatorCheckpoint.key(BookieDecommissionUtil.CHECKPOINT_KIND, namespace,
+                    set.getName()));
+            checkpoint.remove(OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, namespace,
+                    set.getName()));
+        }
     }
 
     @Override
     protected void onSetReady(BookKeeperFullSpec lastAppliedFullSpec, BookKeeper resource,
                               SetInfo<BookKeeperSetSpec, BookKeeperResourcesFactory> setInfo) {
         cleanupOrphanPVCs(setInfo, lastAppliedFullSpec, resource.getMetadata().getNamespace());
+        // the decommission might have been interrupted and then the replicas restored, the set spec didn't change
+        final String namespace = resource.getMetadata().getNamespace();
+        if (decommissionChecked.add(namespace + "/" + setInfo.getName())) {
+            restoreInterruptedDecommission(namespace, setInfo.getName(), lastAppliedFullSpec);
+        }
+    }
+
+    /**
+     * Set writable again the bookies left read-only by an interrupted decommission, e.g. by the previous leader.
+     * If the bookies still have to be decommissioned, they're set read-only again by the next decommission.
+     */
+    private void restoreInterruptedDecommission(String namespace, String setName, BookKeeperFullSpec currentSpec) {
+        if (checkpoint == null) {
+            return;
+        }
+        BookieDecommissionUtil.restoreInterruptedDecommission(checkpoint,
+                OperatorCheckpoint.key(BookieDecommissionUtil.CHECKPOINT_KIND, namespace, setName),
+                () -> createBookieAdminClient(namespace, setName, currentSpec));
     }
 
     @Override
@@ -193,81 +221,72 @@ public class BookKeeperController extends
     @Override
     protected BookKeeperResourcesFactory newFactory(OwnerReference ownerReference, String namespace, String setName,
                                                     BookKeeperSetSpec setSpec, GlobalSpec globalSpec) {
-        return new BookKeeperResourcesFactory(client, namespace, setName, setSpec, globalSpec, ownerReference);
+        final BookKeeperResourcesFactory factory =
+                new BookKeeperResourcesFactory(client, namespace, setName, setSpec, globalSpec, ownerReference);
+        factory.setResourcesCache(resourcesCache);
+        return factory;
     }
 
     @Override
-    protected JSONComparator.Result compareLastAppliedSetSpec(
-            BookKeeper resource, SetInfo<BookKeeperSetSpec, BookKeeperResourcesFactory> setInfo,
-            BookKeeperFullSpec spec,
-            BookKeeperFullSpec lastApplied) {
-        if (spec.getBookkeeper().getSets() != null) {
-            spec = SerializationUtil.deepCloneObject(spec);
-            spec.getBookkeeper().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(setInfo.getName()));
-        }
-
-        if (lastApplied != null && lastApplied.getBookkeeper().getSets() != null) {
-            lastApplied = SerializationUtil.deepCloneObject(lastApplied);
-            lastApplied.getBookkeeper().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(setInfo.getName()));
-        }
-        final JSONComparator.Result result = SpecDiffer.generateDiff(lastApplied, spec);
-        if (!result.areEquals()) {
-            if (lastApplied != null) {
-                final BookKeeperSetSpec lastAppliedSetSpec =
-                        lastApplied.getBookkeeper().getBookKeeperSetSpecRef(setInfo.getName());
-                final BookKeeperSetSpec desiredSetSpec =
-                        spec.getBookkeeper().getBookKeeperSetSpecRef(setInfo.getName());
-                if (lastAppliedSetSpec != null && desiredSetSpec != null) {
-
-                    final int currentReplicas = lastAppliedSetSpec.getReplicas().intValue();
-                    final int desiredReplicas = desiredSetSpec.getReplicas().intValue();
-                    final int delta = currentReplicas - desiredReplicas;
-                    if (delta > 0) {
-                        final BookieAdminClient bookieAdminClient =
-                                createBookieAdminClient(resource.getMetadata().getNamespace(),
-                                        setInfo.getName(), lastApplied);
+    protected void onSetSpecChanged(BookKeeper resource, SetInfo<BookKeeperSetSpec, BookKeeperResourcesFactory> setInfo,
+                                    BookKeeperFullSpec spec, BookKeeperFullSpec previousCommon) {
+        final String setName = setInfo.getName();
+        // the statefulset is the source of truth for the current replicas, the last applied spec only has the hash.
+        // The informers might not have seen the last replicas change yet, and decommissioning one bookie too many
+        // can't be undone, so the statefulset is read from the API server
+        final StatefulSet current = setInfo.getResourceFactory().getStatefulSetFromServer();
+        if (current != null && current.getSpec() != null && current.getSpec().getReplicas() != null) {
+            final int currentReplicas = current.getSpec().getReplicas();
+            final int desiredReplicas = setInfo.getSetSpec().getReplicas().intValue();
+            final int delta = currentReplicas - desiredReplicas;
+            final BookKeeperFullSpec currentSpec = previousCommon != null
+                    && previousCommon.getBookkeeper().getBookKeeperSetSpecRef(setName) != null
+                    ? previousCommon : spec;
+            final String namespace = resource.getMetadata().getNamespace();
+            restoreInterruptedDecommission(namespace, setName, currentSpec);
+            // checked again once the set is ready, in case the decommission doesn't complete
+            decommissionChecked.remove(namespace + "/" + setName);
+            if (delta > 0) {
+                final BookieAdminClient bookieAdminClient =
+                        createBookieAdminClient(resource.getMetadata().getNamespace(), setName, currentSpec);
 
-                        final int decommissioned = BookieDecommissionUtil
-                                .decommissionBookies(bookieAdminClient.collectBookieInfos(),
-                                        delta, bookieAdminClient);
-                        if (decommissioned != delta) {
-                            throw new IllegalStateException(
-                                    "Failed to decommission " + (delta - decommissioned) + " bookies, will retry");
-                        }
-                    }
+                final int decommissioned = BookieDecommissionUtil
+                        .decommissionBookies(bookieAdminClient.collectBookieInfos(),
+                                delta, bookieAdminClient, checkpoint,
+                                OperatorCheckpoint.key(BookieDecommissionUtil.CHECKPOINT_KIND, namespace, setName));
+                if (decommissioned != delta) {
+                    throw new IllegalStateException(
+                            "Failed to decommission " + (delta - decommissioned) + " bookies, will retry");
                 }
             }
-            final PulsarClusterSpec pulsarClusterSpec = PulsarClusterSpec.builder()
-                    .global(spec.getGlobal())
-                    .bookkeeper(spec.getBookkeeper())
-                    .build();
-            bkRackDaemon.cancelTasks();
-            final String namespace = resource.getMetadata().getNamespace();
-            log.infof("Initializing bookie racks for bookkeeper-set '%s'", setInfo.getName());
-            bkRackDaemon.triggerSync(namespace, spec);
-            bkRackDaemon.onSpecChange(pulsarClusterSpec, namespace);
         }
-        return result;
+        final PulsarClusterSpec pulsarClusterSpec = PulsarClusterSpec.builder()
+                .global(spec.getGlobal())
+                .bookkeeper(spec.getBookkeeper())
+                .build();
+        final String namespace = resource.getMetadata().getNamespace();
+        bkRackDaemon.stop(namespace);
+        log.infof("Initializing bookie racks for bookkeeper-set '%s'", setName);
+        bkRackDaemon.triggerSync(namespace, spec);
+        bkRackDaemon.onSpecChange(pulsarClusterSpec, namespace);
     }
 
     protected BookieAdminClient createBookieAdminClient(String namespace,
                                                         String setName,
-                                                        BookKeeperFullSpec lastApplied) {
-        final BookKeeperSetSpec lastAppliedSetSpec =
-                lastApplied.getBookkeeper().getBookKeeperSetSpecRef(setName);
+                                                        BookKeeperFullSpec currentSpec) {
+        final BookKeeperSetSpec currentSetSpec =
+                currentSpec.getBookkeeper().getBookKeeperSetSpecRef(setName);
         return new PodExecBookieAdminClient(client,
                 namespace,
-                lastApplied.getGlobalSpec(),
+                currentSpec.getGlobalSpec(),
                 setName,
-                lastAppliedSetSpec);
+                currentSetSpec);
     }
 
     @Override
     protected BookKeeperSetsLastApplied readSetsLastApplied(BookKeeper resource) {
         final BookKeeperSetsLastApplied
-                last = getLastAppliedResource(resource, BookKeeperSetsLastApplied.class);
+                last = readSetsLastApplied(resource, BookKeeperSetsLastApplied.class);
         if (last == null) {
             return new BookKeeperSetsLastApplied();
         }
@@ -280,6 +299,17 @@ public class BookKeeperController extends
                 .equals(bookKeeperFullSpec.getBookkeeper().getSetsUpdateStrategy());
     }
 
+    @Override
+    protected void onResourceNotOwned(BookKeeper resource) {
+        bkRackDaemon.stop(resource.getMetadata().getNamespace());
+    }
+
+    @Override
+    public void onNamespaceUnwatched(String namespace) {
+        bkRackDaemon.stop(namespace);
+        decommissionChecked.removeIf(set -> set.startsWith(namespace + "/"));
+    }
+
     void onStop(@Observes ShutdownEvent ev) {
         if (bkRackDaemon != null) {
             bkRackDaemon.close();
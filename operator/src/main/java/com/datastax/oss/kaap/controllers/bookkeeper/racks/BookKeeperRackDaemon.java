@@ -22,8 +22,7 @@ import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoRackConfig;
 import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperFullSpec;
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import java.util.Collections;
-import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -33,6 +32,8 @@ import lombok.extern.jbosslog.JBossLog;
 @JBossLog
 public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullSpec> {
 
+    static final String RACK_MONITOR_TASK = "rack-monitor";
+
     private final KubernetesClient client;
     private final ScheduledExecutorService executorService;
     private final BkRackClientFactory bkRackClientFactory;
@@ -44,8 +45,9 @@ public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullS
     }
 
     @Override
-    protected BookKeeperFullSpec getSpec(PulsarClusterSpec clusterSpec) {
-        return new BookKeeperFullSpec(clusterSpec.getGlobal(), clusterSpec.getBookkeeper());
+    protected Map<String, BookKeeperFullSpec> getSpecs(PulsarClusterSpec clusterSpec) {
+        // a single monitor handles the racks of all the sets
+        return Map.of(RACK_MONITOR_TASK, new BookKeeperFullSpec(clusterSpec.getGlobal(), clusterSpec.getBookkeeper()));
     }
 
     public void triggerSync(String namespace, BookKeeperFullSpec newSpec) {
@@ -60,19 +62,19 @@ public class BookKeeperRackDaemon extends NamespacedDaemonThread<BookKeeperFullS
 
 
     @Override
-    protected List<ScheduledFuture<?>> specChanged(String namespace, BookKeeperFullSpec newSpec,
-                                                   PulsarClusterSpec clusterSpec) {
+    protected ScheduledFuture<?> schedule(String namespace, String name, BookKeeperFullSpec newSpec,
+                                          PulsarClusterSpec clusterSpec) {
 
         final BookKeeperAutoRackConfig autoRackConfig = newSpec.getBookkeeper().getAutoRackConfig();
         final BkRackClient bkRackClient =
                 bkRackClientFactory.newBkRackClient(namespace, newSpec, autoRackConfig);
         if (bkRackClient == null) {
-            return Collections.emptyList();
+            return null;
         }
 
-        return List.of(executorService.scheduleWithFixedDelay(
+        return executorService.scheduleWithFixedDelay(
                 new BookKeeperRackMonitor(client, namespace, newSpec, bkRackClient),
-                autoRackConfig.getPeriodMs(), autoRackConfig.getPeriodMs(), TimeUnit.MILLISECONDS));
+                autoRackConfig.getPeriodMs(), autoRackConfig.getPeriodMs(), TimeUnit.MILLISECONDS);
     }
 
     @Override
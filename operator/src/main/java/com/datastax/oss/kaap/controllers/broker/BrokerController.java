@@ -15,12 +15,9 @@
  */
 package com.datastax.oss.kaap.controllers.broker;
 
-import com.datastax.oss.kaap.common.SerializationUtil;
-import com.datastax.oss.kaap.common.json.JSONComparator;
 import com.datastax.oss.kaap.controllers.AbstractResourceSetsController;
 import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
 import com.datastax.oss.kaap.crds.GlobalSpec;
-import com.datastax.oss.kaap.crds.SpecDiffer;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
@@ -78,7 +75,7 @@ public class BrokerController extends
     public static class BrokerSetsLastApplied
             implements AbstractResourceSetsController.SetsLastApplied<BrokerFullSpec> {
         private BrokerFullSpec common;
-        private Map<String, BrokerFullSpec> sets = new HashMap<>();
+        private Map<String, String> sets = new HashMap<>();
     }
 
 
@@ -160,31 +157,16 @@ public class BrokerController extends
     @Override
     protected BrokerResourcesFactory newFactory(OwnerReference ownerReference, String namespace, String setName,
                                                 BrokerSetSpec setSpec, GlobalSpec globalSpec) {
-        return new BrokerResourcesFactory(client, namespace, setName, setSpec, globalSpec, ownerReference);
-    }
-
-    @Override
-    protected JSONComparator.Result compareLastAppliedSetSpec(Broker resource,
-                                                              SetInfo<BrokerSetSpec, BrokerResourcesFactory> setInfo,
-                                                              BrokerFullSpec spec, BrokerFullSpec lastApplied) {
-        if (spec.getBroker().getSets() != null) {
-            spec = SerializationUtil.deepCloneObject(spec);
-            spec.getBroker().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(setInfo.getName()));
-        }
-
-        if (lastApplied != null && lastApplied.getBroker().getSets() != null) {
-            lastApplied = SerializationUtil.deepCloneObject(lastApplied);
-            lastApplied.getBroker().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(setInfo.getName()));
-        }
-        return SpecDiffer.generateDiff(lastApplied, spec);
+        final BrokerResourcesFactory factory =
+                new BrokerResourcesFactory(client, namespace, setName, setSpec, globalSpec, ownerReference);
+        factory.setResourcesCache(resourcesCache);
+        return factory;
     }
 
     @Override
     protected BrokerSetsLastApplied readSetsLastApplied(Broker resource) {
         final BrokerSetsLastApplied
-                setsLastApplied = getLastAppliedResource(resource, BrokerSetsLastApplied.class);
+                setsLastApplied = readSetsLastApplied(resource, BrokerSetsLastApplied.class);
         if (setsLastApplied == null) {
             return new BrokerSetsLastApplied();
         }
@@ -44,6 +44,7 @@ public class FunctionsWorkerController extends AbstractController<FunctionsWorke
         final FunctionsWorkerResourcesFactory
                 resourcesFactory = new FunctionsWorkerResourcesFactory(
                 client, namespace, spec.getFunctionsWorker(), spec.getGlobal(), getOwnerReference(resource));
+        resourcesFactory.setResourcesCache(resourcesCache);
 
 
         if (!areSpecChanged(resource)) {
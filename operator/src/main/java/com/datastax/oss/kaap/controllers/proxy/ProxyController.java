@@ -15,12 +15,9 @@
  */
 package com.datastax.oss.kaap.controllers.proxy;
 
-import com.datastax.oss.kaap.common.SerializationUtil;
-import com.datastax.oss.kaap.common.json.JSONComparator;
 import com.datastax.oss.kaap.controllers.AbstractResourceSetsController;
 import com.datastax.oss.kaap.controllers.BaseResourcesFactory;
 import com.datastax.oss.kaap.crds.GlobalSpec;
-import com.datastax.oss.kaap.crds.SpecDiffer;
 import com.datastax.oss.kaap.crds.proxy.Proxy;
 import com.datastax.oss.kaap.crds.proxy.ProxyFullSpec;
 import com.datastax.oss.kaap.crds.proxy.ProxySetSpec;
@@ -71,7 +68,7 @@ public class ProxyController
     @NoArgsConstructor
     public static class ProxySetsLastApplied implements SetsLastApplied<ProxyFullSpec> {
         private ProxyFullSpec common;
-        private Map<String, ProxyFullSpec> sets = new HashMap<>();
+        private Map<String, String> sets = new HashMap<>();
     }
 
     @Override
@@ -135,7 +132,7 @@ public class ProxyController
             );
         }
         final Deployment deployment = resourcesFactory.getDeployment();
-        if (BaseResourcesFactory.isDeploymentReady(deployment, client)) {
+        if (BaseResourcesFactory.isDeploymentReady(deployment, client, resourcesCache)) {
             return new ReconciliationResult(
                     false,
                     List.of(createReadyCondition(resource))
@@ -156,35 +153,19 @@ public class ProxyController
     @Override
     protected ProxyResourcesFactory newFactory(OwnerReference ownerReference, String namespace, String setName,
                                                ProxySetSpec setSpec, GlobalSpec globalSpec) {
-        return new ProxyResourcesFactory(
+        final ProxyResourcesFactory factory = new ProxyResourcesFactory(
                 client, namespace, setName, setSpec,
                 globalSpec, ownerReference);
+        factory.setResourcesCache(resourcesCache);
+        return factory;
     }
 
     @Override
     protected ProxySetsLastApplied readSetsLastApplied(Proxy resource) {
-        final ProxySetsLastApplied proxySetsLastApplied = getLastAppliedResource(resource, ProxySetsLastApplied.class);
+        final ProxySetsLastApplied proxySetsLastApplied = readSetsLastApplied(resource, ProxySetsLastApplied.class);
         if (proxySetsLastApplied == null) {
             return new ProxySetsLastApplied();
         }
         return proxySetsLastApplied;
     }
-
-    @Override
-    protected JSONComparator.Result compareLastAppliedSetSpec(Proxy proxy,
-                                                              SetInfo<ProxySetSpec, ProxyResourcesFactory> info,
-                                                              ProxyFullSpec spec, ProxyFullSpec lastApplied) {
-        if (spec.getProxy().getSets() != null) {
-            spec = SerializationUtil.deepCloneObject(spec);
-            spec.getProxy().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(info.getName()));
-        }
-
-        if (lastApplied != null && lastApplied.getProxy().getSets() != null) {
-            lastApplied = SerializationUtil.deepCloneObject(lastApplied);
-            lastApplied.getProxy().getSets().entrySet()
-                    .removeIf(e -> !e.getKey().equals(info.getName()));
-        }
-        return SpecDiffer.generateDiff(lastApplied, spec);
-    }
 }
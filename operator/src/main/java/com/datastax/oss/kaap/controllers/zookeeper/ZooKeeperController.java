@@ -45,6 +45,7 @@ public class ZooKeeperController extends AbstractController<ZooKeeper> {
         final ZooKeeperFullSpec spec = resource.getSpec();
         final ZooKeeperResourcesFactory resourcesFactory = new ZooKeeperResourcesFactory(
                 client, namespace, spec.getZookeeper(), spec.getGlobal(), getOwnerReference(resource));
+        resourcesFactory.setResourcesCache(resourcesCache);
 
 
         if (!areSpecChanged(resource)) {
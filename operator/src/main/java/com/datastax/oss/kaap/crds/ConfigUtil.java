@@ -15,74 +15,109 @@
  */
 package com.datastax.oss.kaap.crds;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 import lombok.SneakyThrows;
-import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
 
 public class ConfigUtil {
-    private ConfigUtil() {
+
+    private enum FieldKind {
+        COLLECTION,
+        MAP,
+        JAVA,
+        NESTED
     }
 
-    @SneakyThrows
-    public static <T> T applyDefaultsWithReflection(T object, Supplier<T> defaultObject) {
-        final Class<?> declaringClass;
-        if (object == null) {
-            final T defObject = defaultObject.get();
-            if (defObject == null) {
+    private record FieldAccessor(Class<?> declaringClass, FieldKind kind, MethodHandle getter,
+                                 MethodHandle setter) {
+
+        @SneakyThrows
+        Object get(Object object) {
+            if (object == null || !declaringClass.isInstance(object)) {
                 return null;
             }
-            object = (T) defObject.getClass().getConstructor().newInstance();
-            declaringClass = defObject.getClass();
-        } else {
-            declaringClass = object.getClass();
+            return getter.invokeExact(object);
+        }
+
+        @SneakyThrows
+        void set(Object object, Object value) {
+            setter.invokeExact(object, value);
         }
-        final List<Field> allFields = FieldUtils.getAllFieldsList(declaringClass);
-        for (Field field : allFields) {
+    }
+
+    private static final ClassValue<List<FieldAccessor>> FIELD_ACCESSORS = new ClassValue<>() {
+        @Override
+        protected List<FieldAccessor> computeValue(Class<?> type) {
+            return computeFieldAccessors(type);
+        }
+    };
+
+    private ConfigUtil() {
+    }
+
+    @SneakyThrows
+    private static List<FieldAccessor> computeFieldAccessors(Class<?> type) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final List<FieldAccessor> accessors = new ArrayList<>();
+        for (Field field : FieldUtils.getAllFieldsList(type)) {
             if (Modifier.isStatic(field.getModifiers())) {
                 continue;
             }
-            final Object newValue;
-
+            final FieldKind kind;
             if (Collection.class.isAssignableFrom(field.getType())) {
-                newValue = handleCollections(
-                        (Collection) readField(defaultObject.get(), field.getName()),
-                        (Collection) readField(object, field.getName()));
+                kind = FieldKind.COLLECTION;
             } else if (Map.class.isAssignableFrom(field.getType())) {
-                newValue = mergeMaps(
-                        (Map) readField(defaultObject.get(), field.getName()),
-                        (Map) readField(object, field.getName()));
+                kind = FieldKind.MAP;
             } else if (field.getType().getName().startsWith("java.")) {
-                final Object finalObj = object;
-                newValue = ObjectUtils.getFirstNonNull(
-                        () -> readField(finalObj, field.getName()),
-                        () -> readField(defaultObject.get(), field.getName())
-                );
+                kind = FieldKind.JAVA;
             } else {
-                newValue = applyDefaultsWithReflection(
-                        readField(object, field.getName()),
-                        () -> readField(defaultObject.get(), field.getName())
-                );
+                kind = FieldKind.NESTED;
             }
-            FieldUtils.writeField(field, object, newValue, true);
+            field.setAccessible(true);
+            accessors.add(new FieldAccessor(field.getDeclaringClass(), kind,
+                    lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class)),
+                    lookup.unreflectSetter(field)
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class))));
         }
-        return object;
+        return List.copyOf(accessors);
     }
 
     @SneakyThrows
-    private static Object readField(Object object, String fieldName) {
+    public static <T> T applyDefaultsWithReflection(T object, Supplier<T> defaultObject) {
+        // evaluated once, the supplier might build a new object on every call
+        final T defObject = defaultObject.get();
+        final Class<?> declaringClass;
         if (object == null) {
-            return null;
+            if (defObject == null) {
+                return null;
+            }
+            object = (T) defObject.getClass().getConstructor().newInstance();
+            declaringClass = defObject.getClass();
+        } else {
+            declaringClass = object.getClass();
         }
-
-        final Object res = FieldUtils.readField(object, fieldName, true);
-        return res;
+        for (FieldAccessor field : FIELD_ACCESSORS.get(declaringClass)) {
+            final Object current = field.get(object);
+            final Object defaultValue = field.get(defObject);
+            final Object newValue = switch (field.kind()) {
+                case COLLECTION -> handleCollections((Collection) defaultValue, (Collection) current);
+                case MAP -> mergeMaps((Map) defaultValue, (Map) current);
+                case JAVA -> current != null ? current : defaultValue;
+                case NESTED -> applyDefaultsWithReflection(current, () -> defaultValue);
+            };
+            field.set(object, newValue);
+        }
+        return object;
     }
 
     public static <T> Map<String, T> mergeMaps(Map<String, T> parent, Map<String, T> child) {
@@ -0,0 +1,156 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.crds;
+
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSpec;
+import com.datastax.oss.kaap.crds.proxy.ProxySpec;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.SneakyThrows;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Json view of a full spec where the resource sets only contain one set.
+ * It's equivalent to removing all the other sets from a copy of the spec, but it's built in a single pass without
+ * serializing the other sets.
+ */
+public final class SetSpecView {
+
+    private static final String FILTER_ID = "single-set";
+    private static final String SETS_FIELD = "sets";
+
+    @JsonFilter(FILTER_ID)
+    private interface SingleSetFilterMixin {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .addMixIn(BookKeeperSpec.class, SingleSetFilterMixin.class)
+            .addMixIn(BrokerSpec.class, SingleSetFilterMixin.class)
+            .addMixIn(ProxySpec.class, SingleSetFilterMixin.class);
+
+    private SetSpecView() {
+    }
+
+    @SneakyThrows
+    public static JsonNode of(Object fullSpec, String setName) {
+        final TokenBuffer buffer = MAPPER.getSerializerProviderInstance().bufferForValueConversion(MAPPER);
+        MAPPER.writer(new SimpleFilterProvider().addFilter(FILTER_ID, new SingleSetFilter(setName)))
+                .writeValue(buffer, fullSpec);
+        try (final JsonParser parser = buffer.asParserOnFirstToken()) {
+            return MAPPER.readTree(parser);
+        }
+    }
+
+    /**
+     * Same view built from the json tree of a full spec, e.g. a full spec stored in the status by previous versions.
+     */
+    public static JsonNode of(JsonNode fullSpec, String setName) {
+        final JsonNode view = fullSpec.deepCopy();
+        for (JsonNode component : view) {
+            final JsonNode sets = component.get(SETS_FIELD);
+            if (sets instanceof ObjectNode) {
+                ((ObjectNode) sets).retain(setName);
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Hash of the view of the given set. Equal views always have the same hash, regardless of the order of the
+     * fields, the null fields and the numeric representation.
+     */
+    public static String hash(Object fullSpec, String setName) {
+        return hash(of(fullSpec, setName));
+    }
+
+    @SneakyThrows
+    public static String hash(JsonNode view) {
+        return DigestUtils.sha256Hex(MAPPER.writeValueAsBytes(canonical(view)));
+    }
+
+    private static JsonNode canonical(JsonNode node) {
+        if (node.isObject()) {
+            final Map<String, JsonNode> sorted = new TreeMap<>();
+            final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                final Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().isNull()) {
+                    sorted.put(field.getKey(), canonical(field.getValue()));
+                }
+            }
+            final ObjectNode result = JsonNodeFactory.instance.objectNode();
+            result.setAll(sorted);
+            return result;
+        }
+        if (node.isArray()) {
+            final ArrayNode result = JsonNodeFactory.instance.arrayNode(node.size());
+            node.forEach(element -> result.add(canonical(element)));
+            return result;
+        }
+        if (node.isNumber()) {
+            return JsonNodeFactory.instance.numberNode(node.decimalValue().stripTrailingZeros());
+        }
+        return node;
+    }
+
+    private static class SingleSetFilter extends SimpleBeanPropertyFilter {
+        private final String setName;
+
+        SingleSetFilter(String setName) {
+            this.setName = setName;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (!SETS_FIELD.equals(writer.getName()) || !(writer instanceof BeanPropertyWriter)) {
+                writer.serializeAsField(pojo, gen, provider);
+                return;
+            }
+            final Object sets = ((BeanPropertyWriter) writer).get(pojo);
+            if (!(sets instanceof Map)) {
+                writer.serializeAsField(pojo, gen, provider);
+                return;
+            }
+            gen.writeFieldName(SETS_FIELD);
+            gen.writeStartObject();
+            final Map<?, ?> setsMap = (Map<?, ?>) sets;
+            if (setsMap.containsKey(setName)) {
+                gen.writeFieldName(setName);
+                provider.defaultSerializeValue(setsMap.get(setName), gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.datastax.oss.kaap.crds;
 
+import com.datastax.oss.kaap.OperatorEvents;
 import com.datastax.oss.kaap.common.SerializationUtil;
-import com.datastax.oss.kaap.common.json.JSONAssertComparator;
 import com.datastax.oss.kaap.common.json.JSONComparator;
+import com.datastax.oss.kaap.common.json.JsonNodeComparator;
 import java.util.List;
+import java.util.function.Supplier;
 import lombok.extern.jbosslog.JBossLog;
 
 @JBossLog
@@ -48,6 +50,8 @@ public class SpecDiffer {
         }
     };
 
+    private static final JsonNodeComparator COMPARATOR = new JsonNodeComparator();
+
     private SpecDiffer() {
     }
 
@@ -61,9 +65,7 @@ public class SpecDiffer {
         if (actualJson == null) {
             return ACTUAL_WAS_NULL_RESULT;
         }
-        return new JSONAssertComparator()
-                .compare(expectedJson, actualJson);
-
+        return compare(expectedJson, () -> COMPARATOR.compare(expectedJson, actualJson));
     }
 
     public static JSONComparator.Result generateDiff(Object expectedSpec, Object actualSpec) {
@@ -76,9 +78,25 @@ public class SpecDiffer {
         if (actualSpec == null) {
             return ACTUAL_WAS_NULL_RESULT;
         }
-        final String expectedStr = SerializationUtil.writeAsJson(expectedSpec);
-        final String actualStr = SerializationUtil.writeAsJson(actualSpec);
-        return generateDiff(expectedStr, actualStr);
+        return compare(expectedSpec, () -> COMPARATOR.compare(SerializationUtil.toJsonTree(expectedSpec),
+                SerializationUtil.toJsonTree(actualSpec)));
+    }
+
+    /**
+     * Compare two full specs considering only the common fields and the given resource set.
+     */
+    public static JSONComparator.Result generateSetDiff(Object expectedSpec, Object actualSpec, String setName) {
+        if (expectedSpec == null && actualSpec == null) {
+            return JSONComparator.RESULT_EQUALS;
+        }
+        if (expectedSpec == null) {
+            return EXPECTED_WAS_NULL_RESULT;
+        }
+        if (actualSpec == null) {
+            return ACTUAL_WAS_NULL_RESULT;
+        }
+        return compare(expectedSpec, () -> COMPARATOR.compare(SetSpecView.of(expectedSpec, setName),
+                SetSpecView.of(actualSpec, setName)));
     }
 
     public static JSONComparator.Result generateDiff(Object expectedSpec, String actualJson) {
@@ -91,8 +109,8 @@ public class SpecDiffer {
         if (actualJson == null) {
             return ACTUAL_WAS_NULL_RESULT;
         }
-        final String expectedStr = SerializationUtil.writeAsJson(expectedSpec);
-        return generateDiff(expectedStr, actualJson);
+        return compare(expectedSpec, () -> COMPARATOR.compare(SerializationUtil.toJsonTree(expectedSpec),
+                SerializationUtil.readJsonTree(actualJson)));
     }
 
     public static JSONComparator.Result generateDiff(String expectedJson, Object actualSpec) {
@@ -105,10 +123,16 @@ public class SpecDiffer {
         if (actualSpec == null) {
             return EXPECTED_WAS_NULL_RESULT;
         }
-        final String actualStr = SerializationUtil.writeAsJson(actualSpec);
-        return generateDiff(expectedJson, actualStr);
+        return compare(actualSpec, () -> COMPARATOR.compare(SerializationUtil.readJsonTree(expectedJson),
+                SerializationUtil.toJsonTree(actualSpec)));
     }
 
+    private static JSONComparator.Result compare(Object spec, Supplier<JSONComparator.Result> comparison) {
+        final OperatorEvents.SpecDiffEvent event = OperatorEvents.beginSpecDiff();
+        final JSONComparator.Result result = comparison.get();
+        OperatorEvents.endSpecDiff(event, spec, result);
+        return result;
+    }
 
     public static void logDetailedSpecDiff(JSONComparator.Result diff) {
         logDetailedSpecDiff(diff, null, null);
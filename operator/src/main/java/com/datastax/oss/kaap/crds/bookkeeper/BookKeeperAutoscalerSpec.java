@@ -85,5 +85,16 @@ public class BookKeeperAutoscalerSpec {
                     + "Default value is 5 minutes after the pod readiness.")
     Long stabilizationWindowMs;
 
+    @JsonPropertyDescription("Force a garbage collection on the bookies at risk of running out of disk space before "
+            + "scaling up. The autoscaler triggers the GC through the bookie's HTTP API, waits 'forceGcWaitMs' and "
+            + "measures the disk usage again. It scales up only if the bookies are still at risk. Default is 'false'.")
+    Boolean forceGcBeforeScaleUp;
+
+    @Min(0)
+    @javax.validation.constraints.Min(0)
+    @JsonPropertyDescription("The time in milliseconds to wait for a forced garbage collection to reclaim disk space "
+            + "before measuring the disk usage again. Default is 2 minutes.")
+    Long forceGcWaitMs;
+
 
 }
@@ -101,6 +101,8 @@ public class BookKeeperSetSpec extends BaseComponentSpec<BookKeeperSetSpec> {
             .stabilizationWindowMs(TimeUnit.MINUTES.toMillis(5))
             .diskUsageToleranceHwm(0.92d)
             .diskUsageToleranceLwm(0.75d)
+            .forceGcBeforeScaleUp(false)
+            .forceGcWaitMs(TimeUnit.MINUTES.toMillis(2))
             .build();
 
 
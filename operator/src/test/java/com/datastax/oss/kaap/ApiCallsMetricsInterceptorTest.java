@@ -0,0 +1,51 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import java.net.URI;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ApiCallsMetricsInterceptorTest {
+
+    @Test
+    public void testParse() {
+        assertApiCall("GET", "/api/v1/namespaces/ns/pods/pulsar-broker-0", "get", "pods");
+        assertApiCall("GET", "/api/v1/namespaces/ns/pods?labelSelector=app%3Dpulsar", "list", "pods");
+        assertApiCall("GET", "/api/v1/namespaces/ns/pods?watch=true&resourceVersion=1", "watch", "pods");
+        assertApiCall("GET", "/api/v1/namespaces/ns/pods/pulsar-bookkeeper-0/exec?command=ls", "get",
+                "pods/exec");
+        assertApiCall("PATCH", "/apis/apps/v1/namespaces/ns/statefulsets/pulsar-broker", "patch", "statefulsets");
+        assertApiCall("PUT", "/apis/kaap.oss.datastax.com/v1alpha1/namespaces/ns/brokers/pulsar-broker/status",
+                "update", "brokers/status");
+        assertApiCall("POST", "/apis/batch/v1/namespaces/ns/jobs", "create", "jobs");
+        assertApiCall("DELETE", "/api/v1/namespaces/ns/persistentvolumeclaims/ledgers-0", "delete",
+                "persistentvolumeclaims");
+        assertApiCall("DELETE", "/api/v1/namespaces/ns/pods", "deletecollection", "pods");
+        // cluster scoped
+        assertApiCall("GET", "/apis/storage.k8s.io/v1/storageclasses/default", "get", "storageclasses");
+        assertApiCall("GET", "/api/v1/namespaces/ns", "get", "namespaces");
+        assertApiCall("GET", "/api/v1/namespaces", "list", "namespaces");
+        assertApiCall("GET", "/apis/metrics.k8s.io/v1beta1/namespaces/ns/pods", "list", "pods");
+        assertApiCall("GET", "/version", "get", "other");
+    }
+
+    private static void assertApiCall(String method, String path, String verb, String kind) {
+        final ApiCallsMetricsInterceptor.ApiCall apiCall =
+                ApiCallsMetricsInterceptor.parse(method, URI.create("https://localhost:6443" + path));
+        Assert.assertEquals(apiCall, new ApiCallsMetricsInterceptor.ApiCall(verb, kind), path);
+    }
+}
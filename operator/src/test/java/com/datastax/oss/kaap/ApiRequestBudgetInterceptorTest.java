@@ -0,0 +1,139 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.controllers.ReconciliationReadCache;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ApiRequestBudgetInterceptorTest {
+
+    @Test
+    public void testClassify() {
+        assertVerbClass("GET", "/api/v1/namespaces/ns/pods/pulsar-broker-0", ApiRequestBudgetInterceptor.VerbClass.READ);
+        assertVerbClass("GET", "/api/v1/namespaces/ns/pods", ApiRequestBudgetInterceptor.VerbClass.READ);
+        assertVerbClass("GET", "/api/v1/namespaces/ns/pods?watch=true",
+                ApiRequestBudgetInterceptor.VerbClass.UNLIMITED);
+        assertVerbClass("PATCH", "/apis/apps/v1/namespaces/ns/statefulsets/pulsar-broker",
+                ApiRequestBudgetInterceptor.VerbClass.WRITE);
+        assertVerbClass("POST", "/apis/batch/v1/namespaces/ns/jobs", ApiRequestBudgetInterceptor.VerbClass.WRITE);
+        assertVerbClass("DELETE", "/api/v1/namespaces/ns/pods", ApiRequestBudgetInterceptor.VerbClass.WRITE);
+        assertVerbClass("PUT", "/apis/coordination.k8s.io/v1/namespaces/ns/leases/kaap-shard-0",
+                ApiRequestBudgetInterceptor.VerbClass.UNLIMITED);
+    }
+
+    @Test
+    public void testTokenBucket() {
+        final AtomicLong clock = new AtomicLong();
+        final ApiRequestBudgetInterceptor.TokenBucket bucket =
+                new ApiRequestBudgetInterceptor.TokenBucket(10, clock::get);
+        // burst of two seconds of permits
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(bucket.reserve(), 0L);
+        }
+        // the waiting requests are queued one after the other
+        Assert.assertEquals(bucket.reserve(), TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals(bucket.reserve(), TimeUnit.MILLISECONDS.toNanos(200));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+        Assert.assertEquals(bucket.reserve(), 0L);
+        Assert.assertEquals(bucket.reserve(), TimeUnit.MILLISECONDS.toNanos(100));
+
+        // the refill is capped to the burst
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(bucket.reserve(), 0L);
+        }
+        Assert.assertTrue(bucket.reserve() > 0);
+    }
+
+    @Test
+    public void testBudgetPerVerbClass() {
+        final AtomicLong clock = new AtomicLong();
+        final ApiRequestBudgetInterceptor budget = new ApiRequestBudgetInterceptor(1, 0, clock::get);
+        Assert.assertEquals(budget.reserve(ApiRequestBudgetInterceptor.VerbClass.READ), 0L);
+        Assert.assertEquals(budget.reserve(ApiRequestBudgetInterceptor.VerbClass.READ), 0L);
+        Assert.assertEquals(budget.reserve(ApiRequestBudgetInterceptor.VerbClass.READ),
+                TimeUnit.SECONDS.toNanos(1));
+        // writes are not limited
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(budget.reserve(ApiRequestBudgetInterceptor.VerbClass.WRITE), 0L);
+            Assert.assertEquals(budget.reserve(ApiRequestBudgetInterceptor.VerbClass.UNLIMITED), 0L);
+        }
+    }
+
+    @Test
+    public void testThrottlingMetrics() {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            final ApiRequestBudgetInterceptor budget = new ApiRequestBudgetInterceptor(0, 1000, () -> 0L);
+            // the last request waits 1ms
+            for (int i = 0; i < 2001; i++) {
+                budget.onRequest("PATCH", URI.create("https://localhost:6443/api/v1/namespaces/ns/configmaps/cm"));
+            }
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.API_THROTTLING_DELAY)
+                    .tags("class", "write").timer().count(), 1L);
+            Assert.assertTrue(meterRegistry.find(OperatorMetrics.API_THROTTLING_DELAY)
+                    .tags("class", "read").timers().isEmpty());
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    @Test
+    public void testWritesInvalidateCoalescedReads() {
+        final ApiRequestBudgetInterceptor budget = new ApiRequestBudgetInterceptor(0, 0);
+        final AtomicInteger reads = new AtomicInteger();
+        final ConfigMap configMap = new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("cm")
+                .endMetadata()
+                .build();
+        ReconciliationReadCache.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                ReconciliationReadCache.get(ConfigMap.class, "ns", "cm", () -> {
+                    reads.incrementAndGet();
+                    return configMap;
+                });
+                budget.onRequest("GET", URI.create("https://localhost:6443/api/v1/namespaces/ns/configmaps/cm"));
+            }
+            Assert.assertEquals(reads.get(), 1);
+            budget.onRequest("PATCH", URI.create("https://localhost:6443/api/v1/namespaces/ns/configmaps/cm"));
+            ReconciliationReadCache.get(ConfigMap.class, "ns", "cm", () -> {
+                reads.incrementAndGet();
+                return configMap;
+            });
+            Assert.assertEquals(reads.get(), 2);
+        } finally {
+            ReconciliationReadCache.stop();
+        }
+    }
+
+    private static void assertVerbClass(String method, String path, ApiRequestBudgetInterceptor.VerbClass expected) {
+        Assert.assertEquals(ApiRequestBudgetInterceptor.classify(
+                ApiCallsMetricsInterceptor.parse(method, URI.create("https://localhost:6443" + path))), expected, path);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import com.datastax.oss.kaap.common.json.JSONComparator;
+import com.datastax.oss.kaap.crds.SpecDiffer;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FlightRecorderEndpointTest {
+
+    // other tests may still run autoscalers and reconciliations, the events of this test are in its own namespace
+    private static final String NAMESPACE = "flight-recorder";
+
+    @Test
+    public void testRecording() throws Exception {
+        final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint(true);
+        Assert.assertTrue(endpoint.status().contains("NONE"));
+        Assert.assertThrows(IllegalStateException.class, endpoint::stop);
+        Assert.assertThrows(IllegalArgumentException.class, () -> endpoint.start(null, "unknown"));
+
+        endpoint.start(null, "default");
+        Assert.assertTrue(endpoint.status().contains("RUNNING"));
+        Assert.assertThrows(IllegalStateException.class, () -> endpoint.start(null, "default"));
+
+        final ConfigMap configMap = new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("pulsar-broker")
+                .withNamespace(NAMESPACE)
+                .endMetadata()
+                .build();
+        OperatorMetrics.startCountingApiCalls();
+        try {
+            final OperatorEvents.ReconciliationPhaseEvent phase =
+                    OperatorEvents.beginReconciliationPhase(configMap, OperatorMetrics.PHASE_PATCH);
+            final OperatorEvents.PatchEvent patch = OperatorEvents.beginPatch(configMap, NAMESPACE);
+            OperatorMetrics.recordApiCall("patch", "configmaps");
+            OperatorMetrics.recordApiCall("get", "configmaps");
+            OperatorEvents.endPatch(patch, "applied");
+            OperatorEvents.endReconciliationPhase(phase);
+        } finally {
+            OperatorMetrics.stopCountingApiCalls("ConfigMap");
+        }
+        SpecDiffer.generateDiff(Map.of("a", 1, "b", 1), Map.of("a", 2, "b", 2));
+        final OperatorEvents.PodExecEvent exec = OperatorEvents.beginPodExec(NAMESPACE, "pulsar-broker-0", "broker");
+        OperatorEvents.endPodExec(exec, true, 128);
+        OperatorEvents.autoscalerDecision("broker", NAMESPACE, "broker", OperatorMetrics.DECISION_SCALE_UP,
+                "cpu_high");
+
+        final Path file = endpoint.stop();
+        try {
+            Assert.assertTrue(endpoint.status().contains("NONE"));
+            final List<RecordedEvent> allEvents = RecordingFile.readAllEvents(file);
+            for (String sensitive : FlightRecorderEndpoint.SENSITIVE_EVENTS) {
+                Assert.assertTrue(allEvents.stream()
+                        .noneMatch(event -> event.getEventType().getName().equals(sensitive)), sensitive);
+            }
+            final Map<String, List<RecordedEvent>> events = allEvents.stream()
+                    .filter(event -> event.getEventType().getName().startsWith("kaap."))
+                    .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+            final RecordedEvent phase = events.get("kaap.ReconciliationPhase").stream()
+                    .filter(event -> NAMESPACE.equals(event.getString("namespace")))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertEquals(phase.getString("kind"), "ConfigMap");
+            Assert.assertEquals(phase.getString("namespace"), NAMESPACE);
+            Assert.assertEquals(phase.getString("name"), "pulsar-broker");
+            Assert.assertEquals(phase.getString("phase"), OperatorMetrics.PHASE_PATCH);
+            Assert.assertEquals(phase.getLong("apiCalls"), 2L);
+
+            final RecordedEvent patch = events.get("kaap.Patch").stream()
+                    .filter(event -> NAMESPACE.equals(event.getString("namespace")))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertEquals(patch.getString("result"), "applied");
+            Assert.assertEquals(patch.getLong("apiCalls"), 2L);
+
+            final RecordedEvent diff = events.get("kaap.SpecDiff").stream()
+                    .filter(event -> !event.getBoolean("equal"))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertEquals(diff.getInt("diffSize"), 2);
+
+            final RecordedEvent podExec = events.get("kaap.PodExec").stream()
+                    .filter(event -> NAMESPACE.equals(event.getString("namespace")))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertEquals(podExec.getString("pod"), "pulsar-broker-0");
+            Assert.assertTrue(podExec.getBoolean("success"));
+            Assert.assertEquals(podExec.getLong("outputSize"), 128L);
+
+            final RecordedEvent decision = events.get("kaap.AutoscalerDecision").stream()
+                    .filter(event -> NAMESPACE.equals(event.getString("namespace")))
+                    .findFirst()
+                    .orElseThrow();
+            Assert.assertEquals(decision.getString("component"), "broker");
+            Assert.assertEquals(decision.getString("decision"), OperatorMetrics.DECISION_SCALE_UP);
+            Assert.assertEquals(decision.getString("reason"), "cpu_high");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testLoopbackAddress() {
+        Assert.assertTrue(FlightRecorderEndpoint.isLoopbackAddress("127.0.0.1"));
+        Assert.assertTrue(FlightRecorderEndpoint.isLoopbackAddress("0:0:0:0:0:0:0:1"));
+        Assert.assertFalse(FlightRecorderEndpoint.isLoopbackAddress("10.244.0.12"));
+        Assert.assertFalse(FlightRecorderEndpoint.isLoopbackAddress(null));
+    }
+
+    @Test
+    public void testNotRecording() {
+        // without a recording the events are not committed
+        final OperatorEvents.PodExecEvent exec = OperatorEvents.beginPodExec("ns", "pulsar-broker-0", "broker");
+        Assert.assertFalse(exec.isEnabled());
+        OperatorEvents.endPodExec(exec, true, 128);
+
+        // the diffs are computed lazily, they must not be listed for an event that is not recorded
+        final JSONComparator.Result result = mock(JSONComparator.Result.class);
+        OperatorEvents.endSpecDiff(OperatorEvents.beginSpecDiff(), Map.of(), result);
+        verify(result, never()).diffs();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.datastax.oss.kaap.controllers.NamespaceWorkLimiter;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.javaoperatorsdk.operator.Operator;
+import io.javaoperatorsdk.operator.RegisteredController;
+import java.util.List;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NamespaceWatcherTest {
+
+    @Test
+    public void testApply() {
+        final KubernetesClient client = mock(KubernetesClient.class);
+        when(client.getNamespace()).thenReturn("kaap");
+        final RegisteredController<?> controller = mock(RegisteredController.class);
+        when(controller.allowsNamespaceChanges()).thenReturn(true);
+        final RegisteredController<?> fixedController = mock(RegisteredController.class);
+        final Operator operator = mock(Operator.class);
+        when(operator.getRegisteredControllers()).thenReturn(Set.of(controller, fixedController));
+
+        final NamespaceWorkLimiter limiter = new NamespaceWorkLimiter(1);
+        final NamespaceWatcher watcher = new NamespaceWatcher(client, operator, null, limiter, "tenant=true");
+        watcher.apply(List.of("ns2", "ns1"));
+        Assert.assertEquals(watcher.getWatchedNamespaces(), Set.of("ns1", "ns2"));
+        verify(controller).changeNamespaces(Set.of("ns1", "ns2"));
+
+        // unchanged selection
+        watcher.apply(List.of("ns1", "ns2"));
+        verify(controller, times(1)).changeNamespaces(anySet());
+
+        Assert.assertTrue(limiter.tryAcquire("ns2"));
+        watcher.apply(List.of("ns1"));
+        verify(controller).changeNamespaces(Set.of("ns1"));
+        // the permits of the unwatched namespace are dropped
+        Assert.assertTrue(limiter.tryAcquire("ns2"));
+
+        // nothing selected, fallback to the operator namespace
+        watcher.apply(List.of());
+        Assert.assertEquals(watcher.getWatchedNamespaces(), Set.of("kaap"));
+        verify(controller).changeNamespaces(Set.of("kaap"));
+        verify(fixedController, never()).changeNamespaces(anySet());
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NamespacedDaemonThreadTest {
+
+    /**
+     * Schedules a task for each broker set with at least one replica.
+     */
+    private static class TestDaemon extends NamespacedDaemonThread<Integer> {
+
+        private final ScheduledExecutorService executorService;
+        private final Map<String, List<ScheduledFuture<?>>> scheduled = new HashMap<>();
+        private volatile Runnable task = () -> {
+        };
+
+        TestDaemon(ScheduledExecutorService executorService) {
+            this.executorService = executorService;
+        }
+
+        @Override
+        protected Map<String, Integer> getSpecs(PulsarClusterSpec clusterSpec) {
+            return clusterSpec.getBroker().getSets().entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getReplicas()));
+        }
+
+        @Override
+        protected ScheduledFuture<?> schedule(String namespace, String name, Integer spec,
+                                              PulsarClusterSpec clusterSpec) {
+            if (spec == 0) {
+                return null;
+            }
+            final ScheduledFuture<?> future = executorService.scheduleWithFixedDelay(task, 0, 1, TimeUnit.HOURS);
+            synchronized (scheduled) {
+                scheduled.computeIfAbsent(namespace + "/" + name, k -> new ArrayList<>()).add(future);
+            }
+            return future;
+        }
+
+        ScheduledFuture<?> last(String namespace, String name) {
+            synchronized (scheduled) {
+                final List<ScheduledFuture<?>> futures = scheduled.get(namespace + "/" + name);
+                return futures.get(futures.size() - 1);
+            }
+        }
+
+        int count(String namespace, String name) {
+            synchronized (scheduled) {
+                return scheduled.getOrDefault(namespace + "/" + name, List.of()).size();
+            }
+        }
+
+        List<ScheduledFuture<?>> all() {
+            synchronized (scheduled) {
+                return scheduled.values().stream().flatMap(List::stream).collect(Collectors.toList());
+            }
+        }
+    }
+
+    private static PulsarClusterSpec spec(Object... setsAndReplicas) {
+        final LinkedHashMap<String, BrokerSetSpec> sets = new LinkedHashMap<>();
+        for (int i = 0; i < setsAndReplicas.length; i += 2) {
+            sets.put((String) setsAndReplicas[i],
+                    BrokerSetSpec.builder().replicas((Integer) setsAndReplicas[i + 1]).build());
+        }
+        return PulsarClusterSpec.builder()
+                .broker(BrokerSpec.builder().sets(sets).build())
+                .build();
+    }
+
+    @Test
+    public void testRescheduleOnlyChangedSets() {
+        final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try (final TestDaemon daemon = new TestDaemon(executorService)) {
+            daemon.onSpecChange(spec("set1", 1, "set2", 1), "ns1");
+            daemon.onSpecChange(spec("set1", 1), "ns2");
+            final ScheduledFuture<?> ns1set1 = daemon.last("ns1", "set1");
+            final ScheduledFuture<?> ns1set2 = daemon.last("ns1", "set2");
+            final ScheduledFuture<?> ns2set1 = daemon.last("ns2", "set1");
+
+            // unchanged
+            daemon.onSpecChange(spec("set1", 1, "set2", 1), "ns1");
+            Assert.assertEquals(daemon.count("ns1", "set1"), 1);
+            Assert.assertEquals(daemon.count("ns1", "set2"), 1);
+
+            // only set2 of ns1 changes
+            daemon.onSpecChange(spec("set1", 1, "set2", 2), "ns1");
+            Assert.assertFalse(ns1set1.isCancelled());
+            Assert.assertTrue(ns1set2.isCancelled());
+            Assert.assertFalse(ns2set1.isCancelled());
+            Assert.assertEquals(daemon.count("ns1", "set1"), 1);
+            Assert.assertEquals(daemon.count("ns1", "set2"), 2);
+            Assert.assertFalse(daemon.last("ns1", "set2").isCancelled());
+
+            // set2 disabled, set3 added
+            daemon.onSpecChange(spec("set1", 1, "set2", 0, "set3", 1), "ns1");
+            Assert.assertTrue(daemon.last("ns1", "set2").isCancelled());
+            Assert.assertEquals(daemon.getScheduledTasks("ns1"), Set.of("set1", "set3"));
+
+            // set3 removed
+            final ScheduledFuture<?> ns1set3 = daemon.last("ns1", "set3");
+            daemon.onSpecChange(spec("set1", 1, "set2", 0), "ns1");
+            Assert.assertTrue(ns1set3.isCancelled());
+            Assert.assertEquals(daemon.getScheduledTasks("ns1"), Set.of("set1"));
+            Assert.assertFalse(ns1set1.isCancelled());
+            Assert.assertEquals(daemon.getScheduledTasks("ns2"), Set.of("set1"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStopNamespace() {
+        final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        try (final TestDaemon daemon = new TestDaemon(executorService)) {
+            daemon.onSpecChange(spec("set1", 1), "ns1");
+            daemon.onSpecChange(spec("set1", 1), "ns2");
+            final ScheduledFuture<?> ns1set1 = daemon.last("ns1", "set1");
+
+            daemon.stop("ns1");
+            Assert.assertTrue(ns1set1.isCancelled());
+            Assert.assertFalse(daemon.last("ns2", "set1").isCancelled());
+            Assert.assertEquals(daemon.getScheduledTasks("ns1"), Set.of());
+
+            // scheduled again even if the spec is unchanged
+            daemon.onSpecChange(spec("set1", 1), "ns1");
+            Assert.assertEquals(daemon.count("ns1", "set1"), 2);
+            Assert.assertFalse(daemon.last("ns1", "set1").isCancelled());
+
+            daemon.close();
+            Assert.assertTrue(daemon.all().stream().allMatch(Future::isCancelled));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(timeOut = 10000)
+    public void testCancelDoesNotWaitForRunningTask() throws Exception {
+        final ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final TestDaemon daemon = new TestDaemon(executorService)) {
+            daemon.task = () -> {
+                running.countDown();
+                // ignores the interruption
+                while (true) {
+                    try {
+                        release.await();
+                        return;
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            };
+            daemon.onSpecChange(spec("set1", 1), "ns1");
+            running.await();
+            daemon.onSpecChange(spec("set1", 2), "ns1");
+            daemon.stop("ns1");
+            Assert.assertEquals(release.getCount(), 1);
+        } finally {
+            release.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentChanges() throws Exception {
+        final ScheduledExecutorService executorService = Executors.newScheduledThreadPool(2);
+        final ExecutorService callers = Executors.newFixedThreadPool(8);
+        try (final TestDaemon daemon = new TestDaemon(executorService)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                final String namespace = "ns" + (i % 4);
+                final int replicas = 1 + i % 3;
+                final boolean stop = i % 7 == 0;
+                futures.add(callers.submit(() -> {
+                    if (stop) {
+                        daemon.stop(namespace);
+                    } else {
+                        daemon.onSpecChange(spec("set1", replicas, "set2", 1), namespace);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            for (int i = 0; i < 4; i++) {
+                daemon.onSpecChange(spec("set1", 1, "set2", 1), "ns" + i);
+            }
+            // exactly one live task for each set, all the replaced tasks are cancelled
+            Assert.assertEquals(daemon.all().stream().filter(f -> !f.isCancelled()).count(), 8L);
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals(daemon.getScheduledTasks("ns" + i), Set.of("set1", "set2"));
+                Assert.assertFalse(daemon.last("ns" + i, "set1").isCancelled());
+                Assert.assertFalse(daemon.last("ns" + i, "set2").isCancelled());
+            }
+        } finally {
+            callers.shutdownNow();
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.crds.autorecovery.Autorecovery;
+import com.datastax.oss.kaap.crds.bastion.Bastion;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeper;
+import com.datastax.oss.kaap.crds.broker.Broker;
+import com.datastax.oss.kaap.crds.cluster.PulsarCluster;
+import com.datastax.oss.kaap.crds.function.FunctionsWorker;
+import com.datastax.oss.kaap.crds.proxy.Proxy;
+import com.datastax.oss.kaap.crds.validation.ValidableSpec;
+import com.datastax.oss.kaap.crds.zookeeper.ZooKeeper;
+import io.fabric8.kubernetes.client.CustomResource;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NativeImageReflectionConfigTest {
+
+    private static final List<Class<? extends CustomResource<?, ?>>> CUSTOM_RESOURCES = List.of(
+            PulsarCluster.class,
+            ZooKeeper.class,
+            BookKeeper.class,
+            Broker.class,
+            Proxy.class,
+            Autorecovery.class,
+            Bastion.class,
+            FunctionsWorker.class
+    );
+
+    // the classes passed to the methods that deserialize JSON with Jackson
+    private static final Pattern DESERIALIZED_CLASS = Pattern.compile(
+            "(?:readJson|convertValue|readSetsLastApplied|getLastAppliedResource|checkpoint\\.get)"
+                    + "\\([^;]*?,\\s*([\\w.]+)\\.class\\)");
+    private static final Set<String> JDK_CLASSES = Set.of("Map");
+
+    @Test
+    public void testCustomResourcesRegistered() {
+        final RegisterForReflection registration =
+                NativeImageReflectionConfig.class.getAnnotation(RegisterForReflection.class);
+        Assert.assertTrue(registration.registerFullHierarchy());
+        final Set<Class<?>> targets = Set.of(registration.targets());
+        for (Class<? extends CustomResource<?, ?>> customResource : CUSTOM_RESOURCES) {
+            Assert.assertTrue(targets.contains(customResource), customResource.getName());
+            final Type[] types = ((ParameterizedType) customResource.getGenericSuperclass())
+                    .getActualTypeArguments();
+            for (Type type : types) {
+                Assert.assertTrue(targets.contains(type), type.getTypeName());
+            }
+            // the validators of the spec and the classes the defaults are applied to
+            for (Field field : ((Class<?>) types[0]).getDeclaredFields()) {
+                if (ValidableSpec.class.isAssignableFrom(field.getType())) {
+                    Assert.assertTrue(targets.contains(field.getType()), field.getType().getName());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDeserializedClassesRegistered() throws Exception {
+        final Set<String> targets = Stream.of(NativeImageReflectionConfig.class
+                        .getAnnotation(RegisterForReflection.class).targets())
+                .map(Class::getSimpleName)
+                .collect(Collectors.toSet());
+        final Set<String> deserialized = new HashSet<>();
+        for (Path sourceDir : List.of(Path.of("src/main/java"), Path.of("../operator-common/src/main/java"))) {
+            try (Stream<Path> sources = Files.walk(sourceDir)) {
+                for (Path source : sources.filter(path -> path.toString().endsWith(".java")).toList()) {
+                    final Matcher matcher = DESERIALIZED_CLASS.matcher(Files.readString(source));
+                    while (matcher.find()) {
+                        final String className = matcher.group(1);
+                        deserialized.add(className.substring(className.lastIndexOf('.') + 1));
+                    }
+                }
+            }
+        }
+        deserialized.removeAll(JDK_CLASSES);
+        Assert.assertTrue(deserialized.containsAll(Set.of("BrokerSetsLastApplied", "ForcedGcCheckpoint",
+                "BookiesRackConfiguration")), deserialized.toString());
+        for (String className : deserialized) {
+            Assert.assertTrue(targets.contains(className), className + " is deserialized but not registered");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import com.datastax.oss.kaap.autoscaler.BookKeeperSetAutoscaler;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.util.Map;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class OperatorCheckpointTest {
+
+    private KubernetesServer server;
+    private KubernetesClient client;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        server = new KubernetesServer(false, true);
+        server.before();
+        client = server.getClient();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        server.after();
+    }
+
+    @Test
+    public void testHandoff() {
+        final String key = OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, "ns", "bk");
+        final OperatorCheckpoint leader = new OperatorCheckpoint(client, true);
+        Assert.assertNull(leader.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+
+        leader.put(key, new BookKeeperSetAutoscaler.ForcedGcCheckpoint(Map.of("pul-bookkeeper-0", 10L), 1000L));
+        leader.put(OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, "ns", "bk2"),
+                new BookKeeperSetAutoscaler.ForcedGcCheckpoint(Map.of(), 2000L));
+        final ConfigMap configMap = client.configMaps().inNamespace(client.getNamespace())
+                .withName(OperatorCheckpoint.CONFIG_MAP_NAME).get();
+        Assert.assertEquals(configMap.getData().keySet(),
+                Set.of("bookkeeper-forced-gc.ns.bk", "bookkeeper-forced-gc.ns.bk2"));
+
+        // the new leader reads the entries of the previous one
+        final OperatorCheckpoint newLeader = new OperatorCheckpoint(client, true);
+        Assert.assertEquals(newLeader.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class),
+                new BookKeeperSetAutoscaler.ForcedGcCheckpoint(Map.of("pul-bookkeeper-0", 10L), 1000L));
+
+        newLeader.remove(key);
+        Assert.assertNull(leader.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+        Assert.assertNotNull(leader.get(OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, "ns", "bk2"),
+                BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+    }
+
+    @Test
+    public void testDisabled() {
+        final String key = OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, "ns", "bk");
+        final OperatorCheckpoint checkpoint = new OperatorCheckpoint(client, false);
+        checkpoint.put(key, new BookKeeperSetAutoscaler.ForcedGcCheckpoint(Map.of(), 1000L));
+        Assert.assertEquals(checkpoint.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class).getStartedAt(),
+                1000L);
+        Assert.assertNull(client.configMaps().inNamespace(client.getNamespace())
+                .withName(OperatorCheckpoint.CONFIG_MAP_NAME).get());
+
+        checkpoint.remove(key);
+        Assert.assertNull(checkpoint.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+    }
+
+    @Test
+    public void testUnreadableEntry() {
+        final String key = OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, "ns", "bk");
+        final OperatorCheckpoint checkpoint = new OperatorCheckpoint(client, true);
+        checkpoint.put(key, "not an object");
+        Assert.assertNull(checkpoint.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OperatorMetricsTest {
+
+    @Test
+    public void testReconciliationApiCalls() throws Exception {
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // not counted, no reconciliation running
+            OperatorMetrics.recordApiCall("get", "pods");
+
+            OperatorMetrics.startCountingApiCalls();
+            OperatorMetrics.recordApiCall("get", "pods");
+            OperatorMetrics.recordApiCall("patch", "statefulsets");
+            final Supplier<Boolean> task = OperatorMetrics.withApiCallsCounter(() -> {
+                OperatorMetrics.recordApiCall("get", "pods");
+                return true;
+            });
+            Assert.assertTrue(CompletableFuture.supplyAsync(task, executor).get());
+            // the counter is not leaked to the executor thread
+            CompletableFuture.runAsync(() -> OperatorMetrics.recordApiCall("get", "pods"), executor).get();
+            Assert.assertEquals(OperatorMetrics.stopCountingApiCalls("Broker"), 3);
+            Assert.assertEquals(OperatorMetrics.stopCountingApiCalls("Broker"), 0);
+
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.API_CALLS)
+                    .tags("verb", "get", "kind", "pods").counter().count(), 4.0);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.RECONCILIATION_API_CALLS)
+                    .tags("kind", "Broker").summary().totalAmount(), 3.0);
+        } finally {
+            executor.shutdownNow();
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+}
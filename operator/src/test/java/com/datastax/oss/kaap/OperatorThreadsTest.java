@@ -0,0 +1,180 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.javaoperatorsdk.operator.api.config.ConfigurationService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import lombok.SneakyThrows;
+import lombok.extern.jbosslog.JBossLog;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@JBossLog
+public class OperatorThreadsTest {
+
+    private static final int CLUSTERS = 100;
+    private static final int ROUNDS = 3;
+    private static final int API_CALLS_PER_RECONCILIATION = 5;
+    private static final long API_CALL_MS = 5;
+    private static final int PODS_PER_CLUSTER = 3;
+    private static final long EXEC_MS = 20;
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        OperatorThreads.configure(false);
+    }
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        Assert.assertFalse(OperatorThreads.configure(false));
+        final ExecutorService executor = OperatorThreads.newTaskExecutor("kaap-test", 2);
+        try {
+            final Thread thread = executor.submit(Thread::currentThread).get();
+            Assert.assertEquals(thread.getName(), "kaap-test-0");
+            Assert.assertTrue(thread.isDaemon());
+        } finally {
+            executor.shutdownNow();
+        }
+        // collected one after the other by the calling thread
+        final Thread caller = Thread.currentThread();
+        Assert.assertEquals(OperatorThreads.collect(List.of(1, 2, 3), i -> {
+            Assert.assertSame(Thread.currentThread(), caller);
+            return i * 2;
+        }), List.of(2, 4, 6));
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        final boolean supported = OperatorThreads.isVirtualThreadsSupported();
+        Assert.assertEquals(OperatorThreads.configure(true), supported);
+        Assert.assertEquals(OperatorThreads.isVirtual(), supported);
+        if (!supported) {
+            log.infof("Virtual threads not supported by Java %s", Runtime.version());
+            return;
+        }
+        final ExecutorService executor = OperatorThreads.newTaskExecutor("kaap-test", 2);
+        try {
+            Assert.assertTrue(isVirtual(executor.submit(Thread::currentThread).get()));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // collected in parallel, in the order of the items
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final List<Integer> items = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+        final long start = System.nanoTime();
+        Assert.assertEquals(OperatorThreads.collect(items, i -> {
+            threads.add(Thread.currentThread());
+            sleep(200);
+            return i;
+        }), items);
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        Assert.assertEquals(threads.size(), items.size());
+
+        try {
+            OperatorThreads.collect(items, i -> {
+                if (i == 5) {
+                    throw new IllegalStateException("pod " + i);
+                }
+                return i;
+            });
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals(ex.getMessage(), "pod 5");
+        }
+    }
+
+    /**
+     * Simulates 100 clusters reconciled at the same time, each reconciliation issuing a few blocking API calls and
+     * collecting the resources usage of the broker pods with exec calls. The current executor (a pool of the default
+     * number of reconciliation threads, with the pods collected one after the other) is compared with the virtual
+     * threads, when supported by the runtime.
+     */
+    @Test
+    public void testSimulatedLoad() {
+        final long[] platform = simulate(false);
+        if (!OperatorThreads.isVirtualThreadsSupported()) {
+            return;
+        }
+        final long[] virtual = simulate(true);
+        Assert.assertTrue(virtual[1] < platform[1], "virtual p99 %d ms, platform p99 %d ms"
+                .formatted(virtual[1], platform[1]));
+    }
+
+    /**
+     * Returns the throughput in reconciliations per second and the p99 latency in milliseconds.
+     */
+    @SneakyThrows
+    private static long[] simulate(boolean virtualThreads) {
+        OperatorThreads.configure(virtualThreads);
+        final ExecutorService executor = OperatorThreads.newTaskExecutor("kaap-reconciler",
+                ConfigurationService.DEFAULT_RECONCILIATION_THREADS_NUMBER);
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        final List<Integer> pods = IntStream.range(0, PODS_PER_CLUSTER).boxed().collect(Collectors.toList());
+        final long start = System.nanoTime();
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                final List<CompletableFuture<?>> reconciliations = new ArrayList<>();
+                for (int cluster = 0; cluster < CLUSTERS; cluster++) {
+                    final long submittedAt = System.nanoTime();
+                    reconciliations.add(CompletableFuture.runAsync(() -> {
+                        for (int i = 0; i < API_CALLS_PER_RECONCILIATION; i++) {
+                            sleep(API_CALL_MS);
+                        }
+                        OperatorThreads.collect(pods, pod -> {
+                            sleep(EXEC_MS);
+                            return pod;
+                        });
+                        latencies.add(System.nanoTime() - submittedAt);
+                    }, executor));
+                }
+                CompletableFuture.allOf(reconciliations.toArray(new CompletableFuture[0])).get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final long elapsed = System.nanoTime() - start;
+        Assert.assertEquals(latencies.size(), CLUSTERS * ROUNDS);
+        Collections.sort(latencies);
+        final long throughput = latencies.size() * TimeUnit.SECONDS.toNanos(1) / elapsed;
+        final long p50 = TimeUnit.NANOSECONDS.toMillis(latencies.get(latencies.size() / 2));
+        final long p99 = TimeUnit.NANOSECONDS.toMillis(latencies.get(latencies.size() * 99 / 100));
+        log.infof("%s threads: %d reconciliations of %d clusters in %d ms, %d reconciliations/s, "
+                        + "latency p50 %d ms, p99 %d ms", virtualThreads ? "virtual" : "platform", latencies.size(),
+                CLUSTERS, TimeUnit.NANOSECONDS.toMillis(elapsed), throughput, p50, p99);
+        return new long[]{throughput, p99};
+    }
+
+    @SneakyThrows
+    private static void sleep(long ms) {
+        Thread.sleep(ms);
+    }
+
+    @SneakyThrows
+    private static boolean isVirtual(Thread thread) {
+        return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap;
+
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpecBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ShardManagerTest {
+
+    private static final int SHARDS = 64;
+    private static final int LEASED_SHARDS = 8;
+
+    private KubernetesServer server;
+    private KubernetesClient client;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        server = new KubernetesServer(false, true);
+        server.before();
+        client = server.getClient();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        server.after();
+    }
+
+    @Test
+    public void testShardOf() {
+        final Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            final int shard = ShardManager.shardOf("ns" + i + "/pulsar", SHARDS);
+            Assert.assertTrue(shard >= 0 && shard < SHARDS);
+            Assert.assertEquals(ShardManager.shardOf("ns" + i + "/pulsar", SHARDS), shard);
+            used.add(shard);
+        }
+        Assert.assertEquals(used.size(), SHARDS);
+    }
+
+    @Test
+    public void testRebalance() {
+        final Map<Integer, String> assignment = assign(List.of("a", "b", "c"));
+        Assert.assertEquals(Set.copyOf(assignment.values()), Set.of("a", "b", "c"));
+
+        // only the shards taken by the new member move
+        final Map<Integer, String> joined = assign(List.of("a", "b", "c", "d"));
+        int moved = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (!joined.get(shard).equals(assignment.get(shard))) {
+                Assert.assertEquals(joined.get(shard), "d");
+                moved++;
+            }
+        }
+        Assert.assertTrue(moved > 0 && moved < SHARDS / 2);
+
+        // only the shards of the member that left move
+        final Map<Integer, String> left = assign(List.of("a", "c"));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            if (!assignment.get(shard).equals("b")) {
+                Assert.assertEquals(left.get(shard), assignment.get(shard));
+            }
+        }
+        // the order of the members doesn't matter
+        Assert.assertEquals(assign(List.of("c", "b", "a")), assignment);
+    }
+
+    @Test
+    public void testCanAcquire() {
+        final ZonedDateTime now = ZonedDateTime.now();
+        Assert.assertTrue(ShardManager.canAcquire(null, "a", now));
+        Assert.assertTrue(ShardManager.canAcquire(new LeaseSpec(), "a", now));
+        Assert.assertTrue(ShardManager.canAcquire(lease("a", now), "a", now));
+        Assert.assertFalse(ShardManager.canAcquire(lease("b", now.minusSeconds(10)), "a", now));
+        Assert.assertTrue(ShardManager.canAcquire(lease("b", now.minusSeconds(20)), "a", now));
+    }
+
+    @Test
+    public void testOwnership() {
+        Assert.assertTrue(new ShardManager(null, false, SHARDS, "a").isOwned("ns", "pulsar"));
+        // nothing is owned before the shard leases are acquired
+        Assert.assertFalse(new ShardManager(null, true, SHARDS, "a").isOwned("ns", "pulsar"));
+    }
+
+    @Test
+    public void testHandover() {
+        final ShardManager a = new ShardManager(client, true, LEASED_SHARDS, "a");
+        final ShardManager b = new ShardManager(client, true, LEASED_SHARDS, "b");
+        putMemberLease("a", ZonedDateTime.now());
+        a.sync();
+        final String moving = clusterMovingTo("b", List.of("a", "b"));
+        final int movingShard = ShardManager.shardOf("ns/" + moving, LEASED_SHARDS);
+        Assert.assertTrue(a.isOwned("ns", moving));
+        Assert.assertTrue(a.startReconciliation("ns", moving));
+
+        // b joins while a is reconciling the shard
+        putMemberLease("b", ZonedDateTime.now());
+        a.sync();
+        b.sync();
+        Assert.assertFalse(a.isOwned("ns", moving));
+        Assert.assertFalse(a.startReconciliation("ns", moving));
+        Assert.assertFalse(b.isOwned("ns", moving));
+        Assert.assertEquals(shardHolder(movingShard), "a");
+
+        // the shard is handed over once the reconciliation is done
+        a.endReconciliation("ns", moving);
+        a.sync();
+        b.sync();
+        Assert.assertFalse(a.isOwned("ns", moving));
+        Assert.assertTrue(b.isOwned("ns", moving));
+        Assert.assertEquals(shardHolder(movingShard), "b");
+        for (int shard = 0; shard < LEASED_SHARDS; shard++) {
+            Assert.assertEquals(shardHolder(shard), ShardManager.ownerOf(shard, List.of("a", "b")));
+        }
+    }
+
+    @Test
+    public void testExpiry() {
+        final ShardManager a = new ShardManager(client, true, LEASED_SHARDS, "a");
+        final ShardManager b = new ShardManager(client, true, LEASED_SHARDS, "b");
+        putMemberLease("a", ZonedDateTime.now());
+        putMemberLease("b", ZonedDateTime.now());
+        b.sync();
+        final String moving = clusterMovingTo("b", List.of("a", "b"));
+        final int movingShard = ShardManager.shardOf("ns/" + moving, LEASED_SHARDS);
+        Assert.assertTrue(b.isOwned("ns", moving));
+
+        // b stops renewing its leases, a takes over only once the shard lease is expired
+        putMemberLease("b", ZonedDateTime.now().minusSeconds(ShardManager.SHARD_LEASE_DURATION_SECONDS + 1));
+        a.sync();
+        Assert.assertFalse(a.isOwned("ns", moving));
+        Assert.assertEquals(shardHolder(movingShard), "b");
+
+        final Lease shardLease = client.leases().inNamespace(client.getNamespace())
+                .withName(ShardManager.SHARD_LEASE_PREFIX + movingShard).get();
+        shardLease.getSpec().setRenewTime(
+                ZonedDateTime.now().minusSeconds(ShardManager.SHARD_LEASE_DURATION_SECONDS + 1));
+        client.leases().inNamespace(client.getNamespace()).resource(shardLease).replace();
+        a.sync();
+        Assert.assertTrue(a.isOwned("ns", moving));
+        Assert.assertEquals(shardHolder(movingShard), "a");
+        Assert.assertNotNull(memberLease("b"));
+
+        // the lease of a replica gone for a while is deleted
+        putMemberLease("b", ZonedDateTime.now().minusSeconds(ShardManager.MEMBER_LEASE_RETENTION_SECONDS
+                + ShardManager.SHARD_LEASE_DURATION_SECONDS + 1));
+        a.sync();
+        Assert.assertNull(memberLease("b"));
+        Assert.assertNotNull(memberLease("a"));
+    }
+
+    private String clusterMovingTo(String member, List<String> members) {
+        for (int i = 0; i < 1000; i++) {
+            final String cluster = "pulsar" + i;
+            if (member.equals(ShardManager.ownerOf(ShardManager.shardOf("ns/" + cluster, LEASED_SHARDS), members))) {
+                return cluster;
+            }
+        }
+        throw new IllegalStateException("No cluster assigned to " + member);
+    }
+
+    private String shardHolder(int shard) {
+        return client.leases().inNamespace(client.getNamespace())
+                .withName(ShardManager.SHARD_LEASE_PREFIX + shard).get().getSpec().getHolderIdentity();
+    }
+
+    private Lease memberLease(String identity) {
+        return client.leases().inNamespace(client.getNamespace())
+                .withName(LeaderElectionConfig.LEASE_NAME + "-" + identity).get();
+    }
+
+    private void putMemberLease(String identity, ZonedDateTime renewTime) {
+        client.leases().inNamespace(client.getNamespace()).resource(new LeaseBuilder()
+                .withNewMetadata()
+                .withName(LeaderElectionConfig.LEASE_NAME + "-" + identity)
+                .endMetadata()
+                .withSpec(lease(identity, renewTime))
+                .build()).createOrReplace();
+    }
+
+    private static LeaseSpec lease(String holder, ZonedDateTime renewTime) {
+        return new LeaseSpecBuilder()
+                .withHolderIdentity(holder)
+                .withRenewTime(renewTime)
+                .withLeaseDurationSeconds(ShardManager.SHARD_LEASE_DURATION_SECONDS)
+                .build();
+    }
+
+    private static Map<Integer, String> assign(List<String> members) {
+        final Map<Integer, String> assignment = new HashMap<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assignment.put(shard, ShardManager.ownerOf(shard, members));
+        }
+        return assignment;
+    }
+}
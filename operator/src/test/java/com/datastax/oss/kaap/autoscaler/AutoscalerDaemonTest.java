@@ -0,0 +1,40 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.autoscaler;
+
+import java.util.concurrent.ScheduledExecutorService;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AutoscalerDaemonTest {
+
+    @Test
+    public void testLanes() {
+        try (AutoscalerDaemon daemon = new AutoscalerDaemon(null)) {
+            final ScheduledExecutorService ns1 = daemon.getLane("ns1");
+            Assert.assertSame(daemon.getLane("ns1"), ns1);
+            final ScheduledExecutorService ns2 = daemon.getLane("ns2");
+            Assert.assertNotSame(ns2, ns1);
+            Assert.assertEquals(daemon.getLanesCount(), 2);
+
+            daemon.stop("ns1");
+            Assert.assertTrue(ns1.isShutdown());
+            Assert.assertFalse(ns2.isShutdown());
+            Assert.assertEquals(daemon.getLanesCount(), 1);
+            Assert.assertNotSame(daemon.getLane("ns1"), ns1);
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorCheckpoint;
+import com.datastax.oss.kaap.OperatorMetrics;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.PodExecBookieAdminClient;
 import com.datastax.oss.kaap.controllers.bookkeeper.BookKeeperResourcesFactory;
@@ -46,6 +48,8 @@ import io.fabric8.kubernetes.client.dsl.PodResource;
 import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
 import io.fabric8.kubernetes.client.server.mock.OutputStreamMessage;
 import io.fabric8.mockwebserver.utils.BodyProvider;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
@@ -86,7 +90,9 @@ public class BookKeeperAutoscalerTest {
         private PulsarClusterSpec pulsarClusterSpec;
         private PodConsumer podConsumer;
         private Consumer<StatefulSet> stsConsumer;
+        private int runs;
         KubernetesServer server;
+        List<String> forcedGcPods;
 
         PatchOp patchOp;
 
@@ -112,6 +118,7 @@ public class BookKeeperAutoscalerTest {
 
             server = new KubernetesServer(false);
             server.before();
+            forcedGcPods = new ArrayList<>();
 
             final int replicas = pulsarClusterSpec.getBookkeeper().getReplicas();
 
@@ -138,7 +145,7 @@ public class BookKeeperAutoscalerTest {
                     .get()
                     .withPath("/apis/apps/v1/namespaces/ns/statefulsets/%s-bookkeeper".formatted(clusterSpecName))
                     .andReturn(HttpURLConnection.HTTP_OK, sts)
-                    .once();
+                    .times(runs);
 
             server.expect()
                     .get()
@@ -146,7 +153,7 @@ public class BookKeeperAutoscalerTest {
                             "/apis/kaap.oss.datastax.com/v1beta1/namespaces/ns/bookkeepers/%s-bookkeeper".formatted(
                                     clusterSpecName))
                     .andReturn(HttpURLConnection.HTTP_OK, bkCr)
-                    .times(2);
+                    .times(2 * runs);
 
 
             List<Pod> pods = new ArrayList<>();
@@ -290,22 +297,16 @@ public class BookKeeperAutoscalerTest {
                             }
                             """;
                     for (int i = 0; i < 3; i++) {
-                        // Bookie info
-                        server.server.expect()
-                                .get()
-                                .withPath(genExpectedUrlForExecInPod("pul-bookkeeper-" + i,
-                                        "curl -s http://localhost:8000/api/v1/bookie/info"))
-                                .andUpgradeToWebSocket()
-                                .open(new OutputStreamMessage(bookieInfoOk))
-                                .done()
-                                .always();
-
-                        // Bookie state
-                        String response = i == 0 ? bookieStateReadOnly : bookieStateOk;
+                        // Bookie state and info
+                        String response = (i == 0 ? bookieStateReadOnly : bookieStateOk)
+                                + "#kaap-batch-output#\n"
+                                + bookieInfoOk;
                         server.server.expect()
                                 .get()
                                 .withPath(genExpectedUrlForExecInPod("pul-bookkeeper-" + i,
-                                        "curl -s http://localhost:8000/api/v1/bookie/state"))
+                                        "curl -s http://localhost:8000/api/v1/bookie/state; "
+                                                + "echo '#kaap-batch-output#'; "
+                                                + "curl -s http://localhost:8000/api/v1/bookie/info"))
                                 .andUpgradeToWebSocket()
                                 .open(new OutputStreamMessage(response))
                                 .done()
@@ -823,6 +824,241 @@ public class BookKeeperAutoscalerTest {
         Assert.assertNull(mockServer.patchOp);
     }
 
+    /**
+     * All bookies are writable but some are at risk, the forced GC reclaims enough disk space.
+     */
+    @Test
+    public void testForceGcReclaimsDiskSpace() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        forceGcBeforeScaleUp: true
+                        forceGcWaitMs: 0
+                """;
+
+        final AtomicInteger count = new AtomicInteger(0);
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> {
+                    // first run: all bookies at risk, second run: disk space reclaimed by the GC
+                    long usedBytes = count.getAndIncrement() < 3 ? 990000 : 100000;
+
+                    List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+                    BookieAdminClient.BookieLedgerDiskInfo diskInfo =
+                            BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                    .maxBytes(1000000)
+                                    .usedBytes(usedBytes)
+                                    .build();
+                    ledgerDiskInfos.add(diskInfo);
+
+                    return Pair.of(BookieAdminClient.BookieInfo.builder()
+                                    .podResource(podSpec)
+                                    .build(),
+                            BookieAdminClient.BookieStats.builder()
+                                    .isWritable(true)
+                                    .ledgerDiskInfos(ledgerDiskInfos)
+                                    .build()
+                    );
+                };
+
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                    }, statefulSet -> {
+                    },
+                    bookieInfofunc, x -> {
+                    }, 2);
+            Assert.assertEquals(mockServer.forcedGcPods, List.of("pul-bookkeeper-0", "pul-bookkeeper-1",
+                    "pul-bookkeeper-2"));
+            Assert.assertNull(mockServer.patchOp);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.BOOKIE_FORCED_GC_RECLAIMED_BYTES)
+                    .summary().totalAmount(), 3 * 890000.0);
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    /**
+     * All bookies are writable but some are at risk, the forced GC doesn't reclaim enough disk space.
+     */
+    @Test
+    public void testForceGcThenScaleUp() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        forceGcBeforeScaleUp: true
+                        forceGcWaitMs: 0
+                """;
+
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> {
+                    List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+                    BookieAdminClient.BookieLedgerDiskInfo diskInfo =
+                            BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                    .maxBytes(1000000)
+                                    .usedBytes(990000)
+                                    .build();
+                    ledgerDiskInfos.add(diskInfo);
+
+                    return Pair.of(BookieAdminClient.BookieInfo.builder()
+                                    .podResource(podSpec)
+                                    .build(),
+                            BookieAdminClient.BookieStats.builder()
+                                    .isWritable(true)
+                                    .ledgerDiskInfos(ledgerDiskInfos)
+                                    .build()
+                    );
+                };
+
+        MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, 1);
+        Assert.assertEquals(mockServer.forcedGcPods.size(), 3);
+        Assert.assertNull(mockServer.patchOp);
+
+        mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, 2);
+        Assert.assertEquals(mockServer.forcedGcPods.size(), 3);
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+    }
+
+    /**
+     * The forced GC can't be triggered (e.g. the bookies don't expose the GC endpoint), the bookies are scaled up
+     * right away.
+     */
+    @Test
+    public void testForceGcFailsThenScaleUp() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        forceGcBeforeScaleUp: true
+                        forceGcWaitMs: 60000
+                """;
+
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> {
+                    List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+                    BookieAdminClient.BookieLedgerDiskInfo diskInfo =
+                            BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                    .maxBytes(1000000)
+                                    .usedBytes(990000)
+                                    .build();
+                    ledgerDiskInfos.add(diskInfo);
+
+                    return Pair.of(BookieAdminClient.BookieInfo.builder()
+                                    .podResource(podSpec)
+                                    .build(),
+                            BookieAdminClient.BookieStats.builder()
+                                    .isWritable(true)
+                                    .ledgerDiskInfos(ledgerDiskInfos)
+                                    .build()
+                    );
+                };
+
+        final MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, server -> server.forcedGcPods = new ArrayList<>() {
+                    @Override
+                    public boolean add(String pod) {
+                        throw new IllegalStateException("exec failed on " + pod);
+                    }
+                }, 1);
+        Assert.assertTrue(mockServer.forcedGcPods.isEmpty());
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+    }
+
+    /**
+     * The forced GC triggered by a previous autoscaler (or by the previous leader) is resumed, not triggered again.
+     */
+    @Test
+    public void testForceGcResumedFromCheckpoint() {
+        final String spec = """
+                global:
+                   name: pul
+                bookkeeper:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        forceGcBeforeScaleUp: true
+                        forceGcWaitMs: 60000
+                """;
+
+        Function<PodResource, Pair<BookieAdminClient.BookieInfo, BookieAdminClient.BookieStats>> bookieInfofunc =
+                podSpec -> {
+                    List<BookieAdminClient.BookieLedgerDiskInfo> ledgerDiskInfos = new ArrayList<>(1);
+                    BookieAdminClient.BookieLedgerDiskInfo diskInfo =
+                            BookieAdminClient.BookieLedgerDiskInfo.builder()
+                                    .maxBytes(1000000)
+                                    .usedBytes(990000)
+                                    .build();
+                    ledgerDiskInfos.add(diskInfo);
+
+                    return Pair.of(BookieAdminClient.BookieInfo.builder()
+                                    .podResource(podSpec)
+                                    .build(),
+                            BookieAdminClient.BookieStats.builder()
+                                    .isWritable(true)
+                                    .ledgerDiskInfos(ledgerDiskInfos)
+                                    .build()
+                    );
+                };
+        final OperatorCheckpoint checkpoint = new OperatorCheckpoint(null, false);
+        final String key = OperatorCheckpoint.key(BookKeeperSetAutoscaler.CHECKPOINT_KIND, NAMESPACE,
+                BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET);
+
+        MockServer mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, 1, checkpoint);
+        Assert.assertEquals(mockServer.forcedGcPods.size(), 3);
+        Assert.assertNull(mockServer.patchOp);
+        final BookKeeperSetAutoscaler.ForcedGcCheckpoint forcedGc =
+                checkpoint.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class);
+        Assert.assertEquals(forcedGc.getUsedBytes(), Map.of(
+                "pul-bookkeeper-0", 990000L,
+                "pul-bookkeeper-1", 990000L,
+                "pul-bookkeeper-2", 990000L));
+
+        mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, 1, checkpoint);
+        Assert.assertEquals(mockServer.forcedGcPods.size(), 0);
+        Assert.assertNull(mockServer.patchOp);
+
+        // the forced GC wait is elapsed
+        checkpoint.put(key, new BookKeeperSetAutoscaler.ForcedGcCheckpoint(forcedGc.getUsedBytes(),
+                forcedGc.getStartedAt() - 60000));
+        mockServer = runAutoscaler(spec, (pod, metrics, i) -> {
+                }, statefulSet -> {
+                },
+                bookieInfofunc, x -> {
+                }, 1, checkpoint);
+        Assert.assertEquals(mockServer.forcedGcPods.size(), 0);
+        Assert.assertEquals(4, mockServer.patchOp.getValue());
+        Assert.assertNull(checkpoint.get(key, BookKeeperSetAutoscaler.ForcedGcCheckpoint.class));
+    }
+
     @Test
     public void testStsNotReady() {
         final String spec = """
@@ -916,18 +1152,36 @@ public class BookKeeperAutoscalerTest {
                                      Function<PodResource, Pair<BookieAdminClient.BookieInfo,
                                              BookieAdminClient.BookieStats>> bookieInfofunc,
                                      Consumer<MockServer> serverAfter) {
+        return runAutoscaler(spec, podConf, stsConf, bookieInfofunc, serverAfter, 1);
+    }
+
+    private MockServer runAutoscaler(String spec, MockServer.PodConsumer podConf, Consumer<StatefulSet> stsConf,
+                                     Function<PodResource, Pair<BookieAdminClient.BookieInfo,
+                                             BookieAdminClient.BookieStats>> bookieInfofunc,
+                                     Consumer<MockServer> serverAfter,
+                                     int runs) {
+        return runAutoscaler(spec, podConf, stsConf, bookieInfofunc, serverAfter, runs, null);
+    }
+
+    private MockServer runAutoscaler(String spec, MockServer.PodConsumer podConf, Consumer<StatefulSet> stsConf,
+                                     Function<PodResource, Pair<BookieAdminClient.BookieInfo,
+                                             BookieAdminClient.BookieStats>> bookieInfofunc,
+                                     Consumer<MockServer> serverAfter,
+                                     int runs,
+                                     OperatorCheckpoint checkpoint) {
         final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
         try (final MockServer server = MockServer.builder()
                 .withPulsarClusterSpec(pulsarClusterSpec)
                 .withPodConsumer(podConf)
                 .withStsConsumer(stsConf)
+                .withRuns(runs)
                 .build()) {
             server.start();
             serverAfter.accept(server);
 
             BookKeeperSetAutoscaler bkAutoscaler =
                     new BookKeeperSetAutoscaler(server.server.getClient(), NAMESPACE,
-                            BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET, pulsarClusterSpec) {
+                            BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET, pulsarClusterSpec, checkpoint) {
                         @Override
                         protected BookieAdminClient newBookieAdminClient(GlobalSpec currentGlobalSpec,
                                                                          BookKeeperSetSpec currentBookKeeperSetSpec) {
@@ -935,10 +1189,12 @@ public class BookKeeperAutoscalerTest {
                                     pulsarClusterSpec.getGlobalSpec(),
                                     BookKeeperResourcesFactory.BOOKKEEPER_DEFAULT_SET,
                                     pulsarClusterSpec.getBookkeeper(),
-                                    bookieInfofunc);
+                                    bookieInfofunc, server.forcedGcPods);
                         }
                     };
-            bkAutoscaler.internalRun();
+            for (int i = 0; i < runs; i++) {
+                bkAutoscaler.internalRun();
+            }
             return server;
         }
 
@@ -947,25 +1203,28 @@ public class BookKeeperAutoscalerTest {
     private static class MockBookieAdminClient extends PodExecBookieAdminClient {
         Function<PodResource, Pair<BookieInfo, BookieStats>> bookieInfofunc;
         Map<String, Pair<BookieInfo, BookieStats>> functionResult = new HashMap<>();
+        List<String> forcedGcPods;
 
         public MockBookieAdminClient(KubernetesClient client, String namespace,
                                      GlobalSpec globalSpec,
                                      String bookkeeperSetName,
                                      BookKeeperSetSpec currentBookKeeperSetSpec,
-                                     Function<PodResource, Pair<BookieInfo, BookieStats>> bookieInfofunc) {
+                                     Function<PodResource, Pair<BookieInfo, BookieStats>> bookieInfofunc,
+                                     List<String> forcedGcPods) {
             super(client, namespace, globalSpec, bookkeeperSetName, currentBookKeeperSetSpec);
             this.bookieInfofunc = bookieInfofunc;
+            this.forcedGcPods = forcedGcPods;
         }
 
         @Override
-        protected BookieInfo getBookieInfo(PodResource pod) {
+        protected BookieInfo getBookieInfo(PodResource podResource, Pod pod) {
             if (bookieInfofunc != null) {
-                final Pair<BookieInfo, BookieStats> res = bookieInfofunc.apply(pod);
-                System.out.println("putting result in " + pod.get().getMetadata().getName() + " " + res);
-                functionResult.put(pod.get().getMetadata().getName(), res);
+                final Pair<BookieInfo, BookieStats> res = bookieInfofunc.apply(podResource);
+                System.out.println("putting result in " + pod.getMetadata().getName() + " " + res);
+                functionResult.put(pod.getMetadata().getName(), res);
                 return res.getLeft();
             }
-            return super.getBookieInfo(pod);
+            return super.getBookieInfo(podResource, pod);
         }
 
         @Override
@@ -988,6 +1247,11 @@ public class BookKeeperAutoscalerTest {
         public void setReadOnly(BookieInfo bookieInfo, boolean readonly) {
         }
 
+        @Override
+        public void triggerForceGc(BookieInfo bookieInfo) {
+            forcedGcPods.add(bookieInfo.getPodResource().get().getMetadata().getName());
+        }
+
     }
 
     private static String genExpectedUrlForExecInPod(String podName, String cmd) {
@@ -15,6 +15,7 @@
  */
 package com.datastax.oss.kaap.autoscaler;
 
+import com.datastax.oss.kaap.OperatorMetrics;
 import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
@@ -38,6 +39,8 @@ import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetricsList;
 import io.fabric8.kubernetes.api.model.metrics.v1beta1.PodMetricsListBuilder;
 import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
 import io.fabric8.mockwebserver.utils.BodyProvider;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Field;
 import java.net.HttpURLConnection;
@@ -341,6 +344,46 @@ public class BrokerAutoscalerTest {
         Assert.assertNull(mockServer.patchOp);
     }
 
+    @Test
+    public void testDecisionsMetrics() {
+        final String spec = """
+                global:
+                   name: pul
+                broker:
+                    replicas: 3
+                    autoscaler:
+                        enabled: true
+                        resourcesUsageSource: K8SMetrics
+                    resources:
+                        requests:
+                            cpu: 1
+                """;
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            runAutoscaler(spec, (pod, metrics, i) -> {
+                metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.9"));
+            }, statefulSet -> {
+            });
+            runAutoscaler(spec, (pod, metrics, i) -> {
+                metrics.getContainers().get(0).getUsage().put("cpu", Quantity.parse("0.1"));
+            }, statefulSet -> {
+                statefulSet.getStatus().setReadyReplicas(2);
+            });
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.AUTOSCALER_DECISIONS)
+                    .tags("component", "broker", "decision", OperatorMetrics.DECISION_SCALE_UP, "reason", "cpu_high")
+                    .counter().count(), 1.0);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.AUTOSCALER_DECISIONS)
+                    .tags("component", "broker", "decision", OperatorMetrics.DECISION_SKIPPED, "reason", "not_ready")
+                    .counter().count(), 1.0);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.AUTOSCALER_COLLECTION_DURATION)
+                    .tags("component", "broker", "source", "k8s_metrics")
+                    .timer().count(), 1);
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
     private MockServer runAutoscaler(String spec, MockServer.PodConsumer podConf, Consumer<StatefulSet> stsConf) {
         final PulsarClusterSpec pulsarClusterSpec = MockKubernetesClient.readYaml(spec, PulsarClusterSpec.class);
         try (final MockServer server = MockServer.builder()
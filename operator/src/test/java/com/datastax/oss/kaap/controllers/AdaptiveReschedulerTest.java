@@ -0,0 +1,119 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdaptiveReschedulerTest {
+
+    @Test
+    public void testBackoffOnSameOutcome() {
+        final AdaptiveRescheduler rescheduler = new AdaptiveRescheduler(5000, 60000, () -> 0.5);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 5000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 10000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 20000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 40000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 60000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 60000);
+        for (int i = 0; i < 100; i++) {
+            rescheduler.nextDelayMillis("ns/r", "error");
+        }
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "error"), 60000);
+
+        // other resources are not affected
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/other", "error"), 5000);
+    }
+
+    @Test
+    public void testProgressResetsBackoff() {
+        final AdaptiveRescheduler rescheduler = new AdaptiveRescheduler(5000, 60000, () -> 0.5);
+        rescheduler.nextDelayMillis("ns/r", "waiting-zk");
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "waiting-zk"), 10000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "waiting-bk"), 5000);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "waiting-bk"), 10000);
+
+        rescheduler.reset("ns/r");
+        Assert.assertEquals(rescheduler.size(), 0);
+        Assert.assertEquals(rescheduler.nextDelayMillis("ns/r", "waiting-bk"), 5000);
+    }
+
+    @Test
+    public void testRolloutProgress() {
+        final AdaptiveRescheduler rescheduler = new AdaptiveRescheduler(5000, 60000, () -> 0.5);
+        ReconciliationProgress.start();
+        try {
+            // the condition stays "not ready" while the pods become ready one by one
+            for (int ready = 0; ready < 3; ready++) {
+                Assert.assertFalse(BaseResourcesFactory.isStatefulSetReady(statefulSet(ready)));
+                Assert.assertEquals(rescheduler.nextDelayMillis("ns/r",
+                        "not-ready/" + ReconciliationProgress.current()), 5000);
+            }
+            // stuck
+            Assert.assertFalse(BaseResourcesFactory.isStatefulSetReady(statefulSet(2)));
+            Assert.assertEquals(rescheduler.nextDelayMillis("ns/r",
+                    "not-ready/" + ReconciliationProgress.current()), 10000);
+        } finally {
+            ReconciliationProgress.stop();
+        }
+        // not recorded outside of a reconciliation
+        BaseResourcesFactory.isStatefulSetReady(statefulSet(3));
+        Assert.assertEquals(ReconciliationProgress.current(), "");
+    }
+
+    private static StatefulSet statefulSet(int readyReplicas) {
+        return new StatefulSetBuilder()
+                .withNewMetadata()
+                .withName("pul-broker")
+                .endMetadata()
+                .withNewStatus()
+                .withObservedGeneration(2L)
+                .withReplicas(3)
+                .withReadyReplicas(readyReplicas)
+                .withUpdatedReplicas(readyReplicas)
+                .withCurrentRevision("rev1")
+                .withUpdateRevision("rev1")
+                .endStatus()
+                .build();
+    }
+
+    @Test
+    public void testJitter() {
+        final AdaptiveRescheduler low = new AdaptiveRescheduler(5000, 60000, () -> 0);
+        final AdaptiveRescheduler high = new AdaptiveRescheduler(5000, 60000, () -> 1);
+        for (int i = 0; i < 3; i++) {
+            low.nextDelayMillis("r", "error");
+            high.nextDelayMillis("r", "error");
+        }
+        Assert.assertEquals(low.nextDelayMillis("r", "error"), 32000);
+        Assert.assertEquals(high.nextDelayMillis("r", "error"), 48000);
+
+        // never lower than the base delay
+        final AdaptiveRescheduler lowFirstRetry = new AdaptiveRescheduler(5000, 60000, () -> 0);
+        lowFirstRetry.nextDelayMillis("r", "error");
+        Assert.assertEquals(lowFirstRetry.nextDelayMillis("r", "error"), 8000);
+    }
+
+    @Test
+    public void testDisabled() {
+        final AdaptiveRescheduler rescheduler = new AdaptiveRescheduler(5000, 5000, () -> 1);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(rescheduler.nextDelayMillis("r", "error"), 5000);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.SneakyThrows;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class ComponentsDependencyGraphTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testFrontiers() {
+        final List<String> checked = new CopyOnWriteArrayList<>();
+        final Map<String, Boolean> ready = new ComponentsDependencyGraph()
+                .add("zk", () -> checked.add("zk"))
+                .add("bk", () -> checked.add("bk"), "zk")
+                .add("broker", () -> !checked.add("broker"), "bk")
+                .add("proxy", () -> checked.add("proxy"), "bk")
+                .add("fn", () -> checked.add("fn"), "broker")
+                .add("after-proxy", () -> checked.add("after-proxy"), "proxy", "bk")
+                .checkReadyOrPatch(executor);
+
+        Assert.assertEquals(ready, Map.of("zk", true, "bk", true, "broker", false, "proxy", true,
+                "after-proxy", true));
+        Assert.assertEquals(List.copyOf(ready.keySet()), List.of("zk", "bk", "broker", "proxy", "after-proxy"));
+        Assert.assertEquals(checked.subList(0, 2), List.of("zk", "bk"));
+        Assert.assertEquals(checked.get(4), "after-proxy");
+        Assert.assertFalse(checked.contains("fn"));
+    }
+
+    @Test
+    public void testStopAtFirstNotReady() {
+        final AtomicBoolean bkChecked = new AtomicBoolean();
+        final Map<String, Boolean> ready = new ComponentsDependencyGraph()
+                .add("zk", () -> false)
+                .add("bk", () -> bkChecked.getAndSet(true), "zk")
+                .checkReadyOrPatch(null);
+        Assert.assertEquals(ready, Map.of("zk", false));
+        Assert.assertFalse(bkChecked.get());
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFrontierIsConcurrent() {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final Map<String, Boolean> ready = new ComponentsDependencyGraph()
+                .add("bk", () -> true)
+                .add("broker", () -> await(latch), "bk")
+                .add("proxy", () -> await(latch), "bk")
+                .add("bastion", () -> await(latch), "bk")
+                .checkReadyOrPatch(executor);
+        Assert.assertEquals(ready, Map.of("bk", true, "broker", true, "proxy", true, "bastion", true));
+    }
+
+    @Test
+    public void testErrorWaitsForFrontier() {
+        final AtomicBoolean proxyCompleted = new AtomicBoolean();
+        try {
+            new ComponentsDependencyGraph()
+                    .add("broker", () -> {
+                        throw new IllegalStateException("broker failed");
+                    })
+                    .add("proxy", () -> {
+                        sleep(500);
+                        proxyCompleted.set(true);
+                        return true;
+                    })
+                    .checkReadyOrPatch(executor);
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals(ex.getMessage(), "broker failed");
+        }
+        Assert.assertTrue(proxyCompleted.get());
+    }
+
+    @Test
+    public void testInvalidGraph() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ComponentsDependencyGraph()
+                .add("bk", () -> true, "zk"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ComponentsDependencyGraph()
+                .add("zk", () -> true)
+                .add("zk", () -> true));
+    }
+
+    @SneakyThrows
+    private static boolean await(CountDownLatch latch) {
+        latch.countDown();
+        return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    @SneakyThrows
+    private static void sleep(long millis) {
+        Thread.sleep(millis);
+    }
+}
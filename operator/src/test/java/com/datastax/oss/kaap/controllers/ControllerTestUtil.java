@@ -27,6 +27,7 @@ import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.javaoperatorsdk.operator.api.reconciler.Context;
 import io.javaoperatorsdk.operator.api.reconciler.UpdateControl;
+import java.util.Optional;
 import java.util.function.Function;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -41,6 +42,66 @@ public class ControllerTestUtil<X extends FullSpecWithDefaults,
         public Integer reconciliationRescheduleSeconds() {
             return 5;
         }
+
+        @Override
+        public Integer reconciliationRescheduleMaxSeconds() {
+            return 60;
+        }
+
+        @Override
+        public Boolean resourcesCacheEnabled() {
+            return false;
+        }
+
+        @Override
+        public Boolean lastAppliedCompressionEnabled() {
+            return false;
+        }
+
+        @Override
+        public Boolean shardingEnabled() {
+            return false;
+        }
+
+        @Override
+        public Integer shardingShards() {
+            return 16;
+        }
+
+        @Override
+        public Optional<String> watchNamespacesSelector() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Integer maxConcurrentReconciliationsPerNamespace() {
+            return 0;
+        }
+
+        @Override
+        public Integer apiReadRequestsPerSecond() {
+            return 0;
+        }
+
+        @Override
+        public Integer apiWriteRequestsPerSecond() {
+            return 0;
+        }
+
+        @Override
+        public Boolean virtualThreadsEnabled() {
+            return false;
+        }
+
+        @Override
+        public Boolean flightRecorderEndpointEnabled() {
+            return false;
+        }
+
+        @Override
+        public Boolean checkpointEnabled() {
+            return false;
+        }
     }
 
     private final String namespace;
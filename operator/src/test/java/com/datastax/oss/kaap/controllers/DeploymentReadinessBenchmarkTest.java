@@ -0,0 +1,166 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSetBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.jbosslog.JBossLog;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the lookups of the replica sets of a deployment in a namespace with thousands of replica sets.
+ * The number of replica sets can be raised with -Dkaap.benchmark.replicaSets=10000.
+ */
+@JBossLog
+public class DeploymentReadinessBenchmarkTest {
+
+    private static final String NAMESPACE = "ns";
+    private static final int REVISIONS = 4;
+    private static final int DEPLOYMENTS = Integer.getInteger("kaap.benchmark.replicaSets", 1000) / REVISIONS;
+    private static final int LOOKUPS = 25;
+
+    private KubernetesServer server;
+    private KubernetesClient client;
+    private final List<Deployment> deployments = new ArrayList<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @BeforeClass
+    public void beforeClass() throws Exception {
+        server = new KubernetesServer(false, true);
+        server.before();
+        client = server.getClient();
+        final List<CompletableFuture<?>> creations = new ArrayList<>();
+        for (int i = 0; i < DEPLOYMENTS; i++) {
+            final Map<String, String> labels = Map.of("app", "pulsar", "component", "deployment-" + i);
+            final Deployment deployment = new DeploymentBuilder()
+                    .withNewMetadata()
+                    .withName("deployment-" + i)
+                    .withNamespace(NAMESPACE)
+                    .withUid("uid-" + i)
+                    .withAnnotations(Map.of(BaseResourcesFactory.DEPLOYMENT_REVISION_ANNOTATION,
+                            String.valueOf(REVISIONS)))
+                    .endMetadata()
+                    .withNewSpec()
+                    .withNewSelector()
+                    .withMatchLabels(labels)
+                    .endSelector()
+                    .endSpec()
+                    .build();
+            deployments.add(deployment);
+            for (int revision = 1; revision <= REVISIONS; revision++) {
+                final ReplicaSet replicaSet = replicaSet(deployment, labels, revision);
+                creations.add(CompletableFuture.runAsync(() ->
+                        client.resource(replicaSet).inNamespace(NAMESPACE).create(), executor));
+            }
+        }
+        CompletableFuture.allOf(creations.toArray(new CompletableFuture[0])).get();
+        executor.shutdown();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void afterClass() {
+        executor.shutdownNow();
+        server.after();
+    }
+
+    @Test
+    public void testLookups() {
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            final long fullList = benchmark("full list", deployment -> client.apps().replicaSets()
+                    .inNamespace(NAMESPACE)
+                    .list()
+                    .getItems()
+                    .stream()
+                    .filter(r -> r.getMetadata().getOwnerReferences().get(0).getUid()
+                            .equals(deployment.getMetadata().getUid()))
+                    .collect(Collectors.toList()));
+            final long labelSelector = benchmark("label selector", deployment ->
+                    BaseResourcesFactory.getOwnedReplicaSets(deployment, client, null));
+            // start the informer before measuring
+            Assert.assertEquals(BaseResourcesFactory.getOwnedReplicaSets(deployments.get(0), client, cache).size(),
+                    REVISIONS);
+            final long indexed = benchmark("owner index", deployment ->
+                    BaseResourcesFactory.getOwnedReplicaSets(deployment, client, cache));
+
+            Assert.assertEquals(fullList, LOOKUPS);
+            Assert.assertEquals(labelSelector, LOOKUPS);
+            Assert.assertEquals(indexed, 0);
+            for (int i = 0; i < LOOKUPS; i++) {
+                Assert.assertTrue(BaseResourcesFactory.isDeploymentReady(deployments.get(i), client, cache));
+            }
+        } finally {
+            cache.close();
+        }
+    }
+
+    /**
+     * Run the lookups and return the number of API calls.
+     */
+    private long benchmark(String name, Function<Deployment, List<ReplicaSet>> lookup) {
+        final int requestsBefore = server.getKubernetesMockServer().getRequestCount();
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            final Deployment deployment = deployments.get(i * (DEPLOYMENTS / LOOKUPS));
+            final List<ReplicaSet> replicaSets = lookup.apply(deployment);
+            Assert.assertEquals(replicaSets.size(), REVISIONS, name);
+        }
+        final long elapsed = System.nanoTime() - start;
+        final int calls = server.getKubernetesMockServer().getRequestCount() - requestsBefore;
+        log.infof("%s: %d lookups among %d replica sets in %d ms, %d API calls", name, LOOKUPS,
+                DEPLOYMENTS * REVISIONS, TimeUnit.NANOSECONDS.toMillis(elapsed), calls);
+        return calls;
+    }
+
+    private static ReplicaSet replicaSet(Deployment deployment, Map<String, String> labels, int revision) {
+        return new ReplicaSetBuilder()
+                .withNewMetadata()
+                .withName(deployment.getMetadata().getName() + "-" + revision)
+                .withLabels(labels)
+                .addToLabels("pod-template-hash", "hash" + revision)
+                .withAnnotations(Map.of(BaseResourcesFactory.DEPLOYMENT_REVISION_ANNOTATION, String.valueOf(revision)))
+                .withOwnerReferences(new OwnerReferenceBuilder()
+                        .withUid(deployment.getMetadata().getUid())
+                        .withKind("Deployment")
+                        .withName(deployment.getMetadata().getName())
+                        .withApiVersion("apps/v1")
+                        .build())
+                .endMetadata()
+                .withNewStatus()
+                .withReplicas(1)
+                .withReadyReplicas(1)
+                .withAvailableReplicas(1)
+                .endStatus()
+                .build();
+    }
+}
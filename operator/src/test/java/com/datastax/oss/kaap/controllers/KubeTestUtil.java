@@ -133,6 +133,13 @@ public class KubeTestUtil {
         Assert.assertEquals(readyCondition.getReason(), CRDConstants.CONDITIONS_TYPE_READY_REASON_INITIALIZING);
     }
 
+    public static void assertUpdateControlStatusUnchanged(
+            UpdateControl<? extends CustomResource<?, ? extends BaseComponentStatus>> updateControl) {
+        Assert.assertFalse(updateControl.isUpdateStatus());
+        Assert.assertFalse(updateControl.isUpdateResource());
+        Assert.assertTrue(updateControl.getScheduleDelay().isPresent());
+    }
+
     public static void assertUpdateControlReady(
             UpdateControl<? extends CustomResource<?, ? extends BaseComponentStatus>> updateControl) {
         Assert.assertFalse(updateControl.getScheduleDelay().isPresent());
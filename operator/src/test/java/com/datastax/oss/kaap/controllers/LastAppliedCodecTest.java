@@ -0,0 +1,44 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LastAppliedCodecTest {
+
+    private static final String JSON = "{\"common\":{\"global\":{\"name\":\"pulsar\"}},\"sets\":{\"set1\":\"abc\"}}";
+
+    @Test
+    public void testPlain() {
+        Assert.assertEquals(LastAppliedCodec.encode(JSON, false), JSON);
+        Assert.assertEquals(LastAppliedCodec.decode(JSON), JSON);
+        Assert.assertNull(LastAppliedCodec.encode(null, true));
+        Assert.assertNull(LastAppliedCodec.decode(null));
+    }
+
+    @Test
+    public void testCompressed() {
+        final String encoded = LastAppliedCodec.encode(JSON, true);
+        Assert.assertTrue(encoded.startsWith(LastAppliedCodec.GZIP_PREFIX));
+        Assert.assertEquals(LastAppliedCodec.decode(encoded), JSON);
+        // the status is not updated if the encoded value doesn't change
+        Assert.assertEquals(LastAppliedCodec.encode(JSON, true), encoded);
+
+        final String large = JSON.repeat(50);
+        Assert.assertTrue(LastAppliedCodec.encode(large, true).length() < large.length() / 5);
+    }
+}
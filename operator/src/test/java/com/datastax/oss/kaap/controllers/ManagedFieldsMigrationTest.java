@@ -0,0 +1,117 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.FieldsV1;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntry;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import java.util.List;
+import java.util.Map;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ManagedFieldsMigrationTest {
+
+    private static final String CLIENT_SIDE_MANAGER = "fabric8-kubernetes-client";
+
+    @Test
+    public void testNothingToMigrate() {
+        Assert.assertNull(ManagedFieldsMigration.migrate(null, "kaap"));
+        Assert.assertNull(ManagedFieldsMigration.migrate(configMap(), "kaap"));
+        Assert.assertNull(ManagedFieldsMigration.migrate(configMap(
+                entry("kaap", ManagedFieldsMigration.OPERATION_APPLY, null, Map.of("f:data", Map.of())),
+                // other field managers and the status updates are not migrated
+                entry("kubectl-edit", ManagedFieldsMigration.OPERATION_UPDATE, null, Map.of("f:data", Map.of())),
+                entry(CLIENT_SIDE_MANAGER, ManagedFieldsMigration.OPERATION_UPDATE, "status",
+                        Map.of("f:status", Map.of()))
+        ), "kaap"));
+    }
+
+    @Test
+    public void testMigrate() {
+        final ManagedFieldsEntry other =
+                entry("kubectl-edit", ManagedFieldsMigration.OPERATION_UPDATE, null, Map.of("f:data", Map.of()));
+        final ConfigMap configMap = configMap(
+                entry(CLIENT_SIDE_MANAGER, ManagedFieldsMigration.OPERATION_UPDATE, null, Map.of(
+                        "f:data", Map.of("f:removed", Map.of(), "f:kept", Map.of()))),
+                entry("kaap", ManagedFieldsMigration.OPERATION_APPLY, null, Map.of(
+                        "f:data", Map.of("f:kept", Map.of(), "f:added", Map.of()),
+                        "f:metadata", Map.of("f:labels", Map.of()))),
+                other
+        );
+        final List<ManagedFieldsEntry> migrated = ManagedFieldsMigration.migrate(configMap, "kaap");
+        Assert.assertEquals(migrated.size(), 2);
+        Assert.assertEquals(migrated.get(0), other);
+        final ManagedFieldsEntry apply = migrated.get(1);
+        Assert.assertEquals(apply.getManager(), "kaap");
+        Assert.assertEquals(apply.getOperation(), ManagedFieldsMigration.OPERATION_APPLY);
+        Assert.assertEquals(apply.getFieldsV1().getAdditionalProperties(), Map.of(
+                "f:data", Map.of("f:removed", Map.of(), "f:kept", Map.of(), "f:added", Map.of()),
+                "f:metadata", Map.of("f:labels", Map.of())));
+
+        // created by a previous version and never applied
+        final List<ManagedFieldsEntry> created = ManagedFieldsMigration.migrate(configMap(
+                entry(CLIENT_SIDE_MANAGER, ManagedFieldsMigration.OPERATION_UPDATE, null,
+                        Map.of("f:data", Map.of()))), "kaap");
+        Assert.assertEquals(created.size(), 1);
+        Assert.assertEquals(created.get(0).getManager(), "kaap");
+        Assert.assertEquals(created.get(0).getApiVersion(), "v1");
+        Assert.assertEquals(created.get(0).getFieldsV1().getAdditionalProperties(), Map.of("f:data", Map.of()));
+    }
+
+    @Test
+    public void testJsonPatch() {
+        final ConfigMap configMap = configMap(
+                entry(CLIENT_SIDE_MANAGER, ManagedFieldsMigration.OPERATION_UPDATE, null, Map.of()));
+        final String patch = ManagedFieldsMigration.toJsonPatch(configMap,
+                ManagedFieldsMigration.migrate(configMap, "kaap"));
+        final List<?> operations = SerializationUtil.readJson(patch, List.class);
+        Assert.assertEquals(operations.size(), 2);
+        Assert.assertEquals(operations.get(0), Map.of("op", "test", "path", "/metadata/resourceVersion",
+                "value", "10"));
+        final Map<?, ?> replace = (Map<?, ?>) operations.get(1);
+        Assert.assertEquals(replace.get("op"), "replace");
+        Assert.assertEquals(replace.get("path"), "/metadata/managedFields");
+        Assert.assertEquals(((Map<?, ?>) ((List<?>) replace.get("value")).get(0)).get("manager"), "kaap");
+    }
+
+    private static ConfigMap configMap(ManagedFieldsEntry... managedFields) {
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("cm")
+                .withResourceVersion("10")
+                .withManagedFields(managedFields.length == 0 ? null : List.of(managedFields))
+                .endMetadata()
+                .build();
+    }
+
+    private static ManagedFieldsEntry entry(String manager, String operation, String subresource,
+                                            Map<String, Object> fields) {
+        final FieldsV1 fieldsV1 = new FieldsV1();
+        fieldsV1.setAdditionalProperties(fields);
+        return new ManagedFieldsEntryBuilder()
+                .withApiVersion("v1")
+                .withFieldsType("FieldsV1")
+                .withFieldsV1(fieldsV1)
+                .withManager(manager)
+                .withOperation(operation)
+                .withSubresource(subresource)
+                .build();
+    }
+}
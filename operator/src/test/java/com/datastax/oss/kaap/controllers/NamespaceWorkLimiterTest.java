@@ -0,0 +1,101 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class NamespaceWorkLimiterTest {
+
+    @Test
+    public void testNamespacesAreIsolated() {
+        final NamespaceWorkLimiter limiter = new NamespaceWorkLimiter(2);
+        Assert.assertTrue(limiter.tryAcquire("noisy"));
+        Assert.assertTrue(limiter.tryAcquire("noisy"));
+        Assert.assertFalse(limiter.tryAcquire("noisy"));
+
+        // the other namespaces still get their permits
+        Assert.assertTrue(limiter.tryAcquire("quiet"));
+        Assert.assertEquals(limiter.available("quiet"), 1);
+
+        limiter.release("noisy");
+        Assert.assertTrue(limiter.tryAcquire("noisy"));
+    }
+
+    @Test
+    public void testNamespaceUnwatched() {
+        final NamespaceWorkLimiter limiter = new NamespaceWorkLimiter(2);
+        Assert.assertTrue(limiter.tryAcquire("ns"));
+        Assert.assertTrue(limiter.tryAcquire("ns"));
+        limiter.onNamespaceUnwatched("ns");
+        Assert.assertEquals(limiter.available("ns"), 2);
+
+        // watched again, the reconciliations started before don't add permits when they complete
+        Assert.assertTrue(limiter.tryAcquire("ns"));
+        limiter.release("ns");
+        limiter.release("ns");
+        limiter.release("ns");
+        Assert.assertEquals(limiter.available("ns"), 2);
+    }
+
+    @Test
+    public void testDisabled() {
+        final NamespaceWorkLimiter limiter = new NamespaceWorkLimiter(0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(limiter.tryAcquire("ns"));
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    @SneakyThrows
+    public void testConcurrentReconciliations() {
+        final int threads = 16;
+        final NamespaceWorkLimiter limiter = new NamespaceWorkLimiter(3);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        if (limiter.tryAcquire("ns")) {
+                            try {
+                                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                                Thread.yield();
+                            } finally {
+                                running.decrementAndGet();
+                                limiter.release("ns");
+                            }
+                        }
+                    }
+                    done.countDown();
+                });
+            }
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertTrue(maxRunning.get() <= 3);
+        Assert.assertEquals(limiter.available("ns"), 3);
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.common.SerializationUtil;
+import com.datastax.oss.kaap.controllers.broker.BrokerController;
+import com.datastax.oss.kaap.controllers.broker.BrokerResourcesFactory;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.FieldsV1;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSetStatusBuilder;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.jbosslog.JBossLog;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@JBossLog
+public class PrunedItemStoreTest {
+
+    private static final String LAST_APPLIED_ANNOTATION = "kubectl.kubernetes.io/last-applied-configuration";
+    private static final int CLUSTERS = 50;
+    private static final int SETS_PER_CLUSTER = 20;
+    // documented in docs/kaap.md
+    private static final long CACHED_BYTES_PER_SET_BUDGET = 8 * 1024;
+
+    @Test
+    public void testPruneStatefulSet() {
+        final StatefulSet sts = withServerFields(new StatefulSetBuilder()
+                .withNewMetadata()
+                .withName("pulsar-broker")
+                .withNamespace("ns")
+                .withAnnotations(Map.of(BaseResourcesFactory.DESIRED_HASH_ANNOTATION, "hash"))
+                .withOwnerReferences(new OwnerReferenceBuilder().withUid("owner").build())
+                .endMetadata()
+                .withNewSpec()
+                .withReplicas(3)
+                .withNewTemplate()
+                .withNewSpec()
+                .addNewContainer()
+                .withName("broker")
+                .withImage("apachepulsar/pulsar:2.10.2")
+                .endContainer()
+                .endSpec()
+                .endTemplate()
+                .endSpec()
+                .withStatus(new StatefulSetStatusBuilder()
+                        .withReplicas(3)
+                        .withReadyReplicas(3)
+                        .withUpdatedReplicas(3)
+                        .withCurrentRevision("r1")
+                        .withUpdateRevision("r1")
+                        .build())
+                .build());
+
+        final StatefulSet pruned = PrunedItemStore.prune(sts);
+        Assert.assertEquals(pruned.getApiVersion(), "apps/v1");
+        Assert.assertEquals(pruned.getKind(), "StatefulSet");
+        Assert.assertEquals(pruned.getMetadata().getName(), "pulsar-broker");
+        Assert.assertEquals(pruned.getMetadata().getNamespace(), "ns");
+        Assert.assertEquals(pruned.getMetadata().getUid(), "uid");
+        Assert.assertEquals(pruned.getMetadata().getResourceVersion(), "42");
+        Assert.assertEquals(pruned.getMetadata().getOwnerReferences().get(0).getUid(), "owner");
+        Assert.assertEquals(pruned.getMetadata().getAnnotations(),
+                Map.of(BaseResourcesFactory.DESIRED_HASH_ANNOTATION, "hash"));
+        Assert.assertTrue(pruned.getMetadata().getManagedFields().isEmpty());
+        Assert.assertEquals(pruned.getSpec().getReplicas(), 3);
+        Assert.assertNull(pruned.getSpec().getTemplate());
+        Assert.assertEquals(pruned.getStatus(), sts.getStatus());
+        Assert.assertTrue(BaseResourcesFactory.isStatefulSetReady(pruned));
+        // the original is untouched
+        Assert.assertNotNull(sts.getSpec().getTemplate());
+        Assert.assertEquals(sts.getMetadata().getManagedFields().size(), 1);
+    }
+
+    @Test
+    public void testPruneDeploymentAndConfigMap() {
+        final Deployment deployment = withServerFields(new DeploymentBuilder()
+                .withNewMetadata()
+                .withName("pulsar-proxy")
+                .withAnnotations(Map.of(BaseResourcesFactory.DEPLOYMENT_REVISION_ANNOTATION, "2"))
+                .endMetadata()
+                .withNewSpec()
+                .withReplicas(2)
+                .withNewSelector()
+                .withMatchLabels(Map.of("component", "proxy"))
+                .endSelector()
+                .withNewTemplate()
+                .withNewSpec()
+                .addNewContainer()
+                .withName("proxy")
+                .endContainer()
+                .endSpec()
+                .endTemplate()
+                .endSpec()
+                .build());
+        final Deployment prunedDeployment = PrunedItemStore.prune(deployment);
+        Assert.assertEquals(prunedDeployment.getMetadata().getAnnotations(),
+                Map.of(BaseResourcesFactory.DEPLOYMENT_REVISION_ANNOTATION, "2"));
+        Assert.assertEquals(prunedDeployment.getSpec().getSelector().getMatchLabels(), Map.of("component", "proxy"));
+        Assert.assertNull(prunedDeployment.getSpec().getTemplate());
+
+        final ConfigMap configMap = withServerFields(new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("pulsar-broker")
+                .endMetadata()
+                .withData(Map.of("PULSAR_MEM", "-Xmx1g"))
+                .build());
+        final ConfigMap prunedConfigMap = PrunedItemStore.prune(configMap);
+        Assert.assertTrue(prunedConfigMap.getData().isEmpty());
+        Assert.assertEquals(prunedConfigMap.getMetadata().getAnnotations(), Map.of());
+
+        // other kinds are not pruned
+        final Secret secret = new SecretBuilder()
+                .withNewMetadata()
+                .withName("secret")
+                .endMetadata()
+                .withStringData(Map.of("k", "v"))
+                .build();
+        Assert.assertSame(PrunedItemStore.prune(secret), secret);
+    }
+
+    @Test
+    public void testStore() {
+        final PrunedItemStore<ConfigMap> store = new PrunedItemStore<>();
+        final ConfigMap configMap = withServerFields(new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("cm")
+                .withNamespace("ns")
+                .endMetadata()
+                .withData(Map.of("k", "v"))
+                .build());
+        store.put(store.getKey(configMap), configMap);
+        Assert.assertEquals(store.getKey(configMap), "ns/cm");
+        Assert.assertTrue(store.get("ns/cm").getData().isEmpty());
+        Assert.assertEquals(store.get("ns/cm").getMetadata().getResourceVersion(), "42");
+    }
+
+    /**
+     * The resources cached for 50 clusters with 20 broker sets each must fit in the documented budget.
+     * The size is the heap retained by the cached resources, estimated by walking their object graphs (see
+     * {@link #retainedSize(Object)}).
+     */
+    @Test
+    public void testMemoryBudget() {
+        final List<HasMetadata> setResources = generateBrokerSetResources();
+        long fullBytes = 0;
+        long prunedBytes = 0;
+        for (int cluster = 0; cluster < CLUSTERS; cluster++) {
+            for (int set = 0; set < SETS_PER_CLUSTER; set++) {
+                for (HasMetadata resource : setResources) {
+                    final HasMetadata copy = withServerFields(SerializationUtil.deepCloneObject(resource));
+                    copy.getMetadata().setNamespace("ns-" + cluster);
+                    copy.getMetadata().setName(resource.getMetadata().getName() + "-" + set);
+                    fullBytes += retainedSize(copy);
+                    prunedBytes += retainedSize(PrunedItemStore.prune(copy));
+                }
+            }
+        }
+        final int sets = CLUSTERS * SETS_PER_CLUSTER;
+        log.infof("Cached resources heap for %d sets: %d KB full, %d KB pruned (%d bytes per set)", sets,
+                fullBytes / 1024, prunedBytes / 1024, prunedBytes / sets);
+        Assert.assertTrue(prunedBytes <= CACHED_BYTES_PER_SET_BUDGET * sets,
+                "pruned cache is " + prunedBytes + " bytes");
+        Assert.assertTrue(prunedBytes * 5 < fullBytes, "full " + fullBytes + ", pruned " + prunedBytes);
+    }
+
+    private static List<HasMetadata> generateBrokerSetResources() {
+        final MockKubernetesClient client = new MockKubernetesClient("ns");
+        final PulsarClusterSpec clusterSpec = MockKubernetesClient.readYaml("""
+                global:
+                   name: pulsar
+                   image: apachepulsar/pulsar:2.10.2
+                broker:
+                   replicas: 3
+                """, PulsarClusterSpec.class);
+        clusterSpec.getGlobal().applyDefaults(null);
+        clusterSpec.getBroker().applyDefaults(clusterSpec.getGlobalSpec());
+        final BrokerResourcesFactory factory = new BrokerResourcesFactory(client.getClient(), "ns",
+                BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                BrokerController.getBrokerSetSpecs(clusterSpec.getBroker())
+                        .get(BrokerResourcesFactory.BROKER_DEFAULT_SET),
+                clusterSpec.getGlobal(), null);
+        factory.patchConfigMap();
+        factory.patchService();
+        factory.patchStatefulSet();
+        factory.patchPodDisruptionBudget();
+        final List<HasMetadata> resources = new ArrayList<>();
+        client.getCreatedResources().forEach(interaction -> resources.add(interaction.getResource()));
+        Assert.assertEquals(resources.size(), 4);
+        return resources;
+    }
+
+    /**
+     * Add the fields set by the API server: the managed fields of the server side apply and the annotations of the
+     * other controllers.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R extends HasMetadata> R withServerFields(R resource) {
+        final FieldsV1 fields = new FieldsV1();
+        fields.setAdditionalProperty("f:spec",
+                SerializationUtil.readJson(SerializationUtil.writeAsJson(resource), Map.class));
+        resource.getMetadata().setUid("uid");
+        resource.getMetadata().setResourceVersion("42");
+        resource.getMetadata().setManagedFields(new ArrayList<>(List.of(new ManagedFieldsEntryBuilder()
+                .withManager("kaap")
+                .withOperation("Apply")
+                .withFieldsType("FieldsV1")
+                .withFieldsV1(fields)
+                .build())));
+        final Map<String, String> annotations = resource.getMetadata().getAnnotations() == null
+                ? new HashMap<>() : new HashMap<>(resource.getMetadata().getAnnotations());
+        annotations.put(LAST_APPLIED_ANNOTATION, SerializationUtil.writeAsJson(resource));
+        resource.getMetadata().setAnnotations(annotations);
+        return resource;
+    }
+
+    /**
+     * Estimate the heap retained by the object graph, with the layout of a 64-bit JVM with compressed references:
+     * 12 bytes object headers, 16 bytes array headers, 4 bytes references and 8 bytes alignment.
+     * The JDK types used by the resources models (strings, boxed numbers, lists and maps) are sized from their
+     * contents, since their fields can't be read with reflection.
+     */
+    static long retainedSize(Object root) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final List<Object> pending = new ArrayList<>();
+        pending.add(root);
+        long size = 0;
+        while (!pending.isEmpty()) {
+            final Object object = pending.remove(pending.size() - 1);
+            if (object == null || object instanceof Enum || object instanceof Boolean || !visited.add(object)) {
+                continue;
+            }
+            if (object instanceof String) {
+                size += align(24) + align(16 + ((String) object).length());
+            } else if (object instanceof Long || object instanceof Double) {
+                size += 24;
+            } else if (object instanceof Number) {
+                size += 16;
+            } else if (object instanceof Map) {
+                final Map<?, ?> map = (Map<?, ?>) object;
+                final boolean linked = object instanceof LinkedHashMap;
+                size += (linked ? 56 : 48) + align(16 + 4L * tableCapacity(map.size()))
+                        + (long) map.size() * (linked ? 40 : 32);
+                pending.addAll(map.keySet());
+                pending.addAll(map.values());
+            } else if (object instanceof Collection) {
+                final Collection<?> collection = (Collection<?>) object;
+                size += 24 + align(16 + 4L * collection.size());
+                pending.addAll(collection);
+            } else if (object.getClass().isArray()) {
+                final int length = Array.getLength(object);
+                final Class<?> component = object.getClass().getComponentType();
+                size += align(16 + (long) length * fieldSize(component));
+                if (!component.isPrimitive()) {
+                    for (int i = 0; i < length; i++) {
+                        pending.add(Array.get(object, i));
+                    }
+                }
+            } else {
+                long shallow = 12;
+                for (Class<?> type = object.getClass(); type != Object.class; type = type.getSuperclass()) {
+                    for (Field field : type.getDeclaredFields()) {
+                        if (Modifier.isStatic(field.getModifiers())) {
+                            continue;
+                        }
+                        shallow += fieldSize(field.getType());
+                        if (!field.getType().isPrimitive()) {
+                            field.setAccessible(true);
+                            try {
+                                pending.add(field.get(object));
+                            } catch (IllegalAccessException ex) {
+                                throw new IllegalStateException(ex);
+                            }
+                        }
+                    }
+                }
+                size += align(shallow);
+            }
+        }
+        return size;
+    }
+
+    private static int tableCapacity(int entries) {
+        int capacity = 16;
+        while (capacity * 0.75 < entries) {
+            capacity *= 2;
+        }
+        return entries == 0 ? 0 : capacity;
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return 4;
+    }
+
+    private static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+}
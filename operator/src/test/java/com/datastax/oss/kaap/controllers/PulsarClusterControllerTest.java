@@ -138,14 +138,16 @@ public class PulsarClusterControllerTest {
 
         // zk not ready yet (no condition), must reschedule
         client = new MockKubernetesClient(NAMESPACE);
-        control = invokeController(client, spec, r -> createdZk.getResource());
+        control = invokeController(client, spec,
+                r -> r.isAssignableFrom(ZooKeeper.class) ? createdZk.getResource() : null);
         Assert.assertEquals(client.countCreatedResources(), 0);
         KubeTestUtil.assertUpdateControlInitializing(control);
 
         // zk not ready yet (with condition), must reschedule
         setReadyCondition(createdZk.getResource().getStatus(), false);
         client = new MockKubernetesClient(NAMESPACE);
-        control = invokeController(client, spec, r -> createdZk.getResource());
+        control = invokeController(client, spec,
+                r -> r.isAssignableFrom(ZooKeeper.class) ? createdZk.getResource() : null);
         Assert.assertEquals(client.countCreatedResources(), 0);
         KubeTestUtil.assertUpdateControlInitializing(control);
 
@@ -595,6 +597,8 @@ public class PulsarClusterControllerTest {
                       scaleUpMaxLimit: 30
                       scaleDownBy: 1
                       stabilizationWindowMs: 300000
+                      forceGcBeforeScaleUp: false
+                      forceGcWaitMs: 120000
                     cleanUpPvcs: true
                     setsUpdateStrategy: RollingUpdate
                     autoRackConfig:
@@ -699,6 +703,29 @@ public class PulsarClusterControllerTest {
         return controller.reconcile(cr, mock(Context.class));
     }
 
+    @Test
+    public void testChildReadyConditionChanged() {
+        final Broker initializing = brokerWithConditions(
+                List.of(AbstractController.createNotReadyInitializingCondition(1L)));
+        final Broker ready = brokerWithConditions(List.of(AbstractController.createReadyCondition(1L)));
+        final Broker readyNewGeneration = brokerWithConditions(List.of(AbstractController.createReadyCondition(2L)));
+        final Broker noConditions = brokerWithConditions(List.of());
+
+        Assert.assertTrue(PulsarClusterController.isReadyConditionChanged(ready, initializing));
+        Assert.assertTrue(PulsarClusterController.isReadyConditionChanged(initializing, ready));
+        Assert.assertTrue(PulsarClusterController.isReadyConditionChanged(readyNewGeneration, ready));
+        Assert.assertTrue(PulsarClusterController.isReadyConditionChanged(ready, noConditions));
+        Assert.assertFalse(PulsarClusterController.isReadyConditionChanged(ready,
+                brokerWithConditions(List.of(AbstractController.createReadyCondition(1L)))));
+        Assert.assertFalse(PulsarClusterController.isReadyConditionChanged(noConditions, new Broker()));
+    }
+
+    private static Broker brokerWithConditions(List<Condition> conditions) {
+        final Broker broker = new Broker();
+        broker.setStatus(new BaseComponentStatus(conditions, null));
+        return broker;
+    }
+
     private void setReadyCondition(BaseComponentStatus status, boolean ready) {
         final List<Condition> conditions = status.getConditions();
         final Condition current =
@@ -0,0 +1,137 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ReconciliationReadCacheTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    public void testNoReconciliation() {
+        reads.set(0);
+        Assert.assertNotNull(read("cm"));
+        Assert.assertNotNull(read("cm"));
+        Assert.assertEquals(reads.get(), 2);
+    }
+
+    @Test
+    public void testCoalesce() {
+        reads.set(0);
+        ReconciliationReadCache.start();
+        try {
+            final ConfigMap first = read("cm");
+            first.getData().put("key", "changed");
+            final ConfigMap second = read("cm");
+            Assert.assertEquals(reads.get(), 1);
+            // each caller gets its own copy
+            Assert.assertEquals(second.getData().get("key"), "value");
+            Assert.assertNotSame(read("cm"), second);
+
+            // missing resources are coalesced too
+            Assert.assertNull(ReconciliationReadCache.get(ConfigMap.class, "ns", "missing", this::readMissing));
+            Assert.assertNull(ReconciliationReadCache.get(ConfigMap.class, "ns", "missing", this::readMissing));
+            Assert.assertEquals(reads.get(), 2);
+
+            // the key includes the kind, the namespace and the name
+            read("cm2");
+            ReconciliationReadCache.get(Secret.class, "ns", "cm", () -> {
+                reads.incrementAndGet();
+                return null;
+            });
+            Assert.assertEquals(reads.get(), 4);
+
+            ReconciliationReadCache.invalidate();
+            read("cm");
+            Assert.assertEquals(reads.get(), 5);
+        } finally {
+            ReconciliationReadCache.stop();
+        }
+        read("cm");
+        Assert.assertEquals(reads.get(), 6);
+    }
+
+    @Test
+    public void testPropagate() throws Exception {
+        reads.set(0);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        ReconciliationReadCache.start();
+        try {
+            read("cm");
+            final Supplier<ConfigMap> task = ReconciliationReadCache.propagate(() -> read("cm"));
+            Assert.assertNotNull(CompletableFuture.supplyAsync(task, executor).get());
+            Assert.assertEquals(reads.get(), 1);
+            // the cache is not leaked to the executor thread
+            CompletableFuture.supplyAsync(() -> read("cm"), executor).get();
+            Assert.assertEquals(reads.get(), 2);
+        } finally {
+            ReconciliationReadCache.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidatedWhileReading() {
+        reads.set(0);
+        ReconciliationReadCache.start();
+        try {
+            ReconciliationReadCache.get(ConfigMap.class, "ns", "cm", () -> {
+                reads.incrementAndGet();
+                // a concurrent write
+                ReconciliationReadCache.invalidate();
+                return configMap("cm");
+            });
+            read("cm");
+            Assert.assertEquals(reads.get(), 2);
+        } finally {
+            ReconciliationReadCache.stop();
+        }
+    }
+
+    private ConfigMap read(String name) {
+        return ReconciliationReadCache.get(ConfigMap.class, "ns", name, () -> {
+            reads.incrementAndGet();
+            return configMap(name);
+        });
+    }
+
+    private ConfigMap readMissing() {
+        reads.incrementAndGet();
+        return null;
+    }
+
+    private static ConfigMap configMap(String name) {
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withNamespace("ns")
+                .endMetadata()
+                .withData(new HashMap<>(Map.of("key", "value")))
+                .build();
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.crds.CRDConstants;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSet;
+import io.fabric8.kubernetes.api.model.apps.ReplicaSetBuilder;
+import io.fabric8.kubernetes.api.model.storage.StorageClass;
+import io.fabric8.kubernetes.api.model.storage.StorageClassBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.awaitility.Awaitility;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ResourcesCacheTest {
+
+    private static final String NAMESPACE = "ns";
+    private static final Map<String, String> LABELS = Map.of(CRDConstants.LABEL_APP, CRDConstants.LABEL_APP_VALUE,
+            CRDConstants.LABEL_COMPONENT, "broker");
+    private KubernetesServer server;
+    private KubernetesClient client;
+
+    @BeforeMethod
+    public void beforeMethod() {
+        server = new KubernetesServer(false, true);
+        server.before();
+        client = server.getClient();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void afterMethod() {
+        server.after();
+    }
+
+    @Test
+    public void testReadFromCache() {
+        client.resource(configMap("cm", "v1")).inNamespace(NAMESPACE).create();
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            Assert.assertEquals(hash(cache.get(ConfigMap.class, NAMESPACE, "cm")), "v1");
+            // the data is not cached
+            Assert.assertTrue(cache.get(ConfigMap.class, NAMESPACE, "cm").getData().isEmpty());
+            Assert.assertNull(cache.get(ConfigMap.class, NAMESPACE, "not-exists"));
+            Assert.assertNull(cache.get(ConfigMap.class, "other-ns", "cm"));
+
+            client.configMaps().inNamespace(NAMESPACE).withName("cm")
+                    .edit(cm -> configMap("cm", "v2"));
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                    Assert.assertEquals(hash(cache.get(ConfigMap.class, NAMESPACE, "cm")), "v2"));
+
+            client.resource(configMap("cm2", "v1")).inNamespace(NAMESPACE).create();
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() ->
+                    Assert.assertNotNull(cache.get(ConfigMap.class, NAMESPACE, "cm2")));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testOnlyOperatorResourcesCached() {
+        client.resource(configMap("cm", "v1")).inNamespace(NAMESPACE).create();
+        client.resource(new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("other-app")
+                .withLabels(Map.of(CRDConstants.LABEL_APP, "other", CRDConstants.LABEL_COMPONENT, "broker"))
+                .endMetadata()
+                .withData(Map.of("k", "v"))
+                .build()).inNamespace(NAMESPACE).create();
+        client.resource(new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("no-component")
+                .withLabels(ResourcesCache.CACHED_RESOURCES_LABELS)
+                .endMetadata()
+                .withData(Map.of("k", "v"))
+                .build()).inNamespace(NAMESPACE).create();
+        client.resource(new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName("no-labels")
+                .endMetadata()
+                .withData(Map.of("k", "v"))
+                .build()).inNamespace(NAMESPACE).create();
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            // the resources not in the cache are read from the server, with their data
+            Assert.assertTrue(cache.get(ConfigMap.class, NAMESPACE, "cm").getData().isEmpty());
+            Assert.assertEquals(cache.get(ConfigMap.class, NAMESPACE, "other-app").getData(), Map.of("k", "v"));
+            Assert.assertEquals(cache.get(ConfigMap.class, NAMESPACE, "no-component").getData(), Map.of("k", "v"));
+            Assert.assertEquals(cache.get(ConfigMap.class, NAMESPACE, "no-labels").getData(), Map.of("k", "v"));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testNonNamespaced() {
+        client.resource(new StorageClassBuilder()
+                .withNewMetadata().withName("sc").withLabels(LABELS).endMetadata()
+                .withProvisioner("kubernetes.io/no-provisioner")
+                .build()).create();
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            Assert.assertEquals(cache.get(StorageClass.class, NAMESPACE, "sc").getProvisioner(),
+                    "kubernetes.io/no-provisioner");
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testFallbackToServer() {
+        client.resource(new SecretBuilder()
+                .withNewMetadata().withName("secret").endMetadata()
+                .withStringData(Map.of("k", "v"))
+                .build()).inNamespace(NAMESPACE).create();
+        client.resource(configMap("cm", "v1")).inNamespace(NAMESPACE).create();
+
+        final ResourcesCache disabledCache = new ResourcesCache(client, false);
+        Assert.assertEquals(disabledCache.get(ConfigMap.class, NAMESPACE, "cm").getData().get("k"), "v1");
+
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            // secrets are not cached
+            Assert.assertNotNull(cache.get(Secret.class, NAMESPACE, "secret"));
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testOwnerIndex() {
+        client.resource(replicaSet("rs1", "uid1")).inNamespace(NAMESPACE).create();
+        client.resource(replicaSet("rs2", "uid1")).inNamespace(NAMESPACE).create();
+        client.resource(replicaSet("rs3", "uid2")).inNamespace(NAMESPACE).create();
+        final ResourcesCache cache = new ResourcesCache(client, true);
+        try {
+            Assert.assertEquals(names(cache.getByOwner(ReplicaSet.class, NAMESPACE, "uid1")), Set.of("rs1", "rs2"));
+            Assert.assertEquals(names(cache.getByOwner(ReplicaSet.class, NAMESPACE, "uid2")), Set.of("rs3"));
+            Assert.assertTrue(cache.getByOwner(ReplicaSet.class, NAMESPACE, "uid3").isEmpty());
+            // not indexed
+            Assert.assertNull(cache.getByOwner(ConfigMap.class, NAMESPACE, "uid1"));
+
+            client.resource(replicaSet("rs4", "uid2")).inNamespace(NAMESPACE).create();
+            client.apps().replicaSets().inNamespace(NAMESPACE).withName("rs1").delete();
+            Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
+                Assert.assertEquals(names(cache.getByOwner(ReplicaSet.class, NAMESPACE, "uid1")), Set.of("rs2"));
+                Assert.assertEquals(names(cache.getByOwner(ReplicaSet.class, NAMESPACE, "uid2")),
+                        Set.of("rs3", "rs4"));
+            });
+        } finally {
+            cache.close();
+        }
+        Assert.assertNull(new ResourcesCache(client, false).getByOwner(ReplicaSet.class, NAMESPACE, "uid1"));
+    }
+
+    static ReplicaSet replicaSet(String name, String ownerUid) {
+        return new ReplicaSetBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withLabels(LABELS)
+                .withOwnerReferences(new OwnerReferenceBuilder()
+                        .withUid(ownerUid)
+                        .withKind("Deployment")
+                        .withName("owner")
+                        .withApiVersion("apps/v1")
+                        .build())
+                .endMetadata()
+                .build();
+    }
+
+    private static Set<String> names(List<? extends HasMetadata> resources) {
+        return resources.stream().map(r -> r.getMetadata().getName()).collect(Collectors.toSet());
+    }
+
+    private static ConfigMap configMap(String name, String value) {
+        return new ConfigMapBuilder()
+                .withNewMetadata()
+                .withName(name)
+                .withLabels(LABELS)
+                .withAnnotations(Map.of(BaseResourcesFactory.DESIRED_HASH_ANNOTATION, value))
+                .endMetadata()
+                .withData(Map.of("k", value))
+                .build();
+    }
+
+    private static String hash(ConfigMap configMap) {
+        return configMap.getMetadata().getAnnotations().get(BaseResourcesFactory.DESIRED_HASH_ANNOTATION);
+    }
+}
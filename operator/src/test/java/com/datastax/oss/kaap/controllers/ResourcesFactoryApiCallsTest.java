@@ -0,0 +1,265 @@
+/*
+ * Copyright DataStax, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.oss.kaap.controllers;
+
+import com.datastax.oss.kaap.controllers.zookeeper.ZooKeeperResourcesFactory;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
+import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ManagedFieldsEntryBuilder;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.jbosslog.JBossLog;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@JBossLog
+public class ResourcesFactoryApiCallsTest {
+
+    private static final String NAMESPACE = "ns";
+    private static final String RESOURCE_VERSION = "1";
+    private static final long GENERATION = 1L;
+
+    /**
+     * Resources cache backed by the objects applied to the mock server.
+     */
+    private static class AppliedResourcesCache extends ResourcesCache {
+
+        private final Map<String, HasMetadata> applied = new HashMap<>();
+
+        AppliedResourcesCache() {
+            super(null, true);
+        }
+
+        void record(RecordedRequest request) {
+            final HasMetadata resource = withServerFields(Serialization.unmarshal(request.getBody().readUtf8()));
+            applied.put(resource.getKind() + "/" + resource.getMetadata().getName(), resource);
+        }
+
+        @Override
+        public <R extends HasMetadata> R get(Class<R> resourceClass, String namespace, String name) {
+            return resourceClass.cast(applied.get(resourceClass.getSimpleName() + "/" + name));
+        }
+    }
+
+    @Test
+    public void testApiCallsPerReconcile() throws Exception {
+        final PulsarClusterSpec clusterSpec = readClusterSpec("");
+        final KubernetesServer server = startServer();
+        try {
+            for (int i = 0; i < 2; i++) {
+                final int calls = patchZooKeeperResources(server, clusterSpec, null);
+                log.infof("Reconcile %d: %d API calls", i, calls);
+                // one server side apply request per resource, both for creation and update
+                Assert.assertEquals(calls, 4);
+            }
+            for (int i = 0; i < 8; i++) {
+                final RecordedRequest request = server.getKubernetesMockServer().takeRequest();
+                Assert.assertEquals(request.getMethod(), "PATCH");
+                Assert.assertTrue(request.getHeader("Content-Type").startsWith("application/apply-patch+yaml"));
+                Assert.assertNull(Serialization.<HasMetadata>unmarshal(request.getBody().readUtf8())
+                        .getMetadata().getAnnotations().get(BaseResourcesFactory.DESIRED_HASH_ANNOTATION));
+            }
+        } finally {
+            server.after();
+        }
+    }
+
+    @Test
+    public void testSkipUnchangedResources() throws Exception {
+        final KubernetesServer server = startServer();
+        final AppliedResourcesCache cache = new AppliedResourcesCache();
+        try {
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 4);
+            for (int i = 0; i < 4; i++) {
+                cache.record(server.getKubernetesMockServer().takeRequest());
+            }
+            cache.applied.values().forEach(resource -> Assert.assertNotNull(resource.getMetadata().getAnnotations()
+                    .get(BaseResourcesFactory.DESIRED_HASH_ANNOTATION)));
+
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 0);
+
+            // only the config map changes
+            final PulsarClusterSpec changed = readClusterSpec("""
+                   config:
+                      tickTime: 5000
+                """);
+            Assert.assertEquals(patchZooKeeperResources(server, changed, cache), 1);
+            Assert.assertTrue(server.getKubernetesMockServer().takeRequest().getPath()
+                    .startsWith("/api/v1/namespaces/ns/configmaps/pul-zookeeper?"));
+        } finally {
+            server.after();
+        }
+    }
+
+    @Test
+    public void testReapplyModifiedResources() throws Exception {
+        final KubernetesServer server = startServer();
+        final AppliedResourcesCache cache = new AppliedResourcesCache();
+        try {
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 4);
+            for (int i = 0; i < 4; i++) {
+                cache.record(server.getKubernetesMockServer().takeRequest());
+            }
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 0);
+
+            // the status of the statefulset is updated during a rollout
+            final HasMetadata statefulSet = cache.applied.get("StatefulSet/pul-zookeeper");
+            statefulSet.getMetadata().setResourceVersion("2");
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 0);
+
+            // the statefulset is modified out of band, e.g. with kubectl scale
+            statefulSet.getMetadata().setGeneration(GENERATION + 1);
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 1);
+            Assert.assertTrue(server.getKubernetesMockServer().takeRequest().getPath()
+                    .startsWith("/apis/apps/v1/namespaces/ns/statefulsets/pul-zookeeper?"));
+
+            // the apply restored the desired state
+            statefulSet.getMetadata().setGeneration(GENERATION);
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 0);
+
+            // the config map has no generation, any change is a modification
+            cache.applied.get("ConfigMap/pul-zookeeper").getMetadata().setResourceVersion("2");
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), cache), 1);
+            Assert.assertTrue(server.getKubernetesMockServer().takeRequest().getPath()
+                    .startsWith("/api/v1/namespaces/ns/configmaps/pul-zookeeper?"));
+            cache.applied.get("ConfigMap/pul-zookeeper").getMetadata().setResourceVersion(RESOURCE_VERSION);
+
+            // every resource is applied again after a restart of the operator
+            Assert.assertEquals(patchZooKeeperResources(server, readClusterSpec(""), copyOf(cache)), 4);
+        } finally {
+            server.after();
+        }
+    }
+
+    @Test
+    public void testMigrateClientSideFieldManager() throws Exception {
+        final String path = "/api/v1/namespaces/ns/configmaps/pul-zookeeper";
+        final KubernetesServer server = new KubernetesServer(false);
+        server.before();
+        try {
+            // created by a previous version of the operator with client-side requests
+            server.expect()
+                    .patch()
+                    .withPath(path + "?fieldManager=kaap&force=true")
+                    .andReply(HttpURLConnection.HTTP_OK, recordedRequest -> {
+                        final HasMetadata applied = Serialization.unmarshal(
+                                recordedRequest.getBody().clone().readUtf8());
+                        applied.getMetadata().setResourceVersion(RESOURCE_VERSION);
+                        applied.getMetadata().setManagedFields(List.of(new ManagedFieldsEntryBuilder()
+                                .withManager("fabric8-kubernetes-client")
+                                .withOperation(ManagedFieldsMigration.OPERATION_UPDATE)
+                                .withNewFieldsV1()
+                                .endFieldsV1()
+                                .build()));
+                        return applied;
+                    })
+                    .once();
+            server.expect()
+                    .patch()
+                    .withPath(path)
+                    .andReturn(HttpURLConnection.HTTP_OK, null)
+                    .once();
+            server.expect()
+                    .patch()
+                    .withPath(path + "?fieldManager=kaap&force=true")
+                    .andReply(HttpURLConnection.HTTP_OK, recordedRequest -> Serialization.unmarshal(
+                            recordedRequest.getBody().clone().readUtf8()))
+                    .always();
+
+            final PulsarClusterSpec clusterSpec = readClusterSpec("");
+            final ZooKeeperResourcesFactory factory = new ZooKeeperResourcesFactory(server.getClient(),
+                    NAMESPACE, clusterSpec.getZookeeper(), clusterSpec.getGlobal(), null);
+            factory.patchConfigMap();
+            // apply, move the fields to the apply field manager and apply again to remove the dropped fields
+            Assert.assertEquals(server.getKubernetesMockServer().getRequestCount(), 3);
+            server.getKubernetesMockServer().takeRequest();
+            final RecordedRequest migration = server.getKubernetesMockServer().takeRequest();
+            Assert.assertEquals(migration.getPath(), path);
+            Assert.assertTrue(migration.getHeader("Content-Type").startsWith("application/json-patch+json"));
+            Assert.assertTrue(migration.getBody().readUtf8().contains("\"manager\":\"kaap\""));
+
+            factory.patchConfigMap();
+            Assert.assertEquals(server.getKubernetesMockServer().getRequestCount(), 4);
+        } finally {
+            server.after();
+        }
+    }
+
+    private static AppliedResourcesCache copyOf(AppliedResourcesCache cache) {
+        final AppliedResourcesCache copy = new AppliedResourcesCache();
+        copy.applied.putAll(cache.applied);
+        return copy;
+    }
+
+    private static PulsarClusterSpec readClusterSpec(String zooKeeperSpec) {
+        final PulsarClusterSpec clusterSpec = MockKubernetesClient.readYaml("""
+                global:
+                   name: pul
+                   image: apachepulsar/pulsar:global
+                zookeeper:
+                   replicas: 3
+                %s""".formatted(zooKeeperSpec), PulsarClusterSpec.class);
+        clusterSpec.getGlobal().applyDefaults(null);
+        clusterSpec.getZookeeper().applyDefaults(clusterSpec.getGlobalSpec());
+        return clusterSpec;
+    }
+
+    private static KubernetesServer startServer() {
+        final KubernetesServer server = new KubernetesServer(false);
+        server.before();
+        for (String path : List.of(
+                "/api/v1/namespaces/ns/configmaps/pul-zookeeper",
+                "/api/v1/namespaces/ns/services/pul-zookeeper",
+                "/api/v1/namespaces/ns/services/pul-zookeeper-ca",
+                "/apis/apps/v1/namespaces/ns/statefulsets/pul-zookeeper")) {
+            server.expect()
+                    .patch()
+                    .withPath(path + "?fieldManager=kaap&force=true")
+                    .andReply(HttpURLConnection.HTTP_OK, recordedRequest -> withServerFields(
+                            Serialization.unmarshal(recordedRequest.getBody().clone().readUtf8())))
+                    .always();
+        }
+        return server;
+    }
+
+    private static HasMetadata withServerFields(HasMetadata resource) {
+        resource.getMetadata().setResourceVersion(RESOURCE_VERSION);
+        if (resource instanceof StatefulSet) {
+            resource.getMetadata().setGeneration(GENERATION);
+        }
+        return resource;
+    }
+
+    private static int patchZooKeeperResources(KubernetesServer server, PulsarClusterSpec clusterSpec,
+                                               ResourcesCache cache) {
+        final ZooKeeperResourcesFactory factory = new ZooKeeperResourcesFactory(server.getClient(),
+                NAMESPACE, clusterSpec.getZookeeper(), clusterSpec.getGlobal(), null);
+        factory.setResourcesCache(cache);
+        final int before = server.getKubernetesMockServer().getRequestCount();
+        factory.patchConfigMap();
+        factory.patchService();
+        factory.patchCaService();
+        factory.patchStatefulSet();
+        return server.getKubernetesMockServer().getRequestCount() - before;
+    }
+}
@@ -16,12 +16,18 @@
 package com.datastax.oss.kaap.controllers.bookkeeper;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import com.datastax.oss.kaap.OperatorCheckpoint;
 import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieAdminClient;
+import com.datastax.oss.kaap.autoscaler.bookkeeper.BookieDecommissionUtil;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.controllers.AbstractController;
 import com.datastax.oss.kaap.controllers.ControllerTestUtil;
 import com.datastax.oss.kaap.controllers.KubeTestUtil;
+import com.datastax.oss.kaap.controllers.ResourcesCache;
 import com.datastax.oss.kaap.controllers.bookkeeper.racks.BookKeeperRackDaemon;
 import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.BkRackClient;
 import com.datastax.oss.kaap.controllers.bookkeeper.racks.client.BkRackClientFactory;
@@ -33,6 +39,7 @@ import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperSetSpec;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
 import com.datastax.oss.kaap.mocks.MockResourcesResolver;
 import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
 import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
 import io.fabric8.kubernetes.api.model.PodBuilder;
@@ -61,12 +68,16 @@ public class BookKeeperSetsControllerTest {
     static final String NAMESPACE = "ns";
     static final String CLUSTER_NAME = "pulsar-spec-1";
     private BookieAdminClient bookieAdminClient;
+    private OperatorCheckpoint checkpoint;
+    private ResourcesCache staleResourcesCache;
     private final ControllerTestUtil<BookKeeperFullSpec, BookKeeper> controllerTestUtil =
             new ControllerTestUtil<>(NAMESPACE, CLUSTER_NAME, this::controllerConstructor);
 
     @BeforeMethod(alwaysRun = true)
     public void beforeMethod() {
         bookieAdminClient = Mockito.mock(BookieAdminClient.class);
+        checkpoint = new OperatorCheckpoint(null, false);
+        staleResourcesCache = null;
     }
 
     @Test
@@ -731,8 +742,8 @@ public class BookKeeperSetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, bookkeeperUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         setsLastApplied =
                 SerializationUtil.readJson(bookkeeperUpdateControl.getResource().getStatus().getLastApplied(),
@@ -828,8 +839,8 @@ public class BookKeeperSetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, bookkeeperUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(bookkeeperUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -837,8 +848,8 @@ public class BookKeeperSetsControllerTest {
                 resolver.newStatefulSetBuilder("pulsar-spec-1-bookkeeper-setz", true).build());
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, bookkeeperUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(bookkeeperUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -883,8 +894,8 @@ public class BookKeeperSetsControllerTest {
                 resolver.newStatefulSetBuilder("pulsar-spec-1-bookkeeper-setz", true).build());
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, bookkeeperUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(bookkeeperUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -1012,8 +1023,10 @@ public class BookKeeperSetsControllerTest {
         Assert.assertNotNull(client.getCreatedResource(StatefulSet.class, "pulsar-spec-1-bookkeeper"));
         Assert.assertEquals(client.getDeletedResources().size(), 0);
 
-        resolver.putResource("pulsar-spec-1-bookkeeper",
-                resolver.newStatefulSetBuilder("pulsar-spec-1-bookkeeper", true).build());
+        resolver.putResource("pulsar-spec-1-bookkeeper", resolver
+                .newStatefulSetBuilder("pulsar-spec-1-bookkeeper", true)
+                .withNewSpec().withReplicas(4).endSpec()
+                .build());
 
         resolver.putResource("pulsar-spec-1-bookkeeper-journal-0", genPvc());
         resolver.putResource("pulsar-spec-1-bookkeeper-ledgers-0", genPvc());
@@ -1055,6 +1068,10 @@ public class BookKeeperSetsControllerTest {
                     cleanUpPvcs: false
                     replicas: 1
                 """;
+        resolver.putResource("pulsar-spec-1-bookkeeper", resolver
+                .newStatefulSetBuilder("pulsar-spec-1-bookkeeper", true)
+                .withNewSpec().withReplicas(2).endSpec()
+                .build());
         mockBookieAdminClient(2);
         client = new MockKubernetesClient(NAMESPACE, resolver);
         bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
@@ -1078,6 +1095,12 @@ public class BookKeeperSetsControllerTest {
     private AbstractController<BookKeeper> controllerConstructor(
             ControllerTestUtil<BookKeeperFullSpec, BookKeeper>.ControllerConstructorInput controllerConstructorInput) {
         return new BookKeeperController(controllerConstructorInput.getClient()) {
+            {
+                checkpoint = BookKeeperSetsControllerTest.this.checkpoint;
+                if (staleResourcesCache != null) {
+                    resourcesCache = staleResourcesCache;
+                }
+            }
 
             @Override
             protected BookieAdminClient createBookieAdminClient(String namespace, String setName,
@@ -1142,6 +1165,10 @@ public class BookKeeperSetsControllerTest {
         Assert.assertEquals((int) client.getCreatedResource(StatefulSet.class).getResource().getSpec().getReplicas(),
                 5);
 
+        resolver.putResource("pul-bookkeeper", resolver
+                .newStatefulSetBuilder("pul-bookkeeper", false)
+                .withNewSpec().withReplicas(5).endSpec()
+                .build());
         mockBookieAdminClient(5);
         spec = """
                 global:
@@ -1156,6 +1183,93 @@ public class BookKeeperSetsControllerTest {
         KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
         Assert.assertEquals((int) client.getCreatedResource(StatefulSet.class).getResource().getSpec().getReplicas(),
                 3);
+        verify(bookieAdminClient, times(2)).setReadOnly(any(), eq(true));
+        Assert.assertNull(checkpoint.get(OperatorCheckpoint.key(BookieDecommissionUtil.CHECKPOINT_KIND,
+                NAMESPACE, "bookkeeper"), BookieDecommissionUtil.DecommissionCheckpoint.class));
+    }
+
+    /**
+     * The informers haven't seen the previous downscale yet, the bookies to decommission are computed from the
+     * statefulset on the API server.
+     */
+    @Test
+    public void testDownscalingWithStaleCache() throws Exception {
+        String spec = """
+                global:
+                    name: pul
+                    persistence: false
+                    image: apachepulsar/pulsar:global
+                bookkeeper:
+                    replicas: 3
+                """;
+        MockResourcesResolver resolver = new MockResourcesResolver();
+        MockKubernetesClient client = new MockKubernetesClient(NAMESPACE, resolver);
+        UpdateControl<BookKeeper> bookkeeperUpdateControl = invokeController(spec, new BookKeeper(), client);
+        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+
+        resolver.putResource("pul-bookkeeper", resolver
+                .newStatefulSetBuilder("pul-bookkeeper", false)
+                .withNewSpec().withReplicas(3).endSpec()
+                .build());
+        final StatefulSet stale = resolver
+                .newStatefulSetBuilder("pul-bookkeeper", false)
+                .withNewSpec().withReplicas(5).endSpec()
+                .build();
+        staleResourcesCache = new ResourcesCache(null, true) {
+            @Override
+            public <R extends HasMetadata> R get(Class<R> resourceClass, String namespace, String name) {
+                return resourceClass == StatefulSet.class ? resourceClass.cast(stale) : null;
+            }
+        };
+        mockBookieAdminClient(3);
+        spec = """
+                global:
+                    name: pul
+                    persistence: false
+                    image: apachepulsar/pulsar:global
+                bookkeeper:
+                    replicas: 2
+                """;
+        client = new MockKubernetesClient(NAMESPACE, resolver);
+        invokeController(spec, bookkeeperUpdateControl.getResource(), client);
+        verify(bookieAdminClient, times(1)).setReadOnly(any(), eq(true));
+    }
+
+    @Test
+    public void testRestoreInterruptedDecommission() throws Exception {
+        String spec = """
+                global:
+                    name: pul
+                    persistence: false
+                    image: apachepulsar/pulsar:global
+                bookkeeper:
+                    replicas: 5
+                """;
+        MockResourcesResolver resolver = new MockResourcesResolver();
+        MockKubernetesClient client = new MockKubernetesClient(NAMESPACE, resolver);
+        UpdateControl<BookKeeper> bookkeeperUpdateControl = invokeController(spec, new BookKeeper(), client);
+        KubeTestUtil.assertUpdateControlInitializing(bookkeeperUpdateControl);
+
+        resolver.putResource("pul-bookkeeper", resolver
+                .newStatefulSetBuilder("pul-bookkeeper", true)
+                .withNewSpec().withReplicas(5).endSpec()
+                .build());
+        mockBookieAdminClient(5);
+        // the previous leader was decommissioning 2 bookies, then the replicas have been restored
+        final String key = OperatorCheckpoint.key(BookieDecommissionUtil.CHECKPOINT_KIND, NAMESPACE, "bookkeeper");
+        checkpoint.put(key, new BookieDecommissionUtil.DecommissionCheckpoint(
+                List.of("pul-bookkeeper-4", "pul-bookkeeper-3"), System.currentTimeMillis()));
+
+        client = new MockKubernetesClient(NAMESPACE, resolver);
+        bookkeeperUpdateControl = invokeController(spec, bookkeeperUpdateControl.getResource(), client);
+        KubeTestUtil.assertUpdateControlReady(bookkeeperUpdateControl);
+        verify(bookieAdminClient, times(2)).setReadOnly(any(), eq(false));
+        verify(bookieAdminClient, times(0)).setReadOnly(any(), eq(true));
+        Assert.assertNull(checkpoint.get(key, BookieDecommissionUtil.DecommissionCheckpoint.class));
+
+        client = new MockKubernetesClient(NAMESPACE, resolver);
+        invokeController(spec, bookkeeperUpdateControl.getResource(), client);
+        verify(bookieAdminClient, times(2)).setReadOnly(any(), eq(false));
     }
 
     private void mockBookieAdminClient(int replicas) {
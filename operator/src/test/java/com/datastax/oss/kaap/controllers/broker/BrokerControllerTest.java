@@ -20,6 +20,7 @@ import com.datastax.oss.kaap.controllers.ControllerTestUtil;
 import com.datastax.oss.kaap.controllers.KubeTestUtil;
 import com.datastax.oss.kaap.crds.BaseComponentStatus;
 import com.datastax.oss.kaap.crds.GlobalSpec;
+import com.datastax.oss.kaap.crds.SetSpecView;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
@@ -357,7 +358,8 @@ public class BrokerControllerTest {
         final BrokerController.BrokerSetsLastApplied statusLastApplied =
                 new BrokerController.BrokerSetsLastApplied();
         statusLastApplied.setCommon(brokerCr.getSpec());
-        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET, brokerCr.getSpec());
+        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                SetSpecView.hash(brokerCr.getSpec(), BrokerResourcesFactory.BROKER_DEFAULT_SET));
         brokerCr.setStatus(
                 new BaseComponentStatus(List.of(), SerializationUtil.writeAsJson(statusLastApplied))
         );
@@ -654,7 +656,8 @@ public class BrokerControllerTest {
         final BrokerController.BrokerSetsLastApplied statusLastApplied =
                 new BrokerController.BrokerSetsLastApplied();
         statusLastApplied.setCommon(brokerCr.getSpec());
-        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET, brokerCr.getSpec());
+        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                SetSpecView.hash(brokerCr.getSpec(), BrokerResourcesFactory.BROKER_DEFAULT_SET));
         brokerCr.setStatus(
                 new BaseComponentStatus(List.of(), SerializationUtil.writeAsJson(statusLastApplied))
         );
@@ -1297,7 +1300,8 @@ public class BrokerControllerTest {
         final BrokerController.BrokerSetsLastApplied statusLastApplied =
                 new BrokerController.BrokerSetsLastApplied();
         statusLastApplied.setCommon(brokerCr.getSpec());
-        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET, brokerCr.getSpec());
+        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                SetSpecView.hash(brokerCr.getSpec(), BrokerResourcesFactory.BROKER_DEFAULT_SET));
         brokerCr.setStatus(
                 new BaseComponentStatus(List.of(), SerializationUtil.writeAsJson(statusLastApplied))
         );
@@ -1547,7 +1551,8 @@ public class BrokerControllerTest {
         final BrokerController.BrokerSetsLastApplied statusLastApplied =
                 new BrokerController.BrokerSetsLastApplied();
         statusLastApplied.setCommon(brokerCr.getSpec());
-        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET, brokerCr.getSpec());
+        statusLastApplied.getSets().put(BrokerResourcesFactory.BROKER_DEFAULT_SET,
+                SetSpecView.hash(brokerCr.getSpec(), BrokerResourcesFactory.BROKER_DEFAULT_SET));
         brokerCr.setStatus(
                 new BaseComponentStatus(List.of(), SerializationUtil.writeAsJson(statusLastApplied))
         );
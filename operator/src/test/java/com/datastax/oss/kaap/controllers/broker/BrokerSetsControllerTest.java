@@ -15,21 +15,28 @@
  */
 package com.datastax.oss.kaap.controllers.broker;
 
+import com.datastax.oss.kaap.OperatorMetrics;
 import com.datastax.oss.kaap.common.SerializationUtil;
 import com.datastax.oss.kaap.controllers.ControllerTestUtil;
 import com.datastax.oss.kaap.controllers.KubeTestUtil;
 import com.datastax.oss.kaap.crds.CRDConstants;
+import com.datastax.oss.kaap.crds.SetSpecView;
 import com.datastax.oss.kaap.crds.broker.Broker;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
 import com.datastax.oss.kaap.mocks.MockResourcesResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
 import io.fabric8.kubernetes.api.model.policy.v1.PodDisruptionBudget;
 import io.javaoperatorsdk.operator.api.reconciler.UpdateControl;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.LinkedHashMap;
+import java.util.Map;
 import lombok.SneakyThrows;
 import lombok.extern.jbosslog.JBossLog;
 import org.testng.Assert;
@@ -613,6 +620,98 @@ public class BrokerSetsControllerTest {
     }
 
 
+    @Test
+    public void testSkipUnchangedStatus() throws Exception {
+        String spec = """
+                global:
+                    name: pulsar-spec-1
+                    image: apachepulsar/pulsar:global
+                broker:
+                    sets:
+                      set1: {}
+                """;
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Metrics.addRegistry(meterRegistry);
+        try {
+            MockResourcesResolver resolver = new MockResourcesResolver();
+            UpdateControl<Broker> brokerUpdateControl =
+                    invokeController(spec, new Broker(), new MockKubernetesClient(NAMESPACE, resolver));
+            KubeTestUtil.assertUpdateControlInitializing(brokerUpdateControl);
+            final Broker broker = brokerUpdateControl.getResource();
+            final String lastTransitionTime =
+                    KubeTestUtil.getReadyCondition(broker.getStatus()).getLastTransitionTime();
+            Assert.assertNotNull(lastTransitionTime);
+
+            KubeTestUtil.assertUpdateControlStatusUnchanged(
+                    invokeController(spec, broker, new MockKubernetesClient(NAMESPACE, resolver)));
+
+            resolver.putResource("pulsar-spec-1-broker-set1",
+                    resolver.newStatefulSetBuilder("pulsar-spec-1-broker-set1", true).build());
+            brokerUpdateControl = invokeController(spec, broker, new MockKubernetesClient(NAMESPACE, resolver));
+            KubeTestUtil.assertUpdateControlReady(brokerUpdateControl);
+            Assert.assertNotEquals(KubeTestUtil.getReadyCondition(brokerUpdateControl.getResource().getStatus())
+                    .getLastTransitionTime(), lastTransitionTime);
+
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.RECONCILIATION_STATUS_UPDATES)
+                    .tags("kind", "Broker", "result", "skipped").counter().count(), 1.0);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.RECONCILIATION_STATUS_UPDATES)
+                    .tags("kind", "Broker", "result", "updated").counter().count(), 2.0);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.RECONCILIATION_DURATION)
+                    .tags("kind", "Broker", "phase", OperatorMetrics.PHASE_PATCH).timer().count(), 3);
+            Assert.assertEquals(meterRegistry.get(OperatorMetrics.RECONCILIATION_DURATION)
+                    .tags("kind", "Broker", "phase", OperatorMetrics.PHASE_TOTAL).timer().count(), 3);
+        } finally {
+            Metrics.removeRegistry(meterRegistry);
+        }
+    }
+
+    @Test
+    public void testMigrateLegacyLastApplied() throws Exception {
+        String spec = """
+                global:
+                    name: pulsar-spec-1
+                    image: apachepulsar/pulsar:global
+                broker:
+                    sets:
+                      set1: {}
+                      set2:
+                        replicas: 2
+                """;
+        MockResourcesResolver resolver = new MockResourcesResolver();
+        resolver.putResource("pulsar-spec-1-broker-set1",
+                resolver.newStatefulSetBuilder("pulsar-spec-1-broker-set1", true).build());
+        resolver.putResource("pulsar-spec-1-broker-set2",
+                resolver.newStatefulSetBuilder("pulsar-spec-1-broker-set2", true).build());
+        UpdateControl<Broker> brokerUpdateControl =
+                invokeController(spec, new Broker(), new MockKubernetesClient(NAMESPACE, resolver));
+        KubeTestUtil.assertUpdateControlReady(brokerUpdateControl);
+        final String compactLastApplied = brokerUpdateControl.getResource().getStatus().getLastApplied();
+
+        // before the compact format, each set stored the whole full spec
+        final ObjectNode legacy = (ObjectNode) SerializationUtil.readJsonTree(compactLastApplied);
+        final JsonNode common = legacy.get("common");
+        legacy.putObject("sets")
+                .setAll(Map.of("set1", common, "set2", common));
+        final String legacyLastApplied = SerializationUtil.writeAsJson(legacy);
+        brokerUpdateControl.getResource().getStatus().setLastApplied(legacyLastApplied);
+
+        final MockKubernetesClient client = new MockKubernetesClient(NAMESPACE, resolver);
+        brokerUpdateControl = invokeController(spec, brokerUpdateControl.getResource(), client);
+        KubeTestUtil.assertUpdateControlReady(brokerUpdateControl);
+        Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
+        Assert.assertEquals(client.getCreatedResources(ConfigMap.class).size(), 0);
+        Assert.assertEquals(
+                SerializationUtil.readJsonTree(brokerUpdateControl.getResource().getStatus().getLastApplied()),
+                SerializationUtil.readJsonTree(compactLastApplied));
+        Assert.assertTrue(compactLastApplied.length() * 2 < legacyLastApplied.length());
+
+        final BrokerController.BrokerSetsLastApplied setsLastApplied =
+                SerializationUtil.readJson(compactLastApplied, BrokerController.BrokerSetsLastApplied.class);
+        Assert.assertEquals(setsLastApplied.getSets().get("set1"),
+                SetSpecView.hash(setsLastApplied.getCommon(), "set1"));
+        Assert.assertNotEquals(setsLastApplied.getSets().get("set1"), setsLastApplied.getSets().get("set2"));
+    }
+
     @Test
     public void testRollingUpdate() throws Exception {
         String spec = """
@@ -638,8 +737,8 @@ public class BrokerSetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        brokerUpdateControl = invokeController(spec, brokerUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(brokerUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, brokerUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
 
         resolver.putResource("pulsar-spec-1-broker-setz",
@@ -732,8 +831,8 @@ public class BrokerSetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        brokerUpdateControl = invokeController(spec, brokerUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(brokerUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, brokerUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(brokerUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -741,8 +840,8 @@ public class BrokerSetsControllerTest {
                 resolver.newStatefulSetBuilder("pulsar-spec-1-broker-setz", true).build());
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        brokerUpdateControl = invokeController(spec, brokerUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(brokerUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, brokerUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(brokerUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -787,8 +886,8 @@ public class BrokerSetsControllerTest {
                 resolver.newStatefulSetBuilder("pulsar-spec-1-broker-setz", true).build());
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        brokerUpdateControl = invokeController(spec, brokerUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(brokerUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, brokerUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(StatefulSet.class).size(), 0);
         Assert.assertNotNull(brokerUpdateControl.getResource().getStatus().getLastApplied());
 
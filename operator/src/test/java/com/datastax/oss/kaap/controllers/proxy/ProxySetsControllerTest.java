@@ -586,8 +586,8 @@ public class ProxySetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        proxyUpdateControl = invokeController(spec, proxyUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(proxyUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, proxyUpdateControl.getResource(), client));
         proxySetsLastApplied =
                 SerializationUtil.readJson(proxyUpdateControl.getResource().getStatus().getLastApplied(),
                         ProxyController.ProxySetsLastApplied.class);
@@ -675,16 +675,16 @@ public class ProxySetsControllerTest {
 
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        proxyUpdateControl = invokeController(spec, proxyUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(proxyUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, proxyUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(Deployment.class).size(), 0);
         Assert.assertNotNull(proxyUpdateControl.getResource().getStatus().getLastApplied());
 
         resolver.putDeployment("pulsar-spec-1-proxy-setz", true);
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        proxyUpdateControl = invokeController(spec, proxyUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(proxyUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, proxyUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(Deployment.class).size(), 0);
         Assert.assertNotNull(proxyUpdateControl.getResource().getStatus().getLastApplied());
 
@@ -725,8 +725,8 @@ public class ProxySetsControllerTest {
         resolver.putDeployment("pulsar-spec-1-proxy-setz", true);
 
         client = new MockKubernetesClient(NAMESPACE, resolver);
-        proxyUpdateControl = invokeController(spec, proxyUpdateControl.getResource(), client);
-        KubeTestUtil.assertUpdateControlInitializing(proxyUpdateControl);
+        KubeTestUtil.assertUpdateControlStatusUnchanged(
+                invokeController(spec, proxyUpdateControl.getResource(), client));
         Assert.assertEquals(client.getCreatedResources(Deployment.class).size(), 0);
         Assert.assertNotNull(proxyUpdateControl.getResource().getStatus().getLastApplied());
 
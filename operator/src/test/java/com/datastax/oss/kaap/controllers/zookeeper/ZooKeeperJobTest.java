@@ -17,6 +17,7 @@ package com.datastax.oss.kaap.controllers.zookeeper;
 
 import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import com.datastax.oss.kaap.mocks.MockKubernetesClient;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
 import io.fabric8.kubernetes.api.model.batch.v1.Job;
 import io.fabric8.kubernetes.api.model.batch.v1.JobBuilder;
 import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
@@ -43,6 +44,7 @@ public class ZooKeeperJobTest {
         enum CurrentJobState {
             NotExists,
             Running,
+            RunningWithImmutableChanges,
             Completed
         }
         @Data
@@ -70,18 +72,36 @@ public class ZooKeeperJobTest {
             server = new KubernetesServer(false);
             server.before();
 
+            final String jobPath = "/apis/batch/v1/namespaces/ns/jobs/%s-zookeeper-metadata"
+                    .formatted(clusterSpecName);
+            final String applyPath = jobPath + "?fieldManager=kaap&force=true";
+            if (currentJobState == CurrentJobState.RunningWithImmutableChanges) {
+                server.expect()
+                        .patch()
+                        .withPath(applyPath)
+                        .andReply(422, recordedRequest -> {
+                            MockServer.this.ops.add(new Op("PATCH"));
+                            return new StatusBuilder()
+                                    .withCode(422)
+                                    .withMessage("Job.batch \"%s-zookeeper-metadata\" is invalid: spec.template: "
+                                            .formatted(clusterSpecName)
+                                            + "Invalid value: \"\": field is immutable")
+                                    .build();
+                        })
+                        .once();
+            }
             server.expect()
-                    .post()
-                    .withPath("/apis/batch/v1/namespaces/ns/jobs")
+                    .patch()
+                    .withPath(applyPath)
                     .andReply(HttpURLConnection.HTTP_OK, recordedRequest -> {
-                        MockServer.this.ops.add(new Op("POST"));
+                        MockServer.this.ops.add(new Op("PATCH"));
                         return null;
                     })
                     .once();
 
             server.expect()
                     .delete()
-                    .withPath("/apis/batch/v1/namespaces/ns/jobs/%s-zookeeper-metadata".formatted(clusterSpecName))
+                    .withPath(jobPath)
                     .andReply(HttpURLConnection.HTTP_OK, recordedRequest -> {
                         MockServer.this.ops.add(new Op("DELETE"));
                         return null;
@@ -99,14 +119,14 @@ public class ZooKeeperJobTest {
                         .withName("%s-zookeeper-metadata".formatted(clusterSpecName))
                         .endMetadata()
                         .withNewStatus()
-                        .withSucceeded(currentJobState == CurrentJobState.Running ? 0 : 1)
+                        .withSucceeded(currentJobState == CurrentJobState.Completed ? 1 : 0)
                         .endStatus()
                         .build();
             }
 
             server.expect()
                     .get()
-                    .withPath("/apis/batch/v1/namespaces/ns/jobs/%s-zookeeper-metadata".formatted(clusterSpecName))
+                    .withPath(jobPath)
                     .andReturn(HttpURLConnection.HTTP_OK, currentJob)
                     .always();
         }
@@ -128,12 +148,12 @@ public class ZooKeeperJobTest {
 
         final MockServer server = invokeJobCreate(spec, MockServer.CurrentJobState.NotExists);
         Assert.assertEquals(server.ops.size(), 1);
-        Assert.assertEquals(server.ops.get(0).method, "POST");
+        Assert.assertEquals(server.ops.get(0).method, "PATCH");
     }
 
 
     @Test
-    public void testRecreateIfRunning() throws Exception {
+    public void testApplyIfRunning() throws Exception {
         final String spec = """
                 global:
                    name: pul
@@ -142,9 +162,24 @@ public class ZooKeeperJobTest {
                 """;
 
         final MockServer server = invokeJobCreate(spec, MockServer.CurrentJobState.Running);
-        Assert.assertEquals(server.ops.size(), 2);
-        Assert.assertEquals(server.ops.get(0).method, "DELETE");
-        Assert.assertEquals(server.ops.get(1).method, "POST");
+        Assert.assertEquals(server.ops.size(), 1);
+        Assert.assertEquals(server.ops.get(0).method, "PATCH");
+    }
+
+    @Test
+    public void testRecreateIfImmutableFieldsChanged() throws Exception {
+        final String spec = """
+                global:
+                   name: pul
+                zookeeper:
+                    image: apachepulsar/pulsar:global
+                """;
+
+        final MockServer server = invokeJobCreate(spec, MockServer.CurrentJobState.RunningWithImmutableChanges);
+        Assert.assertEquals(server.ops.size(), 3);
+        Assert.assertEquals(server.ops.get(0).method, "PATCH");
+        Assert.assertEquals(server.ops.get(1).method, "DELETE");
+        Assert.assertEquals(server.ops.get(2).method, "PATCH");
     }
 
 
@@ -16,8 +16,10 @@
 package com.datastax.oss.kaap.crds;
 
 import com.datastax.oss.kaap.common.SerializationUtil;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
 import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -57,4 +59,63 @@ public class ConfigUtilTest {
                         """);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testDefaultsEvaluatedOnce() {
+        final AtomicInteger calls = new AtomicInteger();
+        final BookKeeperAutoscalerSpec res = ConfigUtil.applyDefaultsWithReflection(
+                BookKeeperAutoscalerSpec.builder()
+                        .enabled(true)
+                        .minWritableBookies(5)
+                        .build(),
+                () -> {
+                    calls.incrementAndGet();
+                    return BookKeeperAutoscalerSpec.builder()
+                            .enabled(false)
+                            .minWritableBookies(3)
+                            .periodMs(10000L)
+                            .build();
+                });
+        Assert.assertEquals(calls.get(), 1);
+        Assert.assertTrue(res.getEnabled());
+        Assert.assertEquals((int) res.getMinWritableBookies(), 5);
+        Assert.assertEquals((long) res.getPeriodMs(), 10000L);
+        Assert.assertNull(res.getScaleUpBy());
+    }
+
+    @Test
+    public void testNestedDefaults() {
+        final BrokerFullSpec brokerFullSpec = SerializationUtil.readYaml("""
+                broker:
+                    replicas: 3
+                    config:
+                        key: value
+                    probes:
+                        readiness:
+                            enabled: false
+                    sets:
+                        set1:
+                            replicas: 2
+                            config:
+                                other: value2
+                            probes:
+                                liveness:
+                                    timeoutSeconds: 10
+                """, BrokerFullSpec.class);
+        final BrokerSetSpec res = ConfigUtil.applyDefaultsWithReflection(
+                brokerFullSpec.getBroker().getSets().get("set1"), () -> brokerFullSpec.getBroker());
+        Assert.assertEquals(SerializationUtil.writeAsYaml(res),
+                """
+                        ---
+                        replicas: 2
+                        config:
+                          key: value
+                          other: value2
+                        probes:
+                          readiness:
+                            enabled: false
+                          liveness:
+                            timeoutSeconds: 10
+                        """);
+    }
+
+}
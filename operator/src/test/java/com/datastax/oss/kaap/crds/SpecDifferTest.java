@@ -15,9 +15,23 @@
  */
 package com.datastax.oss.kaap.crds;
 
+import com.datastax.oss.kaap.common.SerializationUtil;
+import com.datastax.oss.kaap.common.json.JSONAssertComparator;
 import com.datastax.oss.kaap.common.json.JSONComparator;
+import com.datastax.oss.kaap.crds.bookkeeper.BookKeeperAutoscalerSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerFullSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSetSpec;
+import com.datastax.oss.kaap.crds.broker.BrokerSpec;
+import com.datastax.oss.kaap.crds.cluster.PulsarClusterSpec;
 import com.datastax.oss.kaap.crds.configs.RackConfig;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class SpecDifferTest {
@@ -40,6 +54,135 @@ public class SpecDifferTest {
         assertDiffs(null, Map.of());
     }
 
+    @Test
+    public void testDiffs() {
+        final JSONComparator.Result result = SpecDiffer.generateDiff(
+                Map.of("a", Map.of("b", "v1", "c", "v"), "list", List.of(1, 2), "removed", Map.of("x", 1)),
+                Map.of("a", Map.of("b", "v2", "c", "v"), "list", List.of(1, 3), "added", "new")
+        );
+        Assert.assertFalse(result.areEquals());
+        final Map<String, JSONComparator.FieldComparisonDiff> diffs = result.diffs()
+                .stream()
+                .collect(Collectors.toMap(JSONComparator.FieldComparisonDiff::field, Function.identity()));
+        Assert.assertEquals(diffs.size(), 4);
+        Assert.assertEquals(diffs.get("a.b"), new JSONComparator.FieldComparisonDiff("a.b", "v1", "v2"));
+        Assert.assertEquals(diffs.get("list[1]"), new JSONComparator.FieldComparisonDiff("list[1]", "2", "3"));
+        Assert.assertEquals(diffs.get("\"removed\""),
+                new JSONComparator.FieldComparisonDiff("\"removed\"", "{\"x\":1}", null));
+        Assert.assertEquals(diffs.get("\"added\""),
+                new JSONComparator.FieldComparisonDiff("\"added\"", null, "new"));
+
+        final JSONComparator.Result arrayLength = SpecDiffer.generateDiff(
+                Map.of("list", List.of(1, 2)), Map.of("list", List.of(1)));
+        Assert.assertEquals(arrayLength.diffs(),
+                List.of(new JSONComparator.FieldComparisonDiff("list", "[1,2]", "[1]")));
+    }
+
+    @Test
+    public void testDiffWithJson() {
+        final BookKeeperAutoscalerSpec spec = BookKeeperAutoscalerSpec.builder()
+                .enabled(true)
+                .diskUsageToleranceHwm(0.92d)
+                .minWritableBookies(3)
+                .forceGcWaitMs(120000L)
+                .build();
+        final String json = SerializationUtil.writeAsJson(spec);
+        Assert.assertTrue(SpecDiffer.generateDiff(spec, json).areEquals());
+        Assert.assertTrue(SpecDiffer.generateDiff(json, spec).areEquals());
+        Assert.assertTrue(SpecDiffer.generateDiff(json, json).areEquals());
+        Assert.assertTrue(SpecDiffer.generateDiff("{\"a\":1}", "{\"a\":1.0}").areEquals());
+        Assert.assertFalse(SpecDiffer.generateDiff("{\"a\":1}", "{\"a\":\"1\"}").areEquals());
+        Assert.assertFalse(SpecDiffer.generateDiff(spec, json.replace("0.92", "0.93")).areEquals());
+    }
+
+    @Test
+    public void testConsistentWithJSONAssert() {
+        final PulsarClusterSpec spec = new PulsarClusterSpec();
+        spec.setGlobal(GlobalSpec.builder()
+                .name("pulsar")
+                .image("apachepulsar/pulsar:2.10.2")
+                .build());
+        spec.getGlobal().applyDefaults(null);
+        spec.applyDefaults(spec.getGlobalSpec());
+        final String expected = SerializationUtil.writeAsJson(spec);
+
+        spec.getBroker().setReplicas(5);
+        spec.getBookkeeper().getAutoscaler().setEnabled(true);
+        spec.getZookeeper().setConfig(Map.of("tickTime", "5000"));
+        spec.getGlobal().setImage(null);
+        final String actual = SerializationUtil.writeAsJson(spec);
+
+        final JSONComparator.Result jsonAssertResult = new JSONAssertComparator().compare(expected, actual);
+        final JSONComparator.Result result = SpecDiffer.generateDiff(expected, actual);
+        Assert.assertFalse(result.areEquals());
+        Assert.assertEquals(result.diffs().size(), jsonAssertResult.diffs().size());
+        Assert.assertEquals(
+                result.diffs().stream().map(JSONComparator.FieldComparisonDiff::actual).collect(Collectors.toSet()),
+                jsonAssertResult.diffs().stream().map(JSONComparator.FieldComparisonDiff::actual)
+                        .collect(Collectors.toSet()));
+        Assert.assertTrue(SpecDiffer.generateDiff(actual, spec).areEquals());
+    }
+
+    @Test
+    public void testSetDiff() {
+        final BrokerFullSpec lastApplied = brokerWithSets(Map.of("set1", 1, "set2", 1));
+        final BrokerFullSpec spec = brokerWithSets(Map.of("set1", 1, "set2", 3, "set3", 1));
+
+        Assert.assertTrue(SpecDiffer.generateSetDiff(lastApplied, spec, "set1").areEquals());
+        final JSONComparator.Result set2Result = SpecDiffer.generateSetDiff(lastApplied, spec, "set2");
+        Assert.assertFalse(set2Result.areEquals());
+        Assert.assertEquals(set2Result.diffs().size(), 1);
+        Assert.assertEquals(set2Result.diffs().get(0).field(), "broker.sets.set2.replicas");
+        Assert.assertEquals(SpecDiffer.generateSetDiff(lastApplied, spec, "set3").diffs().get(0).field(),
+                "broker.sets.\"set3\"");
+        Assert.assertTrue(SpecDiffer.generateSetDiff(null, null, "set1").areEquals());
+        Assert.assertFalse(SpecDiffer.generateSetDiff(null, spec, "set1").areEquals());
+
+        spec.getBroker().setReplicas(5);
+        Assert.assertFalse(SpecDiffer.generateSetDiff(lastApplied, spec, "set1").areEquals());
+    }
+
+    @Test
+    public void testSetViewEqualsFilteredCopy() {
+        final BrokerFullSpec spec = brokerWithSets(Map.of("set1", 1, "set2", 2));
+        final BrokerFullSpec filtered = SerializationUtil.deepCloneObject(spec);
+        filtered.getBroker().getSets().entrySet().removeIf(e -> !e.getKey().equals("set2"));
+        Assert.assertEquals(SetSpecView.of(spec, "set2"), SerializationUtil.toJsonTree(filtered));
+
+        spec.getBroker().setSets(null);
+        Assert.assertEquals(SetSpecView.of(spec, "set2"), SerializationUtil.toJsonTree(spec));
+    }
+
+    @Test
+    public void testSetHash() {
+        final BrokerFullSpec spec = brokerWithSets(Map.of("set1", 1, "set2", 2));
+        final String hash = SetSpecView.hash(spec, "set1");
+        Assert.assertEquals(SetSpecView.hash(brokerWithSets(Map.of("set1", 1, "set2", 3)), "set1"), hash);
+        Assert.assertNotEquals(SetSpecView.hash(brokerWithSets(Map.of("set1", 2, "set2", 2)), "set1"), hash);
+        Assert.assertNotEquals(SetSpecView.hash(spec, "set2"), hash);
+
+        // same hash from the stored json, regardless of field order, nulls and number format
+        final ObjectNode stored = (ObjectNode) SerializationUtil.readJsonTree(SerializationUtil.writeAsJson(spec));
+        Assert.assertEquals(SetSpecView.hash(SetSpecView.of(stored, "set1")), hash);
+        final ObjectNode reordered = JsonNodeFactory.instance.objectNode();
+        reordered.set("broker", stored.get("broker"));
+        reordered.set("global", stored.get("global"));
+        reordered.putNull("unknown");
+        ((ObjectNode) reordered.get("broker").get("sets").get("set1")).put("replicas", 1.0);
+        Assert.assertEquals(SetSpecView.hash(SetSpecView.of(reordered, "set1")), hash);
+    }
+
+    private static BrokerFullSpec brokerWithSets(Map<String, Integer> replicas) {
+        final LinkedHashMap<String, BrokerSetSpec> sets = new LinkedHashMap<>();
+        replicas.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> sets.put(e.getKey(), BrokerSetSpec.builder().replicas(e.getValue()).build()));
+        return BrokerFullSpec.builder()
+                .global(GlobalSpec.builder().name("pulsar").image("apachepulsar/pulsar:2.10.2").build())
+                .broker(BrokerSpec.builder().sets(sets).build())
+                .build();
+    }
+
     private static void assertNoDiffs(Object spec1, Object spec2) {
         final JSONComparator.Result result = SpecDiffer.generateDiff(spec1, spec2);
         if (!result.areEquals()) {